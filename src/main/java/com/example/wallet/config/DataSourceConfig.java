@@ -0,0 +1,43 @@
+package com.example.wallet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Sizes the Hikari pool of the prod profile from the number of cores, as
+ * {@code cores * connections-per-core + spindle-count}, unless {@code wallet.datasource.pool-size}
+ * sets a fixed size.
+ */
+@Configuration
+@Profile("prod")
+public class DataSourceConfig {
+
+    @Bean
+    public static BeanPostProcessor hikariPoolSizer(
+            @Value("${wallet.datasource.pool-size:0}") int fixedPoolSize,
+            @Value("${wallet.datasource.connections-per-core:2}") int connectionsPerCore,
+            @Value("${wallet.datasource.spindle-count:1}") int spindleCount
+    ) {
+        int poolSize = poolSize(fixedPoolSize, Runtime.getRuntime().availableProcessors(), connectionsPerCore, spindleCount);
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMaximumPoolSize(poolSize);
+                }
+
+                return bean;
+            }
+        };
+    }
+
+    static int poolSize(int fixedPoolSize, int cores, int connectionsPerCore, int spindleCount) {
+        return fixedPoolSize > 0 ? fixedPoolSize : cores * connectionsPerCore + spindleCount;
+    }
+}
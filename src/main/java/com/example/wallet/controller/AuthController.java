@@ -1,19 +1,31 @@
 package com.example.wallet.controller;
 
 import com.example.wallet.dto.request.LoginUserRequestBody;
+import com.example.wallet.dto.request.RefreshTokenRequestBody;
 import com.example.wallet.dto.request.RegisterUserRequestBody;
+import com.example.wallet.dto.response.AuthTokens;
 import com.example.wallet.dto.response.LoginSuccessResponseMessage;
+import com.example.wallet.dto.response.RegistrationStatusResponse;
 import com.example.wallet.dto.response.ResponseMessage;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.security.jwt.JWTPrincipal;
+import com.example.wallet.service.AsyncRegistration;
 import com.example.wallet.service.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.net.URI;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 public class AuthController {
@@ -21,8 +33,24 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired(required = false)
+    private AsyncRegistration asyncRegistration;
+
     @PostMapping("/register")
-    public ResponseEntity<ResponseMessage> registerUser(@RequestBody RegisterUserRequestBody requestBody) {
+    public ResponseEntity<?> registerUser(@RequestBody RegisterUserRequestBody requestBody) {
+        if (asyncRegistration != null) {
+            RegistrationStatusResponse registration = asyncRegistration.submit(
+                    requestBody.firstName(),
+                    requestBody.lastName(),
+                    requestBody.email(),
+                    requestBody.password()
+            );
+
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/auth/registrations/" + registration.id()))
+                    .body(registration);
+        }
+
         authService.registerUser(
                 requestBody.firstName(),
                 requestBody.lastName(),
@@ -33,9 +61,36 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(new ResponseMessage(true));
     }
 
+    @GetMapping("/registrations/{id}")
+    public ResponseEntity<RegistrationStatusResponse> getRegistrationStatus(@PathVariable String id) {
+        if (asyncRegistration == null) {
+            throw new AppException(ErrorCode.REGISTRATION_NOT_FOUND, "Registration Not Found");
+        }
+
+        return ResponseEntity.ok(asyncRegistration.getStatus(id));
+    }
+
     @PostMapping("/login")
     public ResponseEntity<LoginSuccessResponseMessage> loginUser(@RequestBody LoginUserRequestBody requestBody, HttpServletRequest request) {
-        String token = authService.loginUser(requestBody.email(), requestBody.password(), request);
-        return ResponseEntity.ok(new LoginSuccessResponseMessage(true, token));
+        AuthTokens tokens = authService.loginUser(requestBody.email(), requestBody.password(), request);
+        return ResponseEntity.ok(new LoginSuccessResponseMessage(true, tokens.token(), tokens.refreshToken()));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginSuccessResponseMessage> refreshTokens(@Valid @RequestBody RefreshTokenRequestBody requestBody) {
+        AuthTokens tokens = authService.refreshTokens(requestBody.refreshToken());
+        return ResponseEntity.ok(new LoginSuccessResponseMessage(true, tokens.token(), tokens.refreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<ResponseMessage> logoutUser(@RequestBody(required = false) RefreshTokenRequestBody requestBody, JWTPrincipal principal) {
+        authService.logoutUser(principal, requestBody == null ? null : requestBody.refreshToken());
+        return ResponseEntity.ok(new ResponseMessage(true));
+    }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<ResponseMessage> logoutUserEverywhere(JWTPrincipal principal) {
+        authService.logoutUserEverywhere(principal);
+        return ResponseEntity.ok(new ResponseMessage(true));
     }
 }
@@ -0,0 +1,33 @@
+package com.example.wallet.controller;
+
+import com.example.wallet.security.jwt.JWTKeys;
+import com.example.wallet.security.jwt.JWTSigningProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the public keys verifying the access tokens, so gateway nodes can verify them
+ * without the signing key.
+ */
+@RestController
+public class JwksController {
+
+    @Autowired
+    private JWTKeys jwtKeys;
+
+    @Autowired
+    private JWTSigningProperties jwtSigningProperties;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, String>>>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwtSigningProperties.jwksMaxAge()).cachePublic())
+                .body(Map.of("keys", jwtKeys.getJwks()));
+    }
+}
@@ -1,16 +1,21 @@
 package com.example.wallet.controller;
 
-import com.example.wallet.entity.Transaction;
-import com.example.wallet.entity.User;
+import com.example.wallet.dto.response.TransactionResponse;
+import com.example.wallet.dto.response.TransactionSummaryResponse;
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.security.jwt.JWTPrincipal;
 import com.example.wallet.service.TransactionService;
-import com.example.wallet.service.UserService;
+import com.example.wallet.service.WalletService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,12 +26,29 @@ public class TransactionController {
     private TransactionService transactionService;
 
     @Autowired
-    private UserService userService;
+    private WalletService walletService;
 
     @GetMapping
-    public ResponseEntity<List<Transaction>> getAllTransactions(Principal principal) {
-        User user = (User) userService.loadUserByUsername(principal.getName());
-        List<Transaction> transactions = transactionService.getAllTransactions(user);
+    public ResponseEntity<List<TransactionResponse>> getAllTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            JWTPrincipal principal
+    ) {
+        Wallet wallet = walletService.getWallet(principal.getWalletId());
+        List<TransactionResponse> transactions = from == null && to == null
+                ? transactionService.getAllTransactions(wallet)
+                : transactionService.getTransactions(wallet, from, to == null ? LocalDateTime.now() : to);
         return ResponseEntity.ok(transactions);
     }
+
+    @GetMapping("/summary")
+    public ResponseEntity<TransactionSummaryResponse> getTransactionSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            JWTPrincipal principal
+    ) {
+        Wallet wallet = walletService.getWallet(principal.getWalletId());
+        TransactionSummaryResponse summary = transactionService.getTransactionSummary(wallet, from, to);
+        return ResponseEntity.ok(summary);
+    }
 }
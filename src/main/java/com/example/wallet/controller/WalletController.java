@@ -3,16 +3,22 @@ package com.example.wallet.controller;
 import com.example.wallet.dto.request.CreateWalletRequestBody;
 import com.example.wallet.dto.request.TransferAmountRequestBody;
 import com.example.wallet.dto.request.WalletUpdateRequestBody;
+import com.example.wallet.dto.response.WalletResponse;
 import com.example.wallet.entity.User;
 import com.example.wallet.entity.Wallet;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.ledger.LedgerEngine;
+import com.example.wallet.security.jwt.JWTPrincipal;
+import com.example.wallet.service.TransferBatcher;
 import com.example.wallet.service.UserService;
 import com.example.wallet.service.WalletService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
-
 @RestController
 @RequestMapping("/api/v1/wallet")
 public class WalletController {
@@ -23,38 +29,63 @@ public class WalletController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Autowired(required = false)
+    private TransferBatcher transferBatcher;
+
     @GetMapping
-    public ResponseEntity<Wallet> fetchWallet(Principal principal) {
-        User user = (User) userService.loadUserByUsername(principal.getName());
-        Wallet wallet = walletService.getUserWallet(user);
+    public ResponseEntity<WalletResponse> fetchWallet(JWTPrincipal principal) {
+        WalletResponse wallet = ledgerEngine != null
+                ? ledgerEngine.findLoadedWallet(principal.getWalletId()).map(WalletResponse::from).orElseGet(() -> walletService.getWalletResponse(principal.getWalletId()))
+                : walletService.getWalletResponse(principal.getWalletId());
         return ResponseEntity.ok(wallet);
     }
 
     @PutMapping("/activate")
-    public ResponseEntity<Wallet> activateWallet(@RequestBody CreateWalletRequestBody requestBody, Principal principal) {
-        User user = (User) userService.loadUserByUsername(principal.getName());
+    public ResponseEntity<WalletResponse> activateWallet(@Valid @RequestBody CreateWalletRequestBody requestBody, JWTPrincipal principal) {
+        User user = userService.loadUserWithWallet(principal.getName());
         Wallet wallet = walletService.activateWallet(user, requestBody.currency());
-        return ResponseEntity.ok(wallet);
+        return ResponseEntity.ok(WalletResponse.from(wallet));
     }
 
     @PutMapping("/deposit")
-    public ResponseEntity<Wallet> depositAmountToWallet(@RequestBody WalletUpdateRequestBody requestBody, Principal principal) {
-        User user = (User) userService.loadUserByUsername(principal.getName());
-        Wallet wallet = walletService.depositAmountToWallet(requestBody.amount(), user.getWallet().getId());
-        return ResponseEntity.ok(wallet);
+    public ResponseEntity<WalletResponse> depositAmountToWallet(@Valid @RequestBody WalletUpdateRequestBody requestBody, JWTPrincipal principal) {
+        Wallet wallet = ledgerEngine != null
+                ? ledgerEngine.depositAmountToWallet(requestBody.amount(), principal.getWalletId())
+                : walletService.depositAmountToWallet(requestBody.amount(), principal.getWalletId());
+        return ResponseEntity.ok(WalletResponse.from(wallet));
     }
 
     @PutMapping("/withdraw")
-    public ResponseEntity<Wallet> withdrawAmountFromWallet(@RequestBody WalletUpdateRequestBody requestBody, Principal principal) {
-        User user = (User) userService.loadUserByUsername(principal.getName());
-        Wallet wallet = walletService.withDrawAmountFromWallet(requestBody.amount(), user.getWallet().getId());
-        return ResponseEntity.ok(wallet);
+    public ResponseEntity<WalletResponse> withdrawAmountFromWallet(@Valid @RequestBody WalletUpdateRequestBody requestBody, JWTPrincipal principal) {
+        Wallet wallet = ledgerEngine != null
+                ? ledgerEngine.withDrawAmountFromWallet(requestBody.amount(), principal.getWalletId())
+                : walletService.withDrawAmountFromWallet(requestBody.amount(), principal.getWalletId());
+        return ResponseEntity.ok(WalletResponse.from(wallet));
     }
 
     @PutMapping("/transfer")
-    public ResponseEntity<Wallet> transferAmountToWallet(@RequestBody TransferAmountRequestBody requestBody, Principal principal) {
-        User user = (User) userService.loadUserByUsername(principal.getName());
-        Wallet wallet = walletService.transferAmountToWallet(requestBody.amount(), user, requestBody.walletId());
-        return ResponseEntity.ok(wallet);
+    public ResponseEntity<WalletResponse> transferAmountToWallet(@Valid @RequestBody TransferAmountRequestBody requestBody, JWTPrincipal principal) {
+        if (requestBody.walletId().equals(principal.getWalletId())) {
+            meterRegistry.counter("wallet.validation.rejections", "field", "walletId", "reason", "SelfTransfer").increment();
+            throw new AppException(ErrorCode.SELF_TRANSFER, "Cannot transfer money to your own wallet");
+        }
+
+        Wallet wallet;
+
+        if (ledgerEngine != null) {
+            wallet = ledgerEngine.transferAmountToWallet(requestBody.amount(), principal.getWalletId(), requestBody.walletId());
+        } else if (transferBatcher != null) {
+            wallet = transferBatcher.transferAmountToWallet(requestBody.amount(), principal.getWalletId(), requestBody.walletId());
+        } else {
+            wallet = walletService.transferAmountToWallet(requestBody.amount(), userService.loadUserWithWallet(principal.getName()), requestBody.walletId());
+        }
+
+        return ResponseEntity.ok(WalletResponse.from(wallet));
     }
 }
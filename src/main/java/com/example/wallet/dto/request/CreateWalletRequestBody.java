@@ -1,6 +1,7 @@
 package com.example.wallet.dto.request;
 
 import com.example.wallet.entity.Currency;
+import jakarta.validation.constraints.NotNull;
 
-public record CreateWalletRequestBody(Currency currency) {
+public record CreateWalletRequestBody(@NotNull(message = "Invalid Currency") Currency currency) {
 }
@@ -0,0 +1,8 @@
+package com.example.wallet.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequestBody(
+        @NotBlank(message = "Refresh token is required") String refreshToken
+) {
+}
@@ -1,4 +1,14 @@
 package com.example.wallet.dto.request;
 
-public record TransferAmountRequestBody(Double amount, Long walletId) {
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record TransferAmountRequestBody(
+        @NotNull(message = "Amount is required")
+        @Positive(message = "Amount must be greater than 0")
+        Double amount,
+
+        @NotNull(message = "Wallet id is required")
+        Long walletId
+) {
 }
@@ -1,4 +1,11 @@
 package com.example.wallet.dto.request;
 
-public record WalletUpdateRequestBody(Double amount) {
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record WalletUpdateRequestBody(
+        @NotNull(message = "Amount is required")
+        @Positive(message = "Amount must be greater than 0")
+        Double amount
+) {
 }
@@ -0,0 +1,4 @@
+package com.example.wallet.dto.response;
+
+public record AuthTokens(String token, String refreshToken) {
+}
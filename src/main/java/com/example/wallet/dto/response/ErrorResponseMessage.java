@@ -1,5 +1,6 @@
 package com.example.wallet.dto.response;
 
+import com.example.wallet.exception.ErrorCode;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -7,10 +8,12 @@ import lombok.Setter;
 @Setter
 public class ErrorResponseMessage extends ResponseMessage {
 
+    private final ErrorCode code;
     private final String message;
 
-    public ErrorResponseMessage(boolean success, String message) {
+    public ErrorResponseMessage(boolean success, ErrorCode code, String message) {
         super(success);
+        this.code = code;
         this.message = message;
     }
 }
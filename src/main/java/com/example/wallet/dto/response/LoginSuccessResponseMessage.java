@@ -8,9 +8,11 @@ import lombok.Setter;
 public class LoginSuccessResponseMessage extends ResponseMessage {
 
     private final String token;
+    private final String refreshToken;
 
-    public LoginSuccessResponseMessage(boolean success, String token) {
+    public LoginSuccessResponseMessage(boolean success, String token, String refreshToken) {
         super(success);
         this.token = token;
+        this.refreshToken = refreshToken;
     }
 }
@@ -0,0 +1,12 @@
+package com.example.wallet.dto.response;
+
+import com.example.wallet.exception.ErrorCode;
+
+public record RegistrationStatusResponse(String id, Status status, ErrorCode code, String message) {
+
+    public enum Status {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
+}
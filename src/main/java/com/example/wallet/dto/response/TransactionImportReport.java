@@ -0,0 +1,21 @@
+package com.example.wallet.dto.response;
+
+import java.util.List;
+import java.util.Set;
+
+public record TransactionImportReport(
+        String file,
+        long rowsRead,
+        long rowsImported,
+        long rowsRejected,
+        long rowsSkipped,
+        int walletsUpdated,
+        long elapsedMillis,
+        List<String> errors,
+        Set<Long> unknownWalletIds
+) {
+
+    public double rowsPerSecond() {
+        return elapsedMillis == 0 ? rowsImported : rowsImported * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.wallet.dto.response;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+
+import java.time.LocalDateTime;
+
+public record TransactionResponse(
+        Long id,
+        Long fromWalletId,
+        Double fromWalletAmount,
+        Currency fromWalletCurrency,
+        Long toWalletId,
+        Double toWalletAmount,
+        Currency toWalletCurrency,
+        TransactionType transactionType,
+        LocalDateTime createdAt
+) {
+
+    public static TransactionResponse from(Transaction transaction) {
+        return new TransactionResponse(
+                transaction.getId(),
+                transaction.getFromWalletId(),
+                transaction.getFromWalletAmount(),
+                transaction.getFromWalletCurrency(),
+                transaction.getToWalletId(),
+                transaction.getToWalletAmount(),
+                transaction.getToWalletCurrency(),
+                transaction.getTransactionType(),
+                transaction.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.wallet.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record TransactionSummaryResponse(LocalDate from, LocalDate to, List<TransactionTypeSummary> totals) {
+}
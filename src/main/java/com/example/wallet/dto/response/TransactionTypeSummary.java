@@ -0,0 +1,12 @@
+package com.example.wallet.dto.response;
+
+import com.example.wallet.entity.TransactionType;
+
+public record TransactionTypeSummary(
+        TransactionType transactionType,
+        Long inflowCount,
+        Double inflowAmount,
+        Long outflowCount,
+        Double outflowAmount
+) {
+}
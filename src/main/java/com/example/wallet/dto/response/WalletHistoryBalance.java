@@ -0,0 +1,11 @@
+package com.example.wallet.dto.response;
+
+import com.example.wallet.entity.Currency;
+
+public record WalletHistoryBalance(
+        Long walletId,
+        Currency currency,
+        Double balance,
+        Double historyBalance
+) {
+}
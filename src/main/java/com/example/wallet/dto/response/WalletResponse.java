@@ -0,0 +1,11 @@
+package com.example.wallet.dto.response;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Wallet;
+
+public record WalletResponse(Long id, Double amount, Currency currency, boolean activated) {
+
+    public static WalletResponse from(Wallet wallet) {
+        return new WalletResponse(wallet.getId(), wallet.getBalance(), wallet.getCurrency(), wallet.isActivated());
+    }
+}
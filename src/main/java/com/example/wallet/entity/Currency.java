@@ -1,18 +1,26 @@
 package com.example.wallet.entity;
 
+import com.example.wallet.rates.RateSet;
+
+import java.math.BigDecimal;
+
 public enum Currency {
-    DOLLAR(1),
-    RUPEE(80),
-    YEN(160),
-    EURO(0.8);
+    DOLLAR("1"),
+    RUPEE("80"),
+    YEN("160"),
+    EURO("0.8");
 
-    private final double currencyToDollarConversionFactor;
+    private final BigDecimal currencyToDollarConversionFactor;
+
+    private Currency(String currencyToDollarConversionFactor) {
+        this.currencyToDollarConversionFactor = new BigDecimal(currencyToDollarConversionFactor);
+    }
 
-    private Currency(double currencyToDollarConversionFactor) {
-        this.currencyToDollarConversionFactor = currencyToDollarConversionFactor;
+    public BigDecimal getCurrencyToDollarConversionFactor() {
+        return currencyToDollarConversionFactor;
     }
 
     public double convertTo(Currency currency, double amount) {
-        return amount * ((currency.currencyToDollarConversionFactor * 1.0) / (this.currencyToDollarConversionFactor * 1.0));
+        return RateSet.DEFAULT.convert(this, currency, amount);
     }
 }
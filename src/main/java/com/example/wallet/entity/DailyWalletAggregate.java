@@ -0,0 +1,58 @@
+package com.example.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(
+        name = "wallet_daily_aggregates",
+        uniqueConstraints = @UniqueConstraint(
+                name = "wallet_daily_aggregate_unique",
+                columnNames = {"walletId", "aggregateDate", "transactionType"}
+        )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyWalletAggregate {
+
+    @Id
+    @SequenceGenerator(
+            name = "daily_aggregate_sequence",
+            sequenceName = "daily_aggregate_sequence",
+            allocationSize = 1
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "daily_aggregate_sequence"
+    )
+    private Long id;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private LocalDate aggregateDate;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    @Column(nullable = false)
+    private long inflowCount;
+
+    @Column(nullable = false)
+    private double inflowAmount;
+
+    @Column(nullable = false)
+    private long outflowCount;
+
+    @Column(nullable = false)
+    private double outflowAmount;
+}
@@ -0,0 +1,41 @@
+package com.example.wallet.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of valid rows of a transaction import file, identified by its SHA-256 checksum, that
+ * have been committed so far.
+ */
+@Entity
+@Table(name = "wallet_imported_files")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportedFile {
+
+    @Id
+    @Column(length = 64)
+    private String checksum;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(nullable = false)
+    private long rowsImported;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
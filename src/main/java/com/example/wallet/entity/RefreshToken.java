@@ -0,0 +1,61 @@
+package com.example.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An opaque refresh token, stored only as its SHA-256 hash. Every refresh uses up the token and
+ * issues a new one in the same family; presenting a used token again revokes the whole family.
+ */
+@Entity
+@Table(
+        name = "wallet_refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(
+                name = "refresh_token_hash_unique",
+                columnNames = "tokenHash"
+        )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @SequenceGenerator(
+            name = "refresh_token_sequence",
+            sequenceName = "refresh_token_sequence",
+            allocationSize = 1
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "refresh_token_sequence"
+    )
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 36)
+    private String familyId;
+
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    private LocalDateTime usedAt;
+
+    public boolean isUsed() {
+        return usedAt != null;
+    }
+}
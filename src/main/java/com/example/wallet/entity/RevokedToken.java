@@ -0,0 +1,49 @@
+package com.example.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A token revoked before its expiry, identified by its {@code jti} claim. Rows can be deleted
+ * once the token has expired.
+ */
+@Entity
+@Table(
+        name = "wallet_revoked_tokens",
+        uniqueConstraints = @UniqueConstraint(
+                name = "revoked_token_unique",
+                columnNames = "tokenId"
+        )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @SequenceGenerator(
+            name = "revoked_token_sequence",
+            sequenceName = "revoked_token_sequence",
+            allocationSize = 1
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "revoked_token_sequence"
+    )
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String tokenId;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private LocalDateTime revokedAt;
+}
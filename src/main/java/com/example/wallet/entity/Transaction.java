@@ -1,5 +1,6 @@
 package com.example.wallet.entity;
 
+import com.example.wallet.rates.RateSet;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -45,6 +46,8 @@ public class Transaction {
     @Column(nullable = false)
     private Currency toWalletCurrency;
 
+    private Long rateVersion;
+
     @Column(nullable = false, length = 20)
     @Enumerated(EnumType.STRING)
     private TransactionType transactionType;
@@ -53,13 +56,17 @@ public class Transaction {
     private LocalDateTime createdAt;
 
     public boolean isValidTransferTransaction() {
+        return isValidTransferTransaction(RateSet.DEFAULT);
+    }
+
+    public boolean isValidTransferTransaction(RateSet rates) {
         return fromWalletId != null &&
                 fromWalletAmount > 0 &&
                 fromWalletCurrency != null &&
                 toWalletId != null &&
                 toWalletAmount > 0 &&
                 toWalletCurrency != null &&
-                fromWalletCurrency.convertTo(toWalletCurrency, fromWalletAmount) == toWalletAmount &&
+                rates.convert(fromWalletCurrency, toWalletCurrency, fromWalletAmount) == toWalletAmount &&
                 !fromWalletId.equals(toWalletId) &&
                 transactionType == TransactionType.TRANSFER &&
                 createdAt != null;
@@ -53,7 +53,11 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private Boolean enabled = false;
 
-    @OneToOne(cascade = CascadeType.ALL)
+    @Column(nullable = false)
+    private int securityVersion;
+
+    @ToString.Exclude
+    @OneToOne(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JoinColumn(name = "wallet_id", referencedColumnName = "id")
     private Wallet wallet;
 
@@ -1,13 +1,13 @@
 package com.example.wallet.entity;
 
 import com.example.wallet.exception.AppException;
-import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.rates.RateSet;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
 
@@ -41,17 +41,19 @@ public class Wallet {
     @Column(nullable = false)
     private boolean isActivated = false;
 
-    @JsonBackReference
-    @OneToOne(mappedBy = "wallet")
-    private User user;
+    @Column(nullable = false)
+    private int stripeCount;
+
+    @Transient
+    private Double stripeBalance;
 
     public void activate(Currency currency) {
         if (isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Wallet is already activated");
+            throw new AppException(ErrorCode.WALLET_ALREADY_ACTIVATED, "Wallet is already activated");
         }
 
         if (currency == null) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Cannot activate wallet with a null currency");
+            throw new AppException(ErrorCode.INVALID_CURRENCY, "Cannot activate wallet with a null currency");
         }
 
         this.isActivated = true;
@@ -59,16 +61,34 @@ public class Wallet {
         this.currency = currency;
     }
 
+    /**
+     * Striped wallets keep their balance in {@link WalletStripe} rows instead of {@code amount},
+     * balance changes of such wallets are applied by the caller on the stripes.
+     */
+    public boolean isStriped() {
+        return stripeCount > 0;
+    }
+
+    public Double getBalance() {
+        if (isStriped()) {
+            return stripeBalance;
+        }
+
+        return amount;
+    }
+
     public Transaction depositMoney(Double amount) {
         if (!isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Wallet is not activated yet");
+            throw new AppException(ErrorCode.WALLET_NOT_ACTIVATED, "Wallet is not activated yet");
         }
 
         if (amount <= 0) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Cannot deposit 0 or less amount");
+            throw new AppException(ErrorCode.INVALID_AMOUNT, "Cannot deposit 0 or less amount");
         }
 
-        this.amount += amount;
+        if (!isStriped()) {
+            this.amount += amount;
+        }
 
         return Transaction.builder()
                 .fromWalletId(id)
@@ -84,18 +104,20 @@ public class Wallet {
 
     public Transaction withdrawMoney(Double amount) {
         if (!isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Wallet is not activated yet");
+            throw new AppException(ErrorCode.WALLET_NOT_ACTIVATED, "Wallet is not activated yet");
         }
 
         if (amount <= 0) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Cannot withdraw 0 or less amount");
+            throw new AppException(ErrorCode.INVALID_AMOUNT, "Cannot withdraw 0 or less amount");
         }
 
-        if (amount > this.amount) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Amount exceeded current balance in wallet");
-        }
+        if (!isStriped()) {
+            if (amount > this.amount) {
+                throw new AppException(ErrorCode.INSUFFICIENT_BALANCE, "Amount exceeded current balance in wallet");
+            }
 
-        this.amount -= amount;
+            this.amount -= amount;
+        }
 
         return Transaction.builder()
                 .fromWalletId(id)
@@ -110,32 +132,39 @@ public class Wallet {
     }
 
     public Transaction transferAmountTo(Double amount, Wallet toWallet) {
+        return transferAmountTo(amount, toWallet, RateSet.DEFAULT);
+    }
+
+    public Transaction transferAmountTo(Double amount, Wallet toWallet, RateSet rates) {
         if (!isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Wallet is not activated yet");
+            throw new AppException(ErrorCode.WALLET_NOT_ACTIVATED, "Wallet is not activated yet");
         }
 
         if (!toWallet.isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "The wallet you are trying to transfer is not activated yet");
+            throw new AppException(ErrorCode.RECIPIENT_WALLET_NOT_ACTIVATED, "The wallet you are trying to transfer is not activated yet");
         }
 
         if (id.equals(toWallet.id)) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Cannot transfer money to oneself");
+            throw new AppException(ErrorCode.SELF_TRANSFER, "Cannot transfer money to oneself");
         }
 
-        if (amount > this.amount) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Cannot transfer more than your current balance");
+        if (!isStriped() && amount > this.amount) {
+            throw new AppException(ErrorCode.INSUFFICIENT_BALANCE, "Cannot transfer more than your current balance");
         }
 
+        double convertedAmount = rates.convert(currency, toWallet.currency, amount);
+
         this.withdrawMoney(amount);
-        toWallet.depositMoney(this.currency.convertTo(toWallet.getCurrency(), amount));
+        toWallet.depositMoney(convertedAmount);
 
         return Transaction.builder()
                 .fromWalletId(id)
                 .fromWalletAmount(amount)
                 .fromWalletCurrency(currency)
                 .toWalletId(toWallet.id)
-                .toWalletAmount(currency.convertTo(toWallet.currency, amount))
+                .toWalletAmount(convertedAmount)
                 .toWalletCurrency(toWallet.currency)
+                .rateVersion(rates.getVersion())
                 .transactionType(TransactionType.TRANSFER)
                 .createdAt(LocalDateTime.now())
                 .build();
@@ -0,0 +1,43 @@
+package com.example.wallet.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(
+        name = "wallet_stripes",
+        uniqueConstraints = @UniqueConstraint(
+                name = "wallet_stripe_unique",
+                columnNames = {"walletId", "stripeIndex"}
+        )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletStripe {
+
+    @Id
+    @SequenceGenerator(
+            name = "wallet_stripe_sequence",
+            sequenceName = "wallet_stripe_sequence",
+            allocationSize = 1
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "wallet_stripe_sequence"
+    )
+    private Long id;
+
+    @Column(nullable = false)
+    private Long walletId;
+
+    @Column(nullable = false)
+    private int stripeIndex;
+
+    @Column(nullable = false)
+    private Double amount;
+}
@@ -4,14 +4,32 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.http.HttpStatus;
 
+/**
+ * Client errors are expected business outcomes, so they are created without capturing a stack
+ * trace. Server errors keep theirs.
+ */
 @Getter
 @Setter
 public class AppException extends RuntimeException {
 
     private final HttpStatus status;
+    private final ErrorCode code;
+
+    public AppException(ErrorCode code, String message) {
+        this(code.getStatus(), code, message, !code.getStatus().is4xxClientError());
+    }
 
     public AppException(HttpStatus status, String message) {
-        super(message);
+        this(status, ErrorCode.UNCATEGORIZED, message, !status.is4xxClientError());
+    }
+
+    public AppException(ErrorCode code, String message, boolean writableStackTrace) {
+        this(code.getStatus(), code, message, writableStackTrace);
+    }
+
+    private AppException(HttpStatus status, ErrorCode code, String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
         this.status = status;
+        this.code = code;
     }
 }
@@ -1,34 +1,136 @@
 package com.example.wallet.exception;
 
 import com.example.wallet.dto.response.ErrorResponseMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Error bodies are serialized once per code and message and written as raw bytes afterwards, since
+ * almost every error carries one of a small set of fixed messages. Every error is counted in
+ * {@code wallet.errors}, tagged by its {@link ErrorCode} and the matched endpoint pattern.
+ */
 @ControllerAdvice
 @ResponseStatus
 public class AppExceptionHandler extends ResponseEntityExceptionHandler {
+
+    static final int MAX_CACHED_BODIES = 1024;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Comparator<FieldError> FIELD_ERROR_ORDER = Comparator
+            .comparing(FieldError::getField)
+            .thenComparing(fieldError -> String.valueOf(fieldError.getCode()));
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<ErrorCode, Map<String, byte[]>> errorBodies = new EnumMap<>(ErrorCode.class);
+    private final AtomicInteger cachedBodies = new AtomicInteger();
+
+    public AppExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        for (ErrorCode code : ErrorCode.values()) {
+            errorBodies.put(code, new ConcurrentHashMap<>());
+        }
+    }
+
     @ExceptionHandler(AppException.class)
-    public ResponseEntity<ErrorResponseMessage> appException(AppException exception, WebRequest request) {
-        ErrorResponseMessage errorMessage = new ErrorResponseMessage(false, exception.getMessage());
-        return ResponseEntity.status(exception.getStatus()).body(errorMessage);
+    public ResponseEntity<byte[]> appException(AppException exception, WebRequest request) {
+        return errorResponse(exception.getStatus(), exception.getCode(), exception.getMessage(), request);
     }
 
     @ExceptionHandler(UsernameNotFoundException.class)
-    public ResponseEntity<ErrorResponseMessage> usernameNotFoundException(UsernameNotFoundException exception, WebRequest request) {
-        ErrorResponseMessage errorMessage = new ErrorResponseMessage(false, exception.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorMessage);
+    public ResponseEntity<byte[]> usernameNotFoundException(UsernameNotFoundException exception, WebRequest request) {
+        return errorResponse(HttpStatus.NOT_FOUND, ErrorCode.USER_NOT_FOUND, exception.getMessage(), request);
     }
 
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<ErrorResponseMessage> badCredentialsException(BadCredentialsException exception, WebRequest request) {
-        ErrorResponseMessage errorMessage = new ErrorResponseMessage(false, "Email/Password does not match");
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorMessage);
+    public ResponseEntity<byte[]> badCredentialsException(BadCredentialsException exception, WebRequest request) {
+        return errorResponse(HttpStatus.BAD_REQUEST, ErrorCode.INVALID_CREDENTIALS, "Email/Password does not match", request);
+    }
+
+    /**
+     * Request bodies are validated before the controller runs, so these are rejected without
+     * touching the database. Violations are ordered by field and constraint so the same request
+     * always gets the same message; each one is counted by field and constraint.
+     */
+    @Override
+    protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException exception, HttpHeaders headers, HttpStatusCode status, WebRequest request) {
+        List<FieldError> fieldErrors = exception.getFieldErrors().stream()
+                .sorted(FIELD_ERROR_ORDER)
+                .toList();
+
+        for (FieldError fieldError : fieldErrors) {
+            meterRegistry.counter("wallet.validation.rejections", "field", fieldError.getField(), "reason", String.valueOf(fieldError.getCode())).increment();
+        }
+
+        String message = fieldErrors.isEmpty() ? "Invalid Request" : fieldErrors.get(0).getDefaultMessage();
+
+        countError(ErrorCode.VALIDATION_FAILED, request);
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorBody(ErrorCode.VALIDATION_FAILED, message));
+    }
+
+    byte[] errorBody(ErrorCode code, String message) {
+        Map<String, byte[]> bodies = errorBodies.get(code);
+        byte[] body = message == null ? null : bodies.get(message);
+
+        if (body == null) {
+            body = serialize(code, message);
+
+            if (message != null && cachedBodies.get() < MAX_CACHED_BODIES && bodies.putIfAbsent(message, body) == null) {
+                cachedBodies.incrementAndGet();
+            }
+        }
+
+        return body;
+    }
+
+    private ResponseEntity<byte[]> errorResponse(HttpStatus status, ErrorCode code, String message, WebRequest request) {
+        countError(code, request);
+
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorBody(code, message));
+    }
+
+    private void countError(ErrorCode code, WebRequest request) {
+        Object endpoint = request == null ? null : request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+        meterRegistry.counter("wallet.errors", "code", code.name(), "endpoint", endpoint == null ? "unknown" : endpoint.toString()).increment();
+    }
+
+    private static byte[] serialize(ErrorCode code, String message) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(new ErrorResponseMessage(false, code, message));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,49 @@
+package com.example.wallet.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Stable, low cardinality identifiers of business failures, returned to clients next to the
+ * message and used as the {@code code} tag of the {@code wallet.errors} counter.
+ */
+public enum ErrorCode {
+    INVALID_AMOUNT(HttpStatus.BAD_REQUEST),
+    INVALID_CURRENCY(HttpStatus.BAD_REQUEST),
+    INVALID_DATE_RANGE(HttpStatus.BAD_REQUEST),
+    INVALID_STRIPE_COUNT(HttpStatus.BAD_REQUEST),
+    INVALID_TOKEN(HttpStatus.BAD_REQUEST),
+    INVALID_REFRESH_TOKEN(HttpStatus.UNAUTHORIZED),
+    INVALID_CREDENTIALS(HttpStatus.BAD_REQUEST),
+    VALIDATION_FAILED(HttpStatus.BAD_REQUEST),
+    SELF_TRANSFER(HttpStatus.BAD_REQUEST),
+    ALREADY_LOGGED_IN(HttpStatus.FORBIDDEN),
+    USER_NOT_FOUND(HttpStatus.NOT_FOUND),
+    WALLET_NOT_FOUND(HttpStatus.NOT_FOUND),
+    REGISTRATION_NOT_FOUND(HttpStatus.NOT_FOUND),
+    RECIPIENT_WALLET_NOT_FOUND(HttpStatus.NOT_FOUND),
+    USER_ALREADY_EXISTS(HttpStatus.CONFLICT),
+    WALLET_NOT_ACTIVATED(HttpStatus.UNPROCESSABLE_ENTITY),
+    RECIPIENT_WALLET_NOT_ACTIVATED(HttpStatus.UNPROCESSABLE_ENTITY),
+    WALLET_ALREADY_ACTIVATED(HttpStatus.UNPROCESSABLE_ENTITY),
+    WALLET_ALREADY_STRIPED(HttpStatus.UNPROCESSABLE_ENTITY),
+    STRIPED_WALLET_UNSUPPORTED(HttpStatus.UNPROCESSABLE_ENTITY),
+    INSUFFICIENT_BALANCE(HttpStatus.UNPROCESSABLE_ENTITY),
+    INVALID_TRANSACTION(HttpStatus.UNPROCESSABLE_ENTITY),
+    UNKNOWN_RATE_VERSION(HttpStatus.UNPROCESSABLE_ENTITY),
+    VELOCITY_LIMIT_EXCEEDED(HttpStatus.TOO_MANY_REQUESTS),
+    RATE_LIMITED(HttpStatus.TOO_MANY_REQUESTS),
+    ARCHIVE_UNAVAILABLE(HttpStatus.INTERNAL_SERVER_ERROR),
+    RATES_STALE(HttpStatus.SERVICE_UNAVAILABLE),
+    SERVICE_BUSY(HttpStatus.SERVICE_UNAVAILABLE),
+    UNCATEGORIZED(HttpStatus.INTERNAL_SERVER_ERROR);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.wallet.ledger;
+
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.limits.VelocityLimiter;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.repository.WalletRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In memory wallet engine. Balances of active wallets are kept in memory and every deposit,
+ * withdraw and transfer is applied by a single event loop thread, so no locks are taken on the
+ * hot path. Each batch of processed commands is appended to the {@link WriteAheadLog} with one
+ * {@code force} before the callers are completed, and is then projected into the database
+ * asynchronously by the {@link LedgerProjector}. On startup entries which were not projected yet
+ * are replayed from the log. Withdrawals and transfers are checked against the
+ * {@link VelocityLimiter} when it is enabled, exactly like on the database path.
+ * <p>
+ * At most {@code cache-size} wallets are kept, evicting the least recently used ones whose entries
+ * have all been projected, so a reloaded wallet always sees the projected balance. Wallets touched by
+ * a parked entry or {@linkplain #invalidate invalidated} by a change made outside the engine are
+ * evicted the same way, as soon as their entries are projected.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.engine", havingValue = "ledger")
+public class LedgerEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerEngine.class);
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private LedgerProjector ledgerProjector;
+
+    @Autowired
+    private ConversionRates conversionRates;
+
+    @Autowired(required = false)
+    private VelocityLimiter velocityLimiter;
+
+    @Value("${wallet.ledger.directory:ledger}")
+    private String directory;
+
+    @Value("${wallet.ledger.segment-size:67108864}")
+    private int segmentSize;
+
+    @Value("${wallet.ledger.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${wallet.ledger.batch-size:1024}")
+    private int batchSize;
+
+    @Value("${wallet.ledger.cache-size:100000}")
+    private int cacheSize;
+
+    private final Map<Long, Wallet> wallets = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Long> lastSequences = new HashMap<>();
+    private final Set<Long> staleWallets = new HashSet<>();
+    private final Queue<Long> invalidatedWallets = new ConcurrentLinkedQueue<>();
+
+    private BlockingQueue<Command> commands;
+    private WriteAheadLog writeAheadLog;
+    private long nextSequence;
+    private Thread eventLoop;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException, InterruptedException {
+        writeAheadLog = new WriteAheadLog(Paths.get(directory), segmentSize);
+
+        long checkpoint = ledgerProjector.getCheckpoint();
+        List<LedgerEntry> pendingEntries = writeAheadLog.getRecoveredEntries().stream()
+                .filter(entry -> entry.sequence() > checkpoint)
+                .toList();
+
+        ledgerProjector.replay(pendingEntries);
+
+        nextSequence = Math.max(
+                checkpoint,
+                pendingEntries.isEmpty() ? 0 : pendingEntries.get(pendingEntries.size() - 1).sequence()
+        ) + 1;
+
+        writeAheadLog.getRecoveredEntries().clear();
+        LOGGER.info("Ledger recovered {} entries, next sequence is {}", pendingEntries.size(), nextSequence);
+
+        commands = new ArrayBlockingQueue<>(queueCapacity);
+        ledgerProjector.start(writeAheadLog);
+
+        running = true;
+        eventLoop = new Thread(this::run, "ledger-event-loop");
+        eventLoop.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        eventLoop.join();
+        ledgerProjector.stop();
+        writeAheadLog.close();
+    }
+
+    public Wallet depositAmountToWallet(double amount, Long walletId) {
+        return await(submit(new Command(CommandType.DEPOSIT, walletId, walletId, amount)));
+    }
+
+    public Wallet withDrawAmountFromWallet(double amount, Long walletId) {
+        return await(submit(new Command(CommandType.WITHDRAW, walletId, walletId, amount)));
+    }
+
+    public Wallet transferAmountToWallet(double amount, Long fromWalletId, Long toWalletId) {
+        return await(submit(new Command(CommandType.TRANSFER, fromWalletId, toWalletId, amount)));
+    }
+
+    /**
+     * Returns the balance the engine holds for the wallet, which may be ahead of the database, or
+     * empty if the wallet is not loaded and the database is up to date for it.
+     */
+    public Optional<Wallet> findLoadedWallet(Long walletId) {
+        return Optional.ofNullable(await(submit(new Command(CommandType.FETCH, walletId, walletId, 0))));
+    }
+
+    /**
+     * Marks the wallet as changed outside the engine, so it is reloaded from the database once its
+     * pending entries are projected.
+     */
+    public void invalidate(Long walletId) {
+        invalidatedWallets.add(walletId);
+    }
+
+    private CompletableFuture<Wallet> submit(Command command) {
+        if (!running || !commands.offer(command)) {
+            command.result().completeExceptionally(new AppException(ErrorCode.SERVICE_BUSY, "Ledger is not accepting requests"));
+        }
+
+        return command.result();
+    }
+
+    private Wallet await(CompletableFuture<Wallet> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<Command> batch = new ArrayList<>(batchSize);
+        List<Command> applied = new ArrayList<>(batchSize);
+        List<Wallet> results = new ArrayList<>(batchSize);
+        List<LedgerEntry> entries = new ArrayList<>(batchSize);
+
+        while (running || !commands.isEmpty()) {
+            try {
+                Command first = commands.poll(100, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    evict();
+                    continue;
+                }
+
+                batch.add(first);
+                commands.drainTo(batch, batchSize - 1);
+                evict();
+
+                for (Command command : batch) {
+                    try {
+                        Wallet wallet = apply(command, entries);
+                        results.add(wallet == null ? null : snapshot(wallet));
+                        applied.add(command);
+                    } catch (RuntimeException e) {
+                        command.result().completeExceptionally(e);
+                    }
+                }
+
+                writeAheadLog.append(entries);
+                ledgerProjector.enqueue(entries);
+
+                for (int i = 0; i < applied.size(); i++) {
+                    applied.get(i).result().complete(results.get(i));
+                }
+            } catch (IOException e) {
+                LOGGER.error("Could not append to the ledger write ahead log, stopping the ledger", e);
+                running = false;
+                failAll(applied);
+                failAll(new ArrayList<>(commands));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+                applied.clear();
+                results.clear();
+                entries.clear();
+            }
+        }
+    }
+
+    /**
+     * Applies the command, adding its entry to {@code entries}, and returns the wallet to answer
+     * with.
+     */
+    private Wallet apply(Command command, List<LedgerEntry> entries) {
+        Transaction transaction;
+        Wallet fromWallet;
+        Wallet toWallet;
+
+        switch (command.type()) {
+            case FETCH -> {
+                return wallets.get(command.fromWalletId());
+            }
+            case DEPOSIT -> {
+                if (command.amount() <= 0) {
+                    throw new AppException(ErrorCode.INVALID_AMOUNT, "Cannot deposit 0 or less amount");
+                }
+
+                fromWallet = toWallet = findWallet(command.fromWalletId(), ErrorCode.WALLET_NOT_FOUND, "Wallet Not found");
+                transaction = fromWallet.depositMoney(command.amount());
+            }
+            case WITHDRAW -> {
+                if (command.amount() <= 0) {
+                    throw new AppException(ErrorCode.INVALID_AMOUNT, "Cannot withdraw 0 or less amount");
+                }
+
+                fromWallet = toWallet = findWallet(command.fromWalletId(), ErrorCode.WALLET_NOT_FOUND, "Wallet Not found");
+                acquireVelocity(fromWallet, TransactionType.WITHDRAW, command.amount());
+
+                try {
+                    transaction = fromWallet.withdrawMoney(command.amount());
+                } catch (RuntimeException e) {
+                    completeVelocity(false);
+                    throw e;
+                }
+
+                completeVelocity(true);
+            }
+            default -> {
+                fromWallet = findWallet(command.fromWalletId(), ErrorCode.WALLET_NOT_FOUND, "Wallet Not found");
+
+                if (!fromWallet.isActivated()) {
+                    throw new AppException(ErrorCode.WALLET_NOT_ACTIVATED, "User's wallet is not activated yet");
+                }
+
+                if (command.amount() <= 0) {
+                    throw new AppException(ErrorCode.INVALID_AMOUNT, "Cannot transfer zero or less money");
+                }
+
+                toWallet = findWallet(command.toWalletId(), ErrorCode.RECIPIENT_WALLET_NOT_FOUND, "The wallet you are trying to transfer does not exist");
+
+                if (!toWallet.isActivated()) {
+                    throw new AppException(ErrorCode.RECIPIENT_WALLET_NOT_ACTIVATED, "The wallet you are trying to transfer is not activated yet");
+                }
+
+                acquireVelocity(fromWallet, TransactionType.TRANSFER, command.amount());
+
+                try {
+                    transaction = fromWallet.transferAmountTo(command.amount(), toWallet, conversionRates.forConversion(fromWallet.getCurrency(), toWallet.getCurrency()));
+                } catch (RuntimeException e) {
+                    completeVelocity(false);
+                    throw e;
+                }
+
+                completeVelocity(true);
+            }
+        }
+
+        long sequence = nextSequence++;
+
+        entries.add(LedgerEntry.of(sequence, transaction, fromWallet.getAmount(), toWallet.getAmount()));
+        lastSequences.put(fromWallet.getId(), sequence);
+        lastSequences.put(toWallet.getId(), sequence);
+
+        return fromWallet;
+    }
+
+    private void evict() {
+        long projected = ledgerProjector.getProjectedSequence();
+
+        for (Long walletId = ledgerProjector.pollParkedWallet(); walletId != null; walletId = ledgerProjector.pollParkedWallet()) {
+            staleWallets.add(walletId);
+        }
+
+        for (Long walletId = invalidatedWallets.poll(); walletId != null; walletId = invalidatedWallets.poll()) {
+            staleWallets.add(walletId);
+        }
+
+        staleWallets.removeIf(walletId -> {
+            if (!isProjected(walletId, projected)) {
+                return false;
+            }
+
+            wallets.remove(walletId);
+            lastSequences.remove(walletId);
+            return true;
+        });
+
+        Iterator<Long> walletIds = wallets.keySet().iterator();
+
+        while (wallets.size() > cacheSize && walletIds.hasNext()) {
+            Long walletId = walletIds.next();
+
+            if (isProjected(walletId, projected)) {
+                walletIds.remove();
+                lastSequences.remove(walletId);
+            }
+        }
+    }
+
+    private boolean isProjected(Long walletId, long projected) {
+        return lastSequences.getOrDefault(walletId, 0L) <= projected;
+    }
+
+    private void acquireVelocity(Wallet wallet, TransactionType type, double amount) {
+        if (velocityLimiter != null) {
+            velocityLimiter.acquire(wallet, type, amount);
+        }
+    }
+
+    private void completeVelocity(boolean applied) {
+        if (velocityLimiter != null) {
+            velocityLimiter.complete(applied);
+        }
+    }
+
+    private Wallet findWallet(Long walletId, ErrorCode notFoundCode, String notFoundMessage) {
+        Wallet cached = wallets.get(walletId);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        Wallet wallet = walletRepository.findById(walletId)
+                .map(this::snapshot)
+                .orElseThrow(() -> new AppException(notFoundCode, notFoundMessage));
+
+        if (wallet.isStriped()) {
+            throw new AppException(ErrorCode.STRIPED_WALLET_UNSUPPORTED, "Striped wallets are not supported by the ledger engine");
+        }
+
+        if (wallet.isActivated()) {
+            wallets.put(walletId, wallet);
+        }
+
+        return wallet;
+    }
+
+    private Wallet snapshot(Wallet wallet) {
+        return Wallet.builder()
+                .id(wallet.getId())
+                .amount(wallet.getAmount())
+                .currency(wallet.getCurrency())
+                .isActivated(wallet.isActivated())
+                .stripeCount(wallet.getStripeCount())
+                .build();
+    }
+
+    private void failAll(Collection<Command> failed) {
+        for (Command command : failed) {
+            command.result().completeExceptionally(new AppException(ErrorCode.SERVICE_BUSY, "Ledger is not accepting requests"));
+        }
+    }
+
+    private enum CommandType {
+        FETCH,
+        DEPOSIT,
+        WITHDRAW,
+        TRANSFER
+    }
+
+    private record Command(CommandType type, Long fromWalletId, Long toWalletId, double amount, CompletableFuture<Wallet> result) {
+
+        Command(CommandType type, Long fromWalletId, Long toWalletId, double amount) {
+            this(type, fromWalletId, toWalletId, amount, new CompletableFuture<>());
+        }
+    }
+}
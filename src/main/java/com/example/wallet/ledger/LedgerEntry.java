@@ -0,0 +1,58 @@
+package com.example.wallet.ledger;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A committed balance change of the ledger engine, together with the balances of both
+ * wallets after the change was applied.
+ */
+public record LedgerEntry(
+        long sequence,
+        TransactionType transactionType,
+        long fromWalletId,
+        double fromWalletAmount,
+        Currency fromWalletCurrency,
+        double fromWalletBalance,
+        long toWalletId,
+        double toWalletAmount,
+        Currency toWalletCurrency,
+        double toWalletBalance,
+        Long rateVersion,
+        LocalDateTime createdAt
+) {
+
+    public static LedgerEntry of(long sequence, Transaction transaction, double fromWalletBalance, double toWalletBalance) {
+        return new LedgerEntry(
+                sequence,
+                transaction.getTransactionType(),
+                transaction.getFromWalletId(),
+                transaction.getFromWalletAmount(),
+                transaction.getFromWalletCurrency(),
+                fromWalletBalance,
+                transaction.getToWalletId(),
+                transaction.getToWalletAmount(),
+                transaction.getToWalletCurrency(),
+                toWalletBalance,
+                transaction.getRateVersion(),
+                transaction.getCreatedAt()
+        );
+    }
+
+    public Transaction toTransaction() {
+        return Transaction.builder()
+                .fromWalletId(fromWalletId)
+                .fromWalletAmount(fromWalletAmount)
+                .fromWalletCurrency(fromWalletCurrency)
+                .toWalletId(toWalletId)
+                .toWalletAmount(toWalletAmount)
+                .toWalletCurrency(toWalletCurrency)
+                .rateVersion(rateVersion)
+                .transactionType(transactionType)
+                .createdAt(createdAt)
+                .build();
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.wallet.ledger;
+
+import com.example.wallet.entity.Checkpoint;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.repository.CheckpointRepository;
+import com.example.wallet.repository.LedgerDeadLetterRepository;
+import com.example.wallet.repository.WalletRepository;
+import com.example.wallet.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronously writes committed {@link LedgerEntry} records into {@code wallet_transactions}
+ * and adds their amounts to the wallet balances, advancing the ledger checkpoint in the same
+ * database transaction. Balances are projected as deltas, so changes made outside the engine are
+ * kept. A batch which still fails after {@code max-attempts} is projected entry by entry, and an
+ * entry which keeps failing on its own is parked in {@code wallet_ledger_dead_letters} and counted
+ * in {@code wallet.ledger.dead.letters}, so one bad entry cannot stall the projection. Its amount
+ * never reaches the balances, and its wallets are handed back to the engine to be reloaded.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.engine", havingValue = "ledger")
+public class LedgerProjector {
+
+    static final String CHECKPOINT_NAME = "ledger";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerProjector.class);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private CheckpointRepository checkpointRepository;
+
+    @Autowired
+    private LedgerDeadLetterRepository ledgerDeadLetterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.ledger.projection.batch-size:500}")
+    private int batchSize;
+
+    @Value("${wallet.ledger.projection.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${wallet.ledger.projection.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    @Value("${wallet.ledger.projection.max-attempts:5}")
+    private int maxAttempts;
+
+    private final Queue<Long> parkedWallets = new ConcurrentLinkedQueue<>();
+
+    private BlockingQueue<LedgerEntry> entries;
+    private WriteAheadLog writeAheadLog;
+    private Thread thread;
+    private volatile boolean running;
+    private volatile long projectedSequence;
+
+    public long getCheckpoint() {
+        return checkpointRepository.findById(CHECKPOINT_NAME)
+                .map(Checkpoint::getPosition)
+                .orElse(0L);
+    }
+
+    public void project(List<LedgerEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<Long, Double> deltas = new TreeMap<>();
+
+            for (LedgerEntry entry : batch) {
+                switch (entry.transactionType()) {
+                    case DEPOSIT -> transactionService.createDepositTransaction(entry.toTransaction());
+                    case WITHDRAW -> transactionService.createWithdrawTransaction(entry.toTransaction());
+                    case TRANSFER -> transactionService.createTransferTransaction(entry.toTransaction());
+                }
+
+                if (entry.transactionType() != TransactionType.DEPOSIT) {
+                    deltas.merge(entry.fromWalletId(), -entry.fromWalletAmount(), Double::sum);
+                }
+
+                if (entry.transactionType() != TransactionType.WITHDRAW) {
+                    deltas.merge(entry.toWalletId(), entry.toWalletAmount(), Double::sum);
+                }
+            }
+
+            deltas.forEach(walletRepository::addAmount);
+            checkpointRepository.save(new Checkpoint(CHECKPOINT_NAME, lastSequence));
+        });
+
+        projectedSequence = lastSequence;
+    }
+
+    /**
+     * The sequence of the last entry written to the database or parked.
+     */
+    public long getProjectedSequence() {
+        return projectedSequence;
+    }
+
+    /**
+     * Returns a wallet touched by a parked entry, whose in memory balance no longer matches the
+     * database, or null if there is none.
+     */
+    Long pollParkedWallet() {
+        return parkedWallets.poll();
+    }
+
+    /**
+     * Projects entries recovered from the write ahead log in transactions of at most
+     * {@code batch-size} entries.
+     */
+    public void replay(List<LedgerEntry> recovered) throws InterruptedException {
+        for (int from = 0; from < recovered.size(); from += batchSize) {
+            projectWithRetry(recovered.subList(from, Math.min(from + batchSize, recovered.size())));
+        }
+    }
+
+    public void enqueue(List<LedgerEntry> batch) throws InterruptedException {
+        for (LedgerEntry entry : batch) {
+            entries.put(entry);
+        }
+    }
+
+    void start(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+        this.entries = new LinkedBlockingQueue<>(queueCapacity);
+        this.running = true;
+        this.thread = new Thread(this::run, "ledger-projector");
+        this.thread.start();
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+    }
+
+    private void run() {
+        List<LedgerEntry> batch = new ArrayList<>(batchSize);
+
+        while (running || !entries.isEmpty()) {
+            try {
+                LedgerEntry first = entries.poll(100, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                entries.drainTo(batch, batchSize - 1);
+
+                projectWithRetry(batch);
+                writeAheadLog.truncate(batch.get(batch.size() - 1).sequence());
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("Could not truncate the ledger write ahead log", e);
+                batch.clear();
+            }
+        }
+    }
+
+    private void projectWithRetry(List<LedgerEntry> batch) throws InterruptedException {
+        RuntimeException failure = projectWithAttempts(batch);
+
+        if (failure == null) {
+            return;
+        }
+
+        if (batch.size() > 1) {
+            for (LedgerEntry entry : batch) {
+                projectWithRetry(List.of(entry));
+            }
+
+            return;
+        }
+
+        park(batch.get(0), failure);
+    }
+
+    private RuntimeException projectWithAttempts(List<LedgerEntry> batch) throws InterruptedException {
+        RuntimeException failure = null;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                project(batch);
+                return null;
+            } catch (RuntimeException e) {
+                failure = e;
+                LOGGER.warn("Could not project {} ledger entries, attempt {} of {}", batch.size(), attempt, maxAttempts, e);
+
+                if (attempt < maxAttempts) {
+                    Thread.sleep(retryDelayMs);
+                }
+            }
+        }
+
+        return failure;
+    }
+
+    private void park(LedgerEntry entry, RuntimeException failure) throws InterruptedException {
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    ledgerDeadLetterRepository.insert(entry, failure.toString());
+                    checkpointRepository.save(new Checkpoint(CHECKPOINT_NAME, entry.sequence()));
+                });
+
+                projectedSequence = entry.sequence();
+                parkedWallets.add(entry.fromWalletId());
+                parkedWallets.add(entry.toWalletId());
+
+                LOGGER.error("Parked ledger entry {} of wallets {} and {} after {} attempts", entry.sequence(), entry.fromWalletId(), entry.toWalletId(), maxAttempts, failure);
+                meterRegistry.counter("wallet.ledger.dead.letters").increment();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not park ledger entry {}, retrying", entry.sequence(), e);
+                Thread.sleep(retryDelayMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.wallet.ledger;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.TransactionType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append only log of {@link LedgerEntry} records stored in memory mapped, fixed size segment files.
+ * A batch of entries is made durable with a single {@code force}, which lets the ledger engine
+ * group commit every command it processed in one event loop iteration.
+ */
+public class WriteAheadLog implements Closeable {
+
+    static final int RECORD_SIZE = 1 + 8 + 1 + 8 + 8 + 1 + 8 + 8 + 8 + 1 + 8 + 8 + 8 + 4;
+
+    private static final byte RECORD_MARKER = 1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final long NO_RATE_VERSION = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final List<Long> segmentStarts = new ArrayList<>();
+    private final List<LedgerEntry> recoveredEntries = new ArrayList<>();
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    public WriteAheadLog(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must hold at least one record");
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .forEach(segmentStarts::add);
+        }
+
+        for (int i = 0; i < segmentStarts.size(); i++) {
+            openSegment(segmentStarts.get(i));
+            recoverSegment();
+
+            if (i < segmentStarts.size() - 1) {
+                closeSegment();
+            }
+        }
+    }
+
+    public List<LedgerEntry> getRecoveredEntries() {
+        return recoveredEntries;
+    }
+
+    public synchronized void append(List<LedgerEntry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        for (LedgerEntry entry : entries) {
+            if (buffer == null || buffer.remaining() < RECORD_SIZE) {
+                if (buffer != null) {
+                    buffer.force();
+                    closeSegment();
+                }
+
+                segmentStarts.add(entry.sequence());
+                openSegment(entry.sequence());
+            }
+
+            write(entry);
+        }
+
+        buffer.force();
+    }
+
+    /**
+     * Deletes every segment which only holds entries up to the given sequence.
+     */
+    public synchronized void truncate(long sequence) throws IOException {
+        while (segmentStarts.size() > 1 && segmentStarts.get(1) <= sequence + 1) {
+            Files.deleteIfExists(segmentPath(segmentStarts.remove(0)));
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (buffer != null) {
+            buffer.force();
+            closeSegment();
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        channel = FileChannel.open(segmentPath(firstSequence), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private void closeSegment() throws IOException {
+        channel.close();
+        channel = null;
+        buffer = null;
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private void recoverSegment() {
+        while (buffer.remaining() >= RECORD_SIZE) {
+            int position = buffer.position();
+
+            if (buffer.get(position) != RECORD_MARKER || buffer.getInt(position + RECORD_SIZE - 4) != checksum(position)) {
+                return;
+            }
+
+            buffer.get();
+            recoveredEntries.add(new LedgerEntry(
+                    buffer.getLong(),
+                    TransactionType.values()[buffer.get()],
+                    buffer.getLong(),
+                    buffer.getDouble(),
+                    Currency.values()[buffer.get()],
+                    buffer.getDouble(),
+                    buffer.getLong(),
+                    buffer.getDouble(),
+                    Currency.values()[buffer.get()],
+                    buffer.getDouble(),
+                    toRateVersion(buffer.getLong()),
+                    fromEpochMicros(buffer.getLong())
+            ));
+            buffer.getInt();
+        }
+    }
+
+    private void write(LedgerEntry entry) {
+        int position = buffer.position();
+
+        buffer.put((byte) 0)
+                .putLong(entry.sequence())
+                .put((byte) entry.transactionType().ordinal())
+                .putLong(entry.fromWalletId())
+                .putDouble(entry.fromWalletAmount())
+                .put((byte) entry.fromWalletCurrency().ordinal())
+                .putDouble(entry.fromWalletBalance())
+                .putLong(entry.toWalletId())
+                .putDouble(entry.toWalletAmount())
+                .put((byte) entry.toWalletCurrency().ordinal())
+                .putDouble(entry.toWalletBalance())
+                .putLong(entry.rateVersion() == null ? NO_RATE_VERSION : entry.rateVersion())
+                .putLong(toEpochMicros(entry.createdAt()))
+                .putInt(checksum(position));
+
+        buffer.put(position, RECORD_MARKER);
+    }
+
+    private int checksum(int position) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + 1, RECORD_SIZE - 5));
+        return (int) crc.getValue();
+    }
+
+    private static Long toRateVersion(long rateVersion) {
+        return rateVersion == NO_RATE_VERSION ? null : rateVersion;
+    }
+
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.wallet.limits;
+
+import com.example.wallet.entity.TransactionType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "wallet.velocity")
+public record VelocityLimitProperties(List<Rule> rules) {
+
+    public VelocityLimitProperties {
+        rules = rules == null ? List.of() : List.copyOf(rules);
+    }
+
+    /**
+     * Limits the number and the dollar amount of the given transaction type a wallet can make
+     * within a sliding window. A {@code maxCount} or {@code maxAmount} of zero disables that limit.
+     */
+    public record Rule(String name, TransactionType type, Duration window, int maxCount, double maxAmount) {
+    }
+}
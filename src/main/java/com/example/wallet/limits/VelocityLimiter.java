@@ -0,0 +1,329 @@
+package com.example.wallet.limits;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.repository.TransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Per wallet velocity limits kept in memory, so checking them does not query
+ * {@code wallet_transactions}. Every rule splits its window into {@link #BUCKETS} time buckets
+ * held in preallocated arrays per wallet, which are reused as time moves on. Wallets are guarded
+ * by a fixed set of striped locks. Usage is recorded when a transaction is checked and given
+ * back if the surrounding database transaction rolls back. The usage to give back is kept in
+ * {@link PendingReleases} buffers which are reused across transactions, one synchronization per
+ * database transaction, so acquiring allocates nothing once a thread has warmed up. On startup the
+ * windows are warmed up from the transactions made within the longest window.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.velocity.enabled", havingValue = "true")
+@EnableConfigurationProperties(VelocityLimitProperties.class)
+public class VelocityLimiter {
+
+    static final int BUCKETS = 60;
+
+    private static final int STRIPES = 64;
+    private static final Logger LOGGER = LoggerFactory.getLogger(VelocityLimiter.class);
+
+    @Autowired
+    private VelocityLimitProperties properties;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ConversionRates conversionRates;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, Windows> windows = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+    private final Function<Long, Windows> newWindows = walletId -> new Windows(this.rules.length * BUCKETS);
+    private final ThreadLocal<ArrayDeque<PendingReleases>> freeReleases = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<PendingReleases> directReleases = ThreadLocal.withInitial(PendingReleases::new);
+
+    private Clock clock = Clock.systemDefaultZone();
+    private VelocityLimitProperties.Rule[] rules;
+    private long[] bucketMillis;
+    private Counter[] rejections;
+    private long maxWindowMillis;
+
+    public VelocityLimiter() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        rules = properties.rules().toArray(new VelocityLimitProperties.Rule[0]);
+        bucketMillis = new long[rules.length];
+        rejections = new Counter[rules.length];
+
+        for (int i = 0; i < rules.length; i++) {
+            bucketMillis[i] = Math.max(1, rules[i].window().toMillis() / BUCKETS);
+            maxWindowMillis = Math.max(maxWindowMillis, bucketMillis[i] * BUCKETS);
+            rejections[i] = Counter.builder("wallet.velocity.rejections")
+                    .tag("rule", rules[i].name())
+                    .tag("type", rules[i].type().name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (rules.length == 0) {
+            return;
+        }
+
+        long now = clock.millis();
+        List<Transaction> transactions = transactionRepository.findAllByCreatedAtAfterAndTransactionTypeIn(
+                LocalDateTime.now(clock).minusNanos(maxWindowMillis * 1_000_000),
+                List.of(TransactionType.TRANSFER, TransactionType.WITHDRAW)
+        );
+
+        for (Transaction transaction : transactions) {
+            long at = transaction.getCreatedAt().atZone(clock.getZone()).toInstant().toEpochMilli();
+            double dollars = toDollars(transaction.getFromWalletCurrency(), transaction.getFromWalletAmount());
+
+            synchronized (lockFor(transaction.getFromWalletId())) {
+                Windows walletWindows = windows.computeIfAbsent(transaction.getFromWalletId(), newWindows);
+                add(walletWindows, transaction.getTransactionType(), at, now, 1, dollars);
+                walletWindows.lastActivity = Math.max(walletWindows.lastActivity, at);
+            }
+        }
+
+        LOGGER.info("Velocity limits warmed up from {} transactions", transactions.size());
+    }
+
+    /**
+     * Records a transaction of the given amount, in the wallet's currency, against every rule for
+     * its type, rejecting it if any of them would be exceeded. Within a database transaction the
+     * usage is given back on rollback, other callers must call {@link #complete} once they know
+     * whether the transaction was applied.
+     */
+    public void acquire(Wallet wallet, TransactionType type, double amount) {
+        Long walletId = wallet.getId();
+        double dollars = toDollars(wallet.getCurrency(), amount);
+        long now = clock.millis();
+
+        synchronized (lockFor(walletId)) {
+            Windows walletWindows = windows.computeIfAbsent(walletId, newWindows);
+
+            for (int i = 0; i < rules.length; i++) {
+                if (rules[i].type() == type && exceeds(walletWindows, i, now, dollars)) {
+                    rejections[i].increment();
+                    throw new AppException(ErrorCode.VELOCITY_LIMIT_EXCEEDED, "Velocity limit " + rules[i].name() + " exceeded, please try again later");
+                }
+            }
+
+            add(walletWindows, type, now, now, 1, dollars);
+            walletWindows.lastActivity = now;
+        }
+
+        pendingReleases().add(walletId, type, now, dollars);
+    }
+
+    /**
+     * Ends the acquisitions made by this thread outside a database transaction, giving them back
+     * unless the transaction was applied.
+     */
+    public void complete(boolean applied) {
+        directReleases.get().complete(applied);
+    }
+
+    private PendingReleases pendingReleases() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return directReleases.get();
+        }
+
+        PendingReleases pending = (PendingReleases) TransactionSynchronizationManager.getResource(this);
+
+        if (pending == null) {
+            pending = freeReleases.get().poll();
+
+            if (pending == null) {
+                pending = new PendingReleases();
+            }
+
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+
+        return pending;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.velocity.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = clock.millis();
+
+        for (Long walletId : windows.keySet()) {
+            synchronized (lockFor(walletId)) {
+                Windows walletWindows = windows.get(walletId);
+
+                if (walletWindows != null && now - walletWindows.lastActivity > maxWindowMillis) {
+                    windows.remove(walletId);
+                }
+            }
+        }
+    }
+
+    int getTrackedWallets() {
+        return windows.size();
+    }
+
+    private void release(long walletId, TransactionType type, long at, double dollars) {
+        synchronized (lockFor(walletId)) {
+            Windows walletWindows = windows.get(walletId);
+
+            if (walletWindows != null) {
+                add(walletWindows, type, at, clock.millis(), -1, -dollars);
+            }
+        }
+    }
+
+    private boolean exceeds(Windows walletWindows, int rule, long now, double dollars) {
+        long currentBucket = now / bucketMillis[rule];
+        int base = rule * BUCKETS;
+        int count = 0;
+        double amount = 0;
+
+        for (int i = base; i < base + BUCKETS; i++) {
+            if (walletWindows.buckets[i] > currentBucket - BUCKETS) {
+                count += walletWindows.counts[i];
+                amount += walletWindows.amounts[i];
+            }
+        }
+
+        VelocityLimitProperties.Rule limit = rules[rule];
+
+        return (limit.maxCount() > 0 && count + 1 > limit.maxCount())
+                || (limit.maxAmount() > 0 && amount + dollars > limit.maxAmount());
+    }
+
+    private void add(Windows walletWindows, TransactionType type, long at, long now, int count, double dollars) {
+        for (int rule = 0; rule < rules.length; rule++) {
+            if (rules[rule].type() != type) {
+                continue;
+            }
+
+            long bucket = at / bucketMillis[rule];
+
+            if (bucket <= now / bucketMillis[rule] - BUCKETS) {
+                continue;
+            }
+
+            int index = rule * BUCKETS + (int) (bucket % BUCKETS);
+
+            if (walletWindows.buckets[index] != bucket) {
+                if (count < 0 || walletWindows.buckets[index] > bucket) {
+                    continue;
+                }
+
+                walletWindows.buckets[index] = bucket;
+                walletWindows.counts[index] = 0;
+                walletWindows.amounts[index] = 0;
+            }
+
+            walletWindows.counts[index] += count;
+            walletWindows.amounts[index] += dollars;
+        }
+    }
+
+    private double toDollars(Currency currency, double amount) {
+        return conversionRates.current().convert(currency, Currency.DOLLAR, amount);
+    }
+
+    private Object lockFor(long walletId) {
+        return locks[Long.hashCode(walletId) & (STRIPES - 1)];
+    }
+
+    /**
+     * Usage recorded within one database transaction, or outside of any by one thread, held in
+     * arrays which grow as needed and are kept for the next transaction.
+     */
+    private final class PendingReleases implements TransactionSynchronization {
+
+        private long[] walletIds = new long[4];
+        private TransactionType[] types = new TransactionType[4];
+        private long[] ats = new long[4];
+        private double[] dollars = new double[4];
+        private int size;
+
+        void add(long walletId, TransactionType type, long at, double amount) {
+            if (size == walletIds.length) {
+                walletIds = Arrays.copyOf(walletIds, size * 2);
+                types = Arrays.copyOf(types, size * 2);
+                ats = Arrays.copyOf(ats, size * 2);
+                dollars = Arrays.copyOf(dollars, size * 2);
+            }
+
+            walletIds[size] = walletId;
+            types[size] = type;
+            ats[size] = at;
+            dollars[size] = amount;
+            size++;
+        }
+
+        void complete(boolean applied) {
+            if (!applied) {
+                for (int i = 0; i < size; i++) {
+                    release(walletIds[i], types[i], ats[i], dollars[i]);
+                }
+            }
+
+            Arrays.fill(types, 0, size, null);
+            size = 0;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            complete(status == STATUS_COMMITTED);
+            TransactionSynchronizationManager.unbindResourceIfPossible(VelocityLimiter.this);
+            freeReleases.get().push(this);
+        }
+    }
+
+    private static final class Windows {
+
+        final long[] buckets;
+        final int[] counts;
+        final double[] amounts;
+        long lastActivity;
+
+        Windows(int size) {
+            buckets = new long[size];
+            counts = new int[size];
+            amounts = new double[size];
+            Arrays.fill(buckets, Long.MIN_VALUE);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.wallet.rates;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.repository.RateSetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local cache of the conversion rates fed by a {@link RateProvider}. Readers only read a volatile
+ * snapshot, which the background refresh replaces whenever the provider returns a newer version.
+ * Every rate set is stored by version in the {@link RateSetRepository} before it is used, and all
+ * stored sets are loaded on startup, so transactions can be validated and replayed against the
+ * rates they were made with, whichever rates are current. Conversions between different currencies are rejected while
+ * the snapshot is older than the configured maximum staleness. Without a provider the rates of
+ * the {@link Currency} enum are used and never go stale.
+ */
+@Component
+public class ConversionRates {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConversionRates.class);
+
+    @Autowired(required = false)
+    private RateProvider rateProvider;
+
+    @Autowired
+    private RateSetRepository rateSetRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.rates.max-staleness:5m}")
+    private Duration maxStaleness;
+
+    private final Map<Long, RateSet> rateSets = new ConcurrentHashMap<>();
+
+    private Clock clock = Clock.systemUTC();
+    private volatile Snapshot snapshot;
+    private Timer refreshSuccessTimer;
+    private Timer refreshFailureTimer;
+    private Counter staleRejections;
+
+    @PostConstruct
+    public void init() {
+        rateSets.put(RateSet.DEFAULT.getVersion(), RateSet.DEFAULT);
+        rateSetRepository.findAll().forEach(rateSet -> rateSets.put(rateSet.getVersion(), rateSet));
+        snapshot = new Snapshot(RateSet.DEFAULT, null);
+
+        refreshSuccessTimer = Timer.builder("wallet.rates.refresh").tag("outcome", "success").register(meterRegistry);
+        refreshFailureTimer = Timer.builder("wallet.rates.refresh").tag("outcome", "failure").register(meterRegistry);
+        staleRejections = Counter.builder("wallet.rates.stale.rejections").register(meterRegistry);
+        Gauge.builder("wallet.rates.age", this, ConversionRates::getAgeSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("wallet.rates.version", this, rates -> rates.current().getVersion())
+                .register(meterRegistry);
+
+        refresh();
+    }
+
+    public RateSet current() {
+        return snapshot.rates();
+    }
+
+    /**
+     * Returns the current rates for a conversion between the given currencies, rejecting it when
+     * the currencies differ and the rates are older than the maximum staleness.
+     */
+    public RateSet forConversion(Currency from, Currency to) {
+        Snapshot current = snapshot;
+
+        if (from != to && isStale(current)) {
+            staleRejections.increment();
+            throw new AppException(ErrorCode.RATES_STALE, "Conversion rates are stale, please try again later");
+        }
+
+        return current.rates();
+    }
+
+    /**
+     * Returns the rates of the version, looking up versions stored by other nodes since startup.
+     */
+    public Optional<RateSet> getRateSet(Long version) {
+        long key = version == null ? RateSet.DEFAULT.getVersion() : version;
+        RateSet rateSet = rateSets.get(key);
+
+        if (rateSet == null) {
+            rateSet = rateSetRepository.findByVersion(key).orElse(null);
+
+            if (rateSet != null) {
+                rateSets.putIfAbsent(key, rateSet);
+            }
+        }
+
+        return Optional.ofNullable(rateSet);
+    }
+
+    /**
+     * Seconds since the last successful refresh, or {@code NaN} if the provider never answered.
+     */
+    public double getAgeSeconds() {
+        Snapshot current = snapshot;
+
+        if (rateProvider == null) {
+            return 0;
+        }
+
+        if (current.refreshedAt() == null) {
+            return Double.NaN;
+        }
+
+        return Duration.between(current.refreshedAt(), clock.instant()).toMillis() / 1000.0;
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.rates.refresh-interval-ms:10000}")
+    public void refresh() {
+        if (rateProvider == null) {
+            return;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            RateSet fetched = rateProvider.fetch();
+            RateSet rates = snapshot.rates();
+
+            if (fetched.getVersion() < rates.getVersion()) {
+                throw new IllegalStateException("Provider returned rates version " + fetched.getVersion()
+                        + " older than current version " + rates.getVersion());
+            }
+
+            if (fetched.getVersion() > rates.getVersion()) {
+                rates = store(fetched);
+                rateSets.put(rates.getVersion(), rates);
+                LOGGER.info("Loaded conversion rates version {}", rates.getVersion());
+            }
+
+            snapshot = new Snapshot(rates, clock.instant());
+            refreshSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            refreshFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            LOGGER.warn("Could not refresh conversion rates", e);
+        }
+    }
+
+    /**
+     * Stores the rates unless their version is already stored, in which case the stored rates
+     * must be the same, as transactions may already have been made with them.
+     */
+    private RateSet store(RateSet fetched) {
+        Optional<RateSet> stored = rateSetRepository.findByVersion(fetched.getVersion());
+
+        if (stored.isEmpty()) {
+            try {
+                rateSetRepository.insert(fetched);
+                return fetched;
+            } catch (DuplicateKeyException e) {
+                stored = rateSetRepository.findByVersion(fetched.getVersion());
+            }
+        }
+
+        RateSet rates = stored.orElseThrow();
+
+        if (!rates.getFactors().equals(fetched.getFactors())) {
+            throw new IllegalStateException("Provider returned rates version " + fetched.getVersion()
+                    + " which differ from the stored rates of that version");
+        }
+
+        return rates;
+    }
+
+    private boolean isStale(Snapshot current) {
+        if (rateProvider == null) {
+            return false;
+        }
+
+        return current.refreshedAt() == null
+                || Duration.between(current.refreshedAt(), clock.instant()).compareTo(maxStaleness) > 0;
+    }
+
+    private record Snapshot(RateSet rates, Instant refreshedAt) {
+    }
+}
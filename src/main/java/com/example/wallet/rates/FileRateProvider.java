@@ -0,0 +1,53 @@
+package com.example.wallet.rates;
+
+import com.example.wallet.entity.Currency;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads rates from a properties file holding a {@code version} and the value of one dollar in
+ * every currency.
+ */
+@Component
+@ConditionalOnExpression("!'${wallet.rates.file:}'.isBlank()")
+public class FileRateProvider implements RateProvider {
+
+    private final Path file;
+
+    public FileRateProvider(@Value("${wallet.rates.file}") String file) {
+        this.file = Paths.get(file);
+    }
+
+    @Override
+    public RateSet fetch() throws IOException {
+        Properties properties = new Properties();
+
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+
+        long version = Long.parseLong(properties.getProperty("version", "").trim());
+        Map<Currency, BigDecimal> factors = new EnumMap<>(Currency.class);
+
+        for (Currency currency : Currency.values()) {
+            String factor = properties.getProperty(currency.name());
+
+            if (factor != null) {
+                factors.put(currency, new BigDecimal(factor.trim()));
+            }
+        }
+
+        return RateSet.of(version, factors);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.wallet.rates;
+
+import java.io.IOException;
+
+/**
+ * Source of the latest conversion rates, polled by {@link ConversionRates}.
+ */
+public interface RateProvider {
+
+    RateSet fetch() throws IOException;
+}
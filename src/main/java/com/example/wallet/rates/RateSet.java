@@ -0,0 +1,106 @@
+package com.example.wallet.rates;
+
+import com.example.wallet.entity.Currency;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Immutable, versioned matrix of conversion rates between every pair of currencies. Each rate is
+ * kept as a reduced fraction, so a conversion is one multiplication and one division instead of
+ * dividing two floating point factors on every call.
+ */
+public final class RateSet {
+
+    private static final int SIZE = Currency.values().length;
+
+    public static final RateSet DEFAULT = of(0, defaultFactors());
+
+    private final long version;
+    private final Map<Currency, BigDecimal> factors;
+    private final long[] numerators;
+    private final long[] denominators;
+
+    private RateSet(long version, Map<Currency, BigDecimal> factors, long[] numerators, long[] denominators) {
+        this.version = version;
+        this.factors = factors;
+        this.numerators = numerators;
+        this.denominators = denominators;
+    }
+
+    /**
+     * Builds the matrix from the value of one dollar in every currency.
+     */
+    public static RateSet of(long version, Map<Currency, BigDecimal> currencyToDollarConversionFactors) {
+        Currency[] currencies = Currency.values();
+        BigInteger[][] factors = new BigInteger[currencies.length][];
+        Map<Currency, BigDecimal> normalizedFactors = new EnumMap<>(Currency.class);
+
+        for (Currency currency : currencies) {
+            BigDecimal factor = currencyToDollarConversionFactors.get(currency);
+
+            if (factor == null || factor.signum() <= 0) {
+                throw new IllegalArgumentException("Missing or invalid conversion factor for " + currency);
+            }
+
+            factors[currency.ordinal()] = toFraction(factor);
+            normalizedFactors.put(currency, factor.stripTrailingZeros());
+        }
+
+        long[] numerators = new long[currencies.length * currencies.length];
+        long[] denominators = new long[currencies.length * currencies.length];
+
+        for (Currency from : currencies) {
+            for (Currency to : currencies) {
+                BigInteger numerator = factors[to.ordinal()][0].multiply(factors[from.ordinal()][1]);
+                BigInteger denominator = factors[to.ordinal()][1].multiply(factors[from.ordinal()][0]);
+                BigInteger gcd = numerator.gcd(denominator);
+                int index = from.ordinal() * currencies.length + to.ordinal();
+
+                numerators[index] = numerator.divide(gcd).longValueExact();
+                denominators[index] = denominator.divide(gcd).longValueExact();
+            }
+        }
+
+        return new RateSet(version, Collections.unmodifiableMap(normalizedFactors), numerators, denominators);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * The value of one dollar in every currency this set was built from.
+     */
+    public Map<Currency, BigDecimal> getFactors() {
+        return factors;
+    }
+
+    public double convert(Currency from, Currency to, double amount) {
+        int index = from.ordinal() * SIZE + to.ordinal();
+        return amount * numerators[index] / denominators[index];
+    }
+
+    private static BigInteger[] toFraction(BigDecimal value) {
+        BigDecimal stripped = value.stripTrailingZeros();
+
+        if (stripped.scale() <= 0) {
+            return new BigInteger[] { stripped.toBigIntegerExact(), BigInteger.ONE };
+        }
+
+        return new BigInteger[] { stripped.unscaledValue(), BigInteger.TEN.pow(stripped.scale()) };
+    }
+
+    private static Map<Currency, BigDecimal> defaultFactors() {
+        Map<Currency, BigDecimal> factors = new EnumMap<>(Currency.class);
+
+        for (Currency currency : Currency.values()) {
+            factors.put(currency, currency.getCurrencyToDollarConversionFactor());
+        }
+
+        return factors;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Checkpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CheckpointRepository extends JpaRepository<Checkpoint, String> {
+}
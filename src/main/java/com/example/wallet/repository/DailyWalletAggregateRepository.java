@@ -0,0 +1,80 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.dto.response.TransactionTypeSummary;
+import com.example.wallet.entity.DailyWalletAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyWalletAggregateRepository extends JpaRepository<DailyWalletAggregate, Long> {
+
+    /**
+     * Adds to the aggregate of the wallet, day and type, creating it if needed, in one atomic
+     * statement on PostgreSQL.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO wallet_daily_aggregates " +
+            "(wallet_id, aggregate_date, transaction_type, inflow_count, inflow_amount, outflow_count, outflow_amount) " +
+            "VALUES (:walletId, :aggregateDate, :transactionType, :inflowCount, :inflowAmount, :outflowCount, :outflowAmount) " +
+            "ON CONFLICT (wallet_id, aggregate_date, transaction_type) DO UPDATE SET " +
+            "inflow_count = wallet_daily_aggregates.inflow_count + EXCLUDED.inflow_count, " +
+            "inflow_amount = wallet_daily_aggregates.inflow_amount + EXCLUDED.inflow_amount, " +
+            "outflow_count = wallet_daily_aggregates.outflow_count + EXCLUDED.outflow_count, " +
+            "outflow_amount = wallet_daily_aggregates.outflow_amount + EXCLUDED.outflow_amount",
+            nativeQuery = true)
+    public int upsert(
+            @Param("walletId") Long walletId,
+            @Param("aggregateDate") LocalDate aggregateDate,
+            @Param("transactionType") String transactionType,
+            @Param("inflowCount") long inflowCount,
+            @Param("inflowAmount") double inflowAmount,
+            @Param("outflowCount") long outflowCount,
+            @Param("outflowAmount") double outflowAmount
+    );
+
+    /**
+     * Same as {@link #upsert} for H2, which has no {@code ON CONFLICT ... DO UPDATE}.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "MERGE INTO wallet_daily_aggregates a USING (VALUES (" +
+            "CAST(:walletId AS BIGINT), CAST(:aggregateDate AS DATE), CAST(:transactionType AS VARCHAR(20)), " +
+            "CAST(:inflowCount AS BIGINT), CAST(:inflowAmount AS DOUBLE PRECISION), " +
+            "CAST(:outflowCount AS BIGINT), CAST(:outflowAmount AS DOUBLE PRECISION))) " +
+            "s (wallet_id, aggregate_date, transaction_type, inflow_count, inflow_amount, outflow_count, outflow_amount) " +
+            "ON a.wallet_id = s.wallet_id AND a.aggregate_date = s.aggregate_date AND a.transaction_type = s.transaction_type " +
+            "WHEN MATCHED THEN UPDATE SET " +
+            "inflow_count = a.inflow_count + s.inflow_count, " +
+            "inflow_amount = a.inflow_amount + s.inflow_amount, " +
+            "outflow_count = a.outflow_count + s.outflow_count, " +
+            "outflow_amount = a.outflow_amount + s.outflow_amount " +
+            "WHEN NOT MATCHED THEN INSERT " +
+            "(wallet_id, aggregate_date, transaction_type, inflow_count, inflow_amount, outflow_count, outflow_amount) " +
+            "VALUES (s.wallet_id, s.aggregate_date, s.transaction_type, s.inflow_count, s.inflow_amount, s.outflow_count, s.outflow_amount)",
+            nativeQuery = true)
+    public int merge(
+            @Param("walletId") Long walletId,
+            @Param("aggregateDate") LocalDate aggregateDate,
+            @Param("transactionType") String transactionType,
+            @Param("inflowCount") long inflowCount,
+            @Param("inflowAmount") double inflowAmount,
+            @Param("outflowCount") long outflowCount,
+            @Param("outflowAmount") double outflowAmount
+    );
+
+    @Query("SELECT new com.example.wallet.dto.response.TransactionTypeSummary(" +
+            "a.transactionType, SUM(a.inflowCount), SUM(a.inflowAmount), SUM(a.outflowCount), SUM(a.outflowAmount)) " +
+            "FROM DailyWalletAggregate a " +
+            "WHERE a.walletId = :walletId AND a.aggregateDate BETWEEN :from AND :to " +
+            "GROUP BY a.transactionType " +
+            "ORDER BY a.transactionType")
+    public List<TransactionTypeSummary> summarize(@Param("walletId") Long walletId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,89 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Pending transaction history rows, stored in {@code wallet_history_outbox}. Rows are claimed with
+ * a row lock, skipping rows another node already holds on PostgreSQL, so each row is moved into
+ * {@code wallet_transactions} exactly once however many nodes drain the outbox.
+ */
+@Repository
+public class HistoryOutboxRepository {
+
+    private static final String COLUMNS = "from_wallet_id, from_wallet_amount, from_wallet_currency, " +
+            "to_wallet_id, to_wallet_amount, to_wallet_currency, " +
+            "rate_version, transaction_type, created_at";
+
+    private static final String INSERT = "INSERT INTO wallet_history_outbox (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String CLAIM = "SELECT id, " + COLUMNS + " FROM wallet_history_outbox ORDER BY id FETCH FIRST ? ROWS ONLY FOR UPDATE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String claim;
+
+    @PostConstruct
+    public void init() {
+        boolean postgres = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+        claim = postgres ? CLAIM + " SKIP LOCKED" : CLAIM;
+    }
+
+    public void insert(Transaction transaction) {
+        jdbcTemplate.update(INSERT, statement -> {
+            statement.setLong(1, transaction.getFromWalletId());
+            statement.setDouble(2, transaction.getFromWalletAmount());
+            statement.setInt(3, transaction.getFromWalletCurrency().ordinal());
+            statement.setLong(4, transaction.getToWalletId());
+            statement.setDouble(5, transaction.getToWalletAmount());
+            statement.setInt(6, transaction.getToWalletCurrency().ordinal());
+            statement.setObject(7, transaction.getRateVersion(), Types.BIGINT);
+            statement.setString(8, transaction.getTransactionType().name());
+            statement.setTimestamp(9, Timestamp.valueOf(transaction.getCreatedAt()));
+        });
+    }
+
+    /**
+     * Locks and returns up to {@code limit} of the oldest rows. Must run inside the transaction
+     * that writes and deletes them.
+     */
+    public List<OutboxEntry> claim(int limit) {
+        return jdbcTemplate.query(claim, (resultSet, rowNum) -> new OutboxEntry(
+                resultSet.getLong("id"),
+                Transaction.builder()
+                        .fromWalletId(resultSet.getLong("from_wallet_id"))
+                        .fromWalletAmount(resultSet.getDouble("from_wallet_amount"))
+                        .fromWalletCurrency(Currency.values()[resultSet.getInt("from_wallet_currency")])
+                        .toWalletId(resultSet.getLong("to_wallet_id"))
+                        .toWalletAmount(resultSet.getDouble("to_wallet_amount"))
+                        .toWalletCurrency(Currency.values()[resultSet.getInt("to_wallet_currency")])
+                        .rateVersion(resultSet.getObject("rate_version", Long.class))
+                        .transactionType(TransactionType.valueOf(resultSet.getString("transaction_type")))
+                        .createdAt(resultSet.getTimestamp("created_at").toLocalDateTime())
+                        .build()
+        ), limit);
+    }
+
+    public void deleteAll(List<OutboxEntry> entries) {
+        jdbcTemplate.batchUpdate("DELETE FROM wallet_history_outbox WHERE id = ?", entries, entries.size(),
+                (statement, entry) -> statement.setLong(1, entry.id()));
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM wallet_history_outbox)", Boolean.class));
+    }
+
+    public record OutboxEntry(long id, Transaction transaction) {
+    }
+}
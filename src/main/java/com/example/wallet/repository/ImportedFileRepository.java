@@ -0,0 +1,9 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.ImportedFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportedFileRepository extends JpaRepository<ImportedFile, String> {
+}
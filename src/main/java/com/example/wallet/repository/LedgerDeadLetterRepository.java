@@ -0,0 +1,51 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.ledger.LedgerEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Ledger entries which could not be projected, stored in {@code wallet_ledger_dead_letters}.
+ */
+@Repository
+public class LedgerDeadLetterRepository {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private static final String INSERT = "INSERT INTO wallet_ledger_dead_letters (sequence, transaction_type, " +
+            "from_wallet_id, from_wallet_amount, from_wallet_currency, from_wallet_balance, " +
+            "to_wallet_id, to_wallet_amount, to_wallet_currency, to_wallet_balance, " +
+            "rate_version, entry_created_at, error, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void insert(LedgerEntry entry, String error) {
+        String message = error == null ? "unknown" : error;
+
+        jdbcTemplate.update(INSERT,
+                entry.sequence(),
+                entry.transactionType().name(),
+                entry.fromWalletId(),
+                entry.fromWalletAmount(),
+                entry.fromWalletCurrency().name(),
+                entry.fromWalletBalance(),
+                entry.toWalletId(),
+                entry.toWalletAmount(),
+                entry.toWalletCurrency().name(),
+                entry.toWalletBalance(),
+                entry.rateVersion(),
+                Timestamp.valueOf(entry.createdAt()),
+                message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message,
+                Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public int count() {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_ledger_dead_letters", Integer.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.rates.RateSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Conversion rate sets by version, stored as one row per currency in {@code wallet_rate_sets}.
+ */
+@Repository
+public class RateSetRepository {
+
+    private static final String SELECT = "SELECT version, currency, dollar_factor FROM wallet_rate_sets";
+
+    private static final String INSERT = "INSERT INTO wallet_rate_sets (version, currency, dollar_factor, created_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public List<RateSet> findAll() {
+        return toRateSets(jdbcTemplate.queryForList(SELECT + " ORDER BY version"));
+    }
+
+    public Optional<RateSet> findByVersion(long version) {
+        return toRateSets(jdbcTemplate.queryForList(SELECT + " WHERE version = ?", version)).stream().findFirst();
+    }
+
+    @Transactional
+    public void insert(RateSet rateSet) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(INSERT, new ArrayList<>(rateSet.getFactors().entrySet()), Currency.values().length, (statement, factor) -> {
+            statement.setLong(1, rateSet.getVersion());
+            statement.setString(2, factor.getKey().name());
+            statement.setBigDecimal(3, factor.getValue());
+            statement.setTimestamp(4, createdAt);
+        });
+    }
+
+    private static List<RateSet> toRateSets(List<Map<String, Object>> rows) {
+        Map<Long, Map<Currency, BigDecimal>> factorsByVersion = new TreeMap<>();
+
+        for (Map<String, Object> row : rows) {
+            factorsByVersion.computeIfAbsent(((Number) row.get("version")).longValue(), version -> new EnumMap<>(Currency.class))
+                    .put(Currency.valueOf((String) row.get("currency")), (BigDecimal) row.get("dollar_factor"));
+        }
+
+        List<RateSet> rateSets = new ArrayList<>();
+        factorsByVersion.forEach((version, factors) -> rateSets.add(RateSet.of(version, factors)));
+
+        return rateSets;
+    }
+}
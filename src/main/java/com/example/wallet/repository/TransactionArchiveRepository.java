@@ -0,0 +1,384 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File based archive of detached {@code wallet_transactions} partitions.
+ * Every archived month is stored as one gzip compressed CSV file, written row by row through an
+ * {@link ArchiveWriter}. The archived months are listed once and kept in memory, updated when an
+ * archive is committed and rescanned by {@link #refresh}.
+ * <p>
+ * Rows are written once per wallet they belong to, ordered by wallet, as a series of gzip members of
+ * about {@code BLOCK_SIZE} characters which never split a wallet. A small index file next to the
+ * archive holds the first wallet and offset of every member, so a wallet's rows are read by
+ * decompressing a single member. Archives without an index, including those written before the
+ * index existed, are scanned in full.
+ */
+@Repository
+public class TransactionArchiveRepository {
+
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final String FILE_PREFIX = "wallet_transactions_";
+    private static final String FILE_SUFFIX = ".csv.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String HEADER = "id,from_wallet_id,from_wallet_amount,from_wallet_currency,to_wallet_id,to_wallet_amount,to_wallet_currency,transaction_type,created_at";
+    private static final String WALLET_HEADER = "wallet_id," + HEADER;
+
+    private final Path directory;
+    private final Map<YearMonth, Optional<BlockIndex>> indexes = new ConcurrentHashMap<>();
+
+    private volatile NavigableSet<YearMonth> archivedMonths;
+
+    public TransactionArchiveRepository(@Value("${wallet.transactions.archive.directory:archive}") String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Opens a writer for the month. Rows are streamed into a temporary file which replaces the
+     * archive of the month on {@link ArchiveWriter#commit}, and is deleted if the writer is closed
+     * without committing.
+     */
+    public ArchiveWriter openWriter(YearMonth month) throws IOException {
+        Files.createDirectories(directory);
+
+        return new ArchiveWriter(month);
+    }
+
+    public List<Transaction> findByWalletId(Long walletId, LocalDateTime from, LocalDateTime to) throws IOException {
+        List<Transaction> transactions = new ArrayList<>();
+
+        for (YearMonth month : getArchivedMonths().subSet(YearMonth.from(from), true, YearMonth.from(to), true)) {
+            Optional<BlockIndex> index;
+
+            try {
+                index = indexes.computeIfAbsent(month, this::readIndex);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (index.isPresent()) {
+                readBlock(month, index.get(), walletId, from, to, transactions);
+            } else {
+                scan(month, walletId, from, to, transactions);
+            }
+        }
+
+        return transactions;
+    }
+
+    public Optional<YearMonth> findLatestArchivedMonth() throws IOException {
+        NavigableSet<YearMonth> months = getArchivedMonths();
+        return months.isEmpty() ? Optional.empty() : Optional.of(months.last());
+    }
+
+    public Optional<YearMonth> findEarliestArchivedMonth() throws IOException {
+        NavigableSet<YearMonth> months = getArchivedMonths();
+        return months.isEmpty() ? Optional.empty() : Optional.of(months.first());
+    }
+
+    /**
+     * Lists the archive directory again, picking up months archived by other instances.
+     */
+    public synchronized void refresh() throws IOException {
+        archivedMonths = listArchivedMonths();
+        indexes.clear();
+    }
+
+    private NavigableSet<YearMonth> getArchivedMonths() throws IOException {
+        NavigableSet<YearMonth> months = archivedMonths;
+
+        if (months == null) {
+            synchronized (this) {
+                if (archivedMonths == null) {
+                    archivedMonths = listArchivedMonths();
+                }
+
+                months = archivedMonths;
+            }
+        }
+
+        return months;
+    }
+
+    private NavigableSet<YearMonth> listArchivedMonths() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyNavigableSet();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return Collections.unmodifiableNavigableSet(files
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                    .map(name -> YearMonth.parse(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()), MONTH_FORMAT))
+                    .collect(Collectors.toCollection(TreeSet::new)));
+        }
+    }
+
+    private synchronized void addArchivedMonth(YearMonth month) throws IOException {
+        NavigableSet<YearMonth> months = new TreeSet<>(getArchivedMonths());
+        months.add(month);
+        archivedMonths = Collections.unmodifiableNavigableSet(months);
+        indexes.remove(month);
+    }
+
+    /**
+     * Reads the only member which can hold rows of the wallet, the last one starting at or before it.
+     */
+    private void readBlock(YearMonth month, BlockIndex index, Long walletId, LocalDateTime from, LocalDateTime to, List<Transaction> transactions) throws IOException {
+        int block = Arrays.binarySearch(index.firstWalletIds(), walletId);
+
+        if (block < 0) {
+            block = -block - 2;
+        }
+
+        if (block < 0) {
+            return;
+        }
+
+        try (InputStream file = Files.newInputStream(fileFor(month))) {
+            file.skipNBytes(index.offsets()[block]);
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(file), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(WALLET_HEADER)) {
+                        continue;
+                    }
+
+                    String[] columns = line.split(",");
+                    long rowWalletId = Long.parseLong(columns[0]);
+
+                    if (rowWalletId > walletId) {
+                        return;
+                    }
+
+                    if (rowWalletId == walletId) {
+                        addIfInRange(fromColumns(columns, 1), from, to, transactions);
+                    }
+                }
+            }
+        }
+    }
+
+    private void scan(YearMonth month, Long walletId, LocalDateTime from, LocalDateTime to, List<Transaction> transactions) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(fileFor(month))), StandardCharsets.UTF_8))) {
+            boolean keyed = WALLET_HEADER.equals(reader.readLine());
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split(",");
+
+                if (keyed) {
+                    if (walletId == Long.parseLong(columns[0])) {
+                        addIfInRange(fromColumns(columns, 1), from, to, transactions);
+                    }
+                } else {
+                    Transaction transaction = fromColumns(columns, 0);
+
+                    if (walletId.equals(transaction.getFromWalletId()) || walletId.equals(transaction.getToWalletId())) {
+                        addIfInRange(transaction, from, to, transactions);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addIfInRange(Transaction transaction, LocalDateTime from, LocalDateTime to, List<Transaction> transactions) {
+        if (!transaction.getCreatedAt().isBefore(from) && transaction.getCreatedAt().isBefore(to)) {
+            transactions.add(transaction);
+        }
+    }
+
+    private Optional<BlockIndex> readIndex(YearMonth month) {
+        Path file = indexFor(month);
+
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            long[] firstWalletIds = new long[lines.size()];
+            long[] offsets = new long[lines.size()];
+
+            for (int i = 0; i < lines.size(); i++) {
+                String[] columns = lines.get(i).split(",");
+                firstWalletIds[i] = Long.parseLong(columns[0]);
+                offsets[i] = Long.parseLong(columns[1]);
+            }
+
+            return Optional.of(new BlockIndex(firstWalletIds, offsets));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path fileFor(YearMonth month) {
+        return directory.resolve(FILE_PREFIX + month.format(MONTH_FORMAT) + FILE_SUFFIX);
+    }
+
+    private Path indexFor(YearMonth month) {
+        return directory.resolve(FILE_PREFIX + month.format(MONTH_FORMAT) + INDEX_SUFFIX);
+    }
+
+    private String toLine(long walletId, Transaction transaction) {
+        return String.join(",",
+                String.valueOf(walletId),
+                String.valueOf(transaction.getId()),
+                String.valueOf(transaction.getFromWalletId()),
+                String.valueOf(transaction.getFromWalletAmount()),
+                transaction.getFromWalletCurrency().name(),
+                String.valueOf(transaction.getToWalletId()),
+                String.valueOf(transaction.getToWalletAmount()),
+                transaction.getToWalletCurrency().name(),
+                transaction.getTransactionType().name(),
+                transaction.getCreatedAt().toString()
+        );
+    }
+
+    private Transaction fromColumns(String[] columns, int first) {
+        return Transaction.builder()
+                .id(Long.valueOf(columns[first]))
+                .fromWalletId(Long.valueOf(columns[first + 1]))
+                .fromWalletAmount(Double.valueOf(columns[first + 2]))
+                .fromWalletCurrency(Currency.valueOf(columns[first + 3]))
+                .toWalletId(Long.valueOf(columns[first + 4]))
+                .toWalletAmount(Double.valueOf(columns[first + 5]))
+                .toWalletCurrency(Currency.valueOf(columns[first + 6]))
+                .transactionType(TransactionType.valueOf(columns[first + 7]))
+                .createdAt(LocalDateTime.parse(columns[first + 8]))
+                .build();
+    }
+
+    private record BlockIndex(long[] firstWalletIds, long[] offsets) {
+    }
+
+    /**
+     * Writes the archive of a month. Rows must be appended in wallet order, once for every wallet
+     * they belong to.
+     */
+    public class ArchiveWriter implements Closeable {
+
+        private final YearMonth month;
+        private final Path target;
+        private final Path temp;
+        private final Path indexTemp;
+        private final FileChannel channel;
+        private final OutputStream file;
+        private final StringBuilder index = new StringBuilder();
+        private Writer block;
+        private int blockSize;
+        private long lastWalletId = Long.MIN_VALUE;
+        private long written;
+        private boolean committed;
+
+        private ArchiveWriter(YearMonth month) throws IOException {
+            this.month = month;
+            this.target = fileFor(month);
+            this.temp = directory.resolve(target.getFileName() + ".tmp");
+            this.indexTemp = directory.resolve(indexFor(month).getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            this.file = Channels.newOutputStream(channel);
+        }
+
+        public void append(long walletId, Transaction transaction) throws IOException {
+            if (walletId < lastWalletId) {
+                throw new IllegalArgumentException("Archived rows must be ordered by wallet");
+            }
+
+            if (block == null || (walletId != lastWalletId && blockSize >= BLOCK_SIZE)) {
+                startBlock(walletId);
+            }
+
+            String line = toLine(walletId, transaction);
+            block.write(line);
+            block.write('\n');
+            blockSize += line.length() + 1;
+            lastWalletId = walletId;
+            written++;
+        }
+
+        /**
+         * Publishes the archive of the month and returns the number of appended rows.
+         */
+        public long commit() throws IOException {
+            if (block == null) {
+                startBlock(0);
+            }
+
+            block.close();
+            channel.close();
+            Files.writeString(indexTemp, index, StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(indexTemp, indexFor(month), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            addArchivedMonth(month);
+
+            return written;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temp);
+                Files.deleteIfExists(indexTemp);
+            }
+        }
+
+        private void startBlock(long walletId) throws IOException {
+            if (block != null) {
+                block.close();
+            }
+
+            long offset = channel.position();
+            index.append(walletId).append(',').append(offset).append('\n');
+            block = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FilterOutputStream(file) {
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            }), StandardCharsets.UTF_8));
+            blockSize = 0;
+
+            if (offset == 0) {
+                block.write(WALLET_HEADER);
+                block.write('\n');
+            }
+        }
+    }
+}
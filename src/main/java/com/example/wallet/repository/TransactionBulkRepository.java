@@ -0,0 +1,95 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.sql.StatementTimer;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Bulk inserts into {@code wallet_transactions}. On PostgreSQL the rows are streamed with
+ * {@code COPY FROM STDIN}, other databases fall back to batched inserts. The copy bypasses the
+ * data source wrapper, so it is timed here.
+ */
+@Repository
+public class TransactionBulkRepository {
+
+    private static final String COLUMNS = "from_wallet_id, from_wallet_amount, from_wallet_currency, " +
+            "to_wallet_id, to_wallet_amount, to_wallet_currency, " +
+            "rate_version, transaction_type, created_at";
+
+    private static final String COPY = "COPY wallet_transactions (" + COLUMNS + ") FROM STDIN WITH (FORMAT csv)";
+
+    private static final String INSERT = "INSERT INTO wallet_transactions (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StatementTimer statementTimer;
+
+    public void insertAll(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+
+        boolean copied = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> copy(connection, transactions)));
+
+        if (!copied) {
+            jdbcTemplate.batchUpdate(INSERT, transactions, transactions.size(), (statement, transaction) -> {
+                statement.setLong(1, transaction.getFromWalletId());
+                statement.setDouble(2, transaction.getFromWalletAmount());
+                statement.setInt(3, transaction.getFromWalletCurrency().ordinal());
+                statement.setLong(4, transaction.getToWalletId());
+                statement.setDouble(5, transaction.getToWalletAmount());
+                statement.setInt(6, transaction.getToWalletCurrency().ordinal());
+                statement.setObject(7, transaction.getRateVersion(), Types.BIGINT);
+                statement.setString(8, transaction.getTransactionType().name());
+                statement.setTimestamp(9, Timestamp.valueOf(transaction.getCreatedAt()));
+            });
+        }
+    }
+
+    private boolean copy(Connection connection, List<Transaction> transactions) throws SQLException {
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            return false;
+        }
+
+        StringBuilder rows = new StringBuilder(transactions.size() * 96);
+
+        for (Transaction transaction : transactions) {
+            rows.append(transaction.getFromWalletId()).append(',')
+                    .append(transaction.getFromWalletAmount()).append(',')
+                    .append(transaction.getFromWalletCurrency().ordinal()).append(',')
+                    .append(transaction.getToWalletId()).append(',')
+                    .append(transaction.getToWalletAmount()).append(',')
+                    .append(transaction.getToWalletCurrency().ordinal()).append(',')
+                    .append(transaction.getRateVersion() == null ? "" : transaction.getRateVersion()).append(',')
+                    .append(transaction.getTransactionType().name()).append(',')
+                    .append(transaction.getCreatedAt()).append('\n');
+        }
+
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+        statementTimer.time(COPY, () -> {
+            try {
+                return copyManager.copyIn(COPY, new StringReader(rows.toString()));
+            } catch (IOException e) {
+                throw new SQLException("Could not copy transactions", e);
+            }
+        });
+
+        return true;
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.wallet.repository;
 
+import com.example.wallet.dto.response.TransactionResponse;
 import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -14,4 +17,16 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
     @Query(value = "SELECT * FROM wallet_transactions WHERE from_wallet_id = :walletId OR to_wallet_id = :walletId", nativeQuery = true)
     public List<Transaction> getTransactionsByWalletId(@Param("walletId") Long walletId);
 
+    @Query("SELECT new com.example.wallet.dto.response.TransactionResponse(" +
+            "t.id, t.fromWalletId, t.fromWalletAmount, t.fromWalletCurrency, t.toWalletId, t.toWalletAmount, t.toWalletCurrency, t.transactionType, t.createdAt) " +
+            "FROM Transaction t WHERE t.fromWalletId = :walletId OR t.toWalletId = :walletId ORDER BY t.id")
+    public List<TransactionResponse> findTransactionResponsesByWalletId(@Param("walletId") Long walletId);
+
+    @Query("SELECT new com.example.wallet.dto.response.TransactionResponse(" +
+            "t.id, t.fromWalletId, t.fromWalletAmount, t.fromWalletCurrency, t.toWalletId, t.toWalletAmount, t.toWalletCurrency, t.transactionType, t.createdAt) " +
+            "FROM Transaction t WHERE (t.fromWalletId = :walletId OR t.toWalletId = :walletId) AND t.createdAt >= :from AND t.createdAt < :to ORDER BY t.id")
+    public List<TransactionResponse> findTransactionResponsesByWalletIdBetween(@Param("walletId") Long walletId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    public List<Transaction> findAllByCreatedAtAfterAndTransactionTypeIn(LocalDateTime createdAt, List<TransactionType> transactionTypes);
+
 }
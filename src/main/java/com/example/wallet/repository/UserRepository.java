@@ -1,8 +1,14 @@
 package com.example.wallet.repository;
 
 import com.example.wallet.entity.User;
+import com.example.wallet.security.UserCredentials;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -11,4 +17,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
+    @EntityGraph(attributePaths = "wallet")
+    Optional<User> findWithWalletByEmail(String email);
+
+    @Query("SELECT new com.example.wallet.security.UserCredentials(u.id, u.email, u.password, u.locked, u.enabled) " +
+            "FROM User u WHERE u.email = :email")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    boolean existsByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.securityVersion = u.securityVersion + 1 WHERE u.id = :id")
+    int incrementSecurityVersion(@Param("id") Long id);
+
+    @Query("SELECT u.securityVersion FROM User u WHERE u.id = :id AND u.enabled = true AND u.locked = false")
+    Optional<Integer> findActiveSecurityVersionById(@Param("id") Long id);
+
 }
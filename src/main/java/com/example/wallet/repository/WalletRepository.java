@@ -1,9 +1,51 @@
 package com.example.wallet.repository;
 
+import com.example.wallet.dto.response.WalletHistoryBalance;
+import com.example.wallet.dto.response.WalletResponse;
 import com.example.wallet.entity.Wallet;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Long> {
+
+    @Query("SELECT new com.example.wallet.dto.response.WalletResponse(" +
+            "w.id, " +
+            "CASE WHEN w.stripeCount > 0 THEN (SELECT SUM(s.amount) FROM WalletStripe s WHERE s.walletId = w.id) ELSE w.amount END, " +
+            "w.currency, " +
+            "w.isActivated) " +
+            "FROM Wallet w WHERE w.id = :id")
+    Optional<WalletResponse> findWalletResponseById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id = :id")
+    Optional<Wallet> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.id IN :ids ORDER BY w.id")
+    List<Wallet> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT w.id FROM Wallet w WHERE w.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.example.wallet.dto.response.WalletHistoryBalance(" +
+            "w.id, " +
+            "w.currency, " +
+            "CASE WHEN w.stripeCount > 0 THEN (SELECT SUM(s.amount) FROM WalletStripe s WHERE s.walletId = w.id) ELSE w.amount END, " +
+            "COALESCE((SELECT SUM(a.inflowAmount) - SUM(a.outflowAmount) FROM DailyWalletAggregate a WHERE a.walletId = w.id), 0.0)) " +
+            "FROM Wallet w WHERE w.isActivated = true")
+    List<WalletHistoryBalance> findWalletHistoryBalances();
+
+    @Modifying
+    @Query("UPDATE Wallet w SET w.amount = w.amount + :delta WHERE w.id = :id AND w.stripeCount = 0")
+    int addAmount(@Param("id") Long id, @Param("delta") double delta);
 }
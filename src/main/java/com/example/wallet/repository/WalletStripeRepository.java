@@ -0,0 +1,34 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.WalletStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface WalletStripeRepository extends JpaRepository<WalletStripe, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE WalletStripe s SET s.amount = s.amount + :amount WHERE s.walletId = :walletId AND s.stripeIndex = :stripeIndex")
+    public int credit(@Param("walletId") Long walletId, @Param("stripeIndex") int stripeIndex, @Param("amount") double amount);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE WalletStripe s SET s.amount = s.amount - :amount WHERE s.walletId = :walletId AND s.stripeIndex = :stripeIndex AND s.amount >= :amount")
+    public int debit(@Param("walletId") Long walletId, @Param("stripeIndex") int stripeIndex, @Param("amount") double amount);
+
+    @Query("SELECT COALESCE(SUM(s.amount), 0) FROM WalletStripe s WHERE s.walletId = :walletId")
+    public double sumAmountByWalletId(@Param("walletId") Long walletId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM WalletStripe s WHERE s.walletId = :walletId ORDER BY s.stripeIndex")
+    public List<WalletStripe> findAllByWalletIdForUpdate(@Param("walletId") Long walletId);
+}
@@ -3,6 +3,11 @@ package com.example.wallet.security;
 import com.example.wallet.security.jwt.JWTAuthenticationFilter;
 import com.example.wallet.security.jwt.UnauthorizedJWTRequestHandler;
 import com.example.wallet.security.provider.JWTAuthenticationProvider;
+import com.example.wallet.security.ratelimit.RateLimitFilter;
+import com.example.wallet.security.ratelimit.RateLimitProperties;
+import com.example.wallet.security.ratelimit.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -22,9 +27,18 @@ public class WebSecurityConfig {
     private static final String[] WHITE_LIST_URLS = {
             "/",
             "/api/v1/auth/register",
-            "/api/v1/auth/login"
+            "/api/v1/auth/registrations/*",
+            "/api/v1/auth/login",
+            "/api/v1/auth/refresh",
+            "/.well-known/jwks.json"
     };
 
+    @Autowired(required = false)
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(11);
@@ -67,6 +81,11 @@ public class WebSecurityConfig {
         httpSecurity.authenticationProvider(jwtAuthenticationProvider());
         httpSecurity.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
 
+        if (rateLimiter != null) {
+            httpSecurity.addFilterBefore(new RateLimitFilter(rateLimiter, RateLimitProperties.KeyType.IP, objectMapper), JWTAuthenticationFilter.class);
+            httpSecurity.addFilterAfter(new RateLimitFilter(rateLimiter, RateLimitProperties.KeyType.USER, objectMapper), JWTAuthenticationFilter.class);
+        }
+
         return httpSecurity.build();
     }
 }
@@ -1,15 +1,14 @@
 package com.example.wallet.security.jwt;
 
-import com.example.wallet.entity.User;
 import com.example.wallet.exception.AppException;
-import com.example.wallet.service.UserService;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.tracing.Span;
+import com.example.wallet.tracing.Tracer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -19,38 +18,43 @@ import java.io.IOException;
 public class JWTAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
-    private UserService userService;
+    private JWTUtils jwtUtils;
 
     @Autowired
-    private JWTUtils jwtUtils;
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private SecurityVersionCache securityVersionCache;
+
+    @Autowired
+    private Tracer tracer;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (Span span = tracer.startSpan("JWTAuthenticationFilter.authenticate")) {
+            authenticate(request);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(HttpServletRequest request) {
         String jwtToken = jwtUtils.parseJwtToken(request);
 
         if (jwtToken == null) {
-            filterChain.doFilter(request, response);
             return;
         }
 
-        String email = jwtUtils.validateJwtToken(jwtToken);
+        JWTPrincipal principal = jwtUtils.parsePrincipal(jwtToken);
 
-        if (email == null) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Invalid Request");
+        if (principal == null
+                || tokenRevocationList.isRevoked(principal.getTokenId())
+                || !securityVersionCache.isCurrent(principal.getUserId(), principal.getSecurityVersion())) {
+            throw new AppException(ErrorCode.INVALID_TOKEN, "Invalid Request");
         }
 
-        User user = (User) userService.loadUserByUsername(email);
-
-        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                user,
-                null,
-                user.getAuthorities()
-        );
+        principal.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-        filterChain.doFilter(request, response);
+        SecurityContextHolder.getContext().setAuthentication(principal);
     }
 }
@@ -0,0 +1,178 @@
+package com.example.wallet.security.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds the signing algorithm and a single verifier built once from the configured keys, so
+ * verifying a token does not parse keys or build a verifier. ES256 tokens carry the id of their
+ * key, which selects the cached public key on verification, so keys can be rotated by publishing
+ * the new public key before signing with it.
+ */
+@Component
+@EnableConfigurationProperties(JWTSigningProperties.class)
+public class JWTKeys {
+
+    private static final String CURVE = "P-256";
+    private static final int COORDINATE_LENGTH = 32;
+
+    private final String keyId;
+    private final boolean canSign;
+    private final Algorithm algorithm;
+    private final JWTVerifier verifier;
+    private final Map<String, ECPublicKey> publicKeys = new HashMap<>();
+
+    public JWTKeys(JWTSigningProperties properties, @Value("${jwt.secret:}") String secret) {
+        if (properties.algorithm() == JWTSigningProperties.Algorithm.HS512) {
+            if (secret == null || secret.isEmpty()) {
+                throw new IllegalStateException("jwt.secret is required to sign tokens with HS512");
+            }
+
+            keyId = null;
+            canSign = true;
+            algorithm = Algorithm.HMAC512(secret);
+        } else {
+            properties.publicKeys().forEach((id, key) -> publicKeys.put(id, (ECPublicKey) decode(key, false)));
+
+            if (publicKeys.isEmpty()) {
+                throw new IllegalStateException("jwt.signing.public-keys is required to verify tokens with ES256");
+            }
+
+            ECPrivateKey privateKey = properties.privateKey() == null || properties.privateKey().isEmpty()
+                    ? null
+                    : (ECPrivateKey) decode(properties.privateKey(), true);
+
+            if (privateKey != null && !publicKeys.containsKey(properties.keyId())) {
+                throw new IllegalStateException("No public key is configured for the signing key " + properties.keyId());
+            }
+
+            keyId = privateKey == null ? null : properties.keyId();
+            canSign = privateKey != null;
+            algorithm = Algorithm.ECDSA256(new KeyProvider(privateKey));
+        }
+
+        verifier = JWT.require(algorithm).build();
+    }
+
+    /**
+     * Signs the token, failing on nodes which are configured to only verify tokens.
+     */
+    public String sign(JWTCreator.Builder builder) {
+        if (!canSign) {
+            throw new IllegalStateException("jwt.signing.private-key is required to sign tokens with ES256");
+        }
+
+        return keyId == null ? builder.sign(algorithm) : builder.withKeyId(keyId).sign(algorithm);
+    }
+
+    /**
+     * Returns the decoded token if its signature is valid and it has not expired, otherwise
+     * {@code null}.
+     */
+    public DecodedJWT verify(String token) {
+        try {
+            return verifier.verify(token);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the public keys in JWK form. A shared HS512 secret is never published, so that list
+     * is empty.
+     */
+    public List<Map<String, String>> getJwks() {
+        return publicKeys.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .map(entry -> toJwk(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private static Map<String, String> toJwk(String id, ECPublicKey publicKey) {
+        Map<String, String> jwk = new LinkedHashMap<>();
+
+        jwk.put("kty", "EC");
+        jwk.put("crv", CURVE);
+        jwk.put("kid", id);
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("x", encodeCoordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", encodeCoordinate(publicKey.getW().getAffineY()));
+
+        return jwk;
+    }
+
+    private static String encodeCoordinate(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] padded = new byte[COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, COORDINATE_LENGTH);
+
+        System.arraycopy(bytes, bytes.length - length, padded, COORDINATE_LENGTH - length, length);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
+    }
+
+    private static Key decode(String key, boolean isPrivate) {
+        String base64 = Arrays.stream(key.split("\n"))
+                .filter(line -> !line.startsWith("-----"))
+                .reduce("", String::concat)
+                .replaceAll("\\s", "");
+
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            byte[] encoded = Base64.getDecoder().decode(base64);
+
+            return isPrivate
+                    ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(encoded))
+                    : keyFactory.generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid EC " + (isPrivate ? "private" : "public") + " key", e);
+        }
+    }
+
+    private class KeyProvider implements ECDSAKeyProvider {
+
+        private final ECPrivateKey privateKey;
+
+        KeyProvider(ECPrivateKey privateKey) {
+            this.privateKey = privateKey;
+        }
+
+        @Override
+        public ECPublicKey getPublicKeyById(String id) {
+            return id == null ? null : publicKeys.get(id);
+        }
+
+        @Override
+        public ECPrivateKey getPrivateKey() {
+            return privateKey;
+        }
+
+        @Override
+        public String getPrivateKeyId() {
+            return keyId;
+        }
+    }
+}
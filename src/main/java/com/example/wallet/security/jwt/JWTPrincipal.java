@@ -0,0 +1,62 @@
+package com.example.wallet.security.jwt;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.Collections;
+
+/**
+ * The authentication of a request, built from the claims of its token without loading the user.
+ * It is the request's {@link java.security.Principal}, so controllers can take it as an argument.
+ */
+public class JWTPrincipal extends AbstractAuthenticationToken {
+
+    private final Long userId;
+    private final Long walletId;
+    private final String email;
+    private final int securityVersion;
+    private final String tokenId;
+    private final Instant expiresAt;
+
+    public JWTPrincipal(Long userId, Long walletId, String email, int securityVersion, String tokenId, Instant expiresAt) {
+        super(Collections.singletonList(new SimpleGrantedAuthority("user")));
+        this.userId = userId;
+        this.walletId = walletId;
+        this.email = email;
+        this.securityVersion = securityVersion;
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+        setAuthenticated(true);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getWalletId() {
+        return walletId;
+    }
+
+    public int getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return email;
+    }
+}
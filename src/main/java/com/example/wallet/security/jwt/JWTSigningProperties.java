@@ -0,0 +1,27 @@
+package com.example.wallet.security.jwt;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Signing setup of the access tokens. {@code HS512} signs and verifies with the shared
+ * {@code jwt.secret}. {@code ES256} signs with the base64 PKCS#8 {@code privateKey} under
+ * {@code keyId} and verifies with the base64 X.509 {@code publicKeys} by key id, which are
+ * published as a JWKS. Nodes which only verify tokens configure the public keys alone.
+ */
+@ConfigurationProperties(prefix = "jwt.signing")
+public record JWTSigningProperties(Algorithm algorithm, String keyId, String privateKey, Map<String, String> publicKeys, Duration jwksMaxAge) {
+
+    public JWTSigningProperties {
+        algorithm = algorithm == null ? Algorithm.HS512 : algorithm;
+        publicKeys = publicKeys == null ? Map.of() : Map.copyOf(publicKeys);
+        jwksMaxAge = jwksMaxAge == null ? Duration.ofMinutes(5) : jwksMaxAge;
+    }
+
+    public enum Algorithm {
+        HS512,
+        ES256
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.wallet.security.jwt;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.wallet.entity.User;
 import com.example.wallet.service.UserService;
@@ -15,12 +13,14 @@ import org.springframework.stereotype.Component;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JWTUtils {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret;
+    static final String USER_ID_CLAIM = "userId";
+    static final String WALLET_ID_CLAIM = "walletId";
+    static final String SECURITY_VERSION_CLAIM = "securityVersion";
 
     @Value("${jwt.expirationMs}")
     private int jwtExpirationMs;
@@ -28,16 +28,24 @@ public class JWTUtils {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JWTKeys jwtKeys;
+
     public String generateJwtToken(Authentication authentication) {
         String email = (String) authentication.getPrincipal();
-        User user = (User) userService.loadUserByUsername(email);
+        return generateJwtToken(userService.loadUser(email));
+    }
 
-        return JWT.create()
-                .withSubject(email)
+    public String generateJwtToken(User user) {
+        return jwtKeys.sign(JWT.create()
+                .withSubject(user.getEmail())
+                .withJWTId(UUID.randomUUID().toString())
                 .withPayload(generatePayload(user))
+                .withClaim(USER_ID_CLAIM, user.getId())
+                .withClaim(WALLET_ID_CLAIM, user.getWallet().getId())
+                .withClaim(SECURITY_VERSION_CLAIM, user.getSecurityVersion())
                 .withIssuedAt(new Date())
-                .withExpiresAt(new Date(new Date().getTime() + jwtExpirationMs))
-                .sign(Algorithm.HMAC512(jwtSecret));
+                .withExpiresAt(new Date(new Date().getTime() + jwtExpirationMs)));
     }
 
     public Map<String,String> generatePayload(User user) {
@@ -51,16 +59,30 @@ public class JWTUtils {
     }
 
     public String validateJwtToken(String jwtToken) {
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC512(jwtSecret)).build();
-        DecodedJWT decodedJWT;
+        DecodedJWT decodedJWT = jwtKeys.verify(jwtToken);
+        return decodedJWT == null ? null : decodedJWT.getSubject();
+    }
+
+    /**
+     * Builds the principal of a valid token from its claims, returns {@code null} if the token is
+     * invalid or does not carry the user and wallet ids, a token id and an expiry.
+     */
+    public JWTPrincipal parsePrincipal(String jwtToken) {
+        DecodedJWT decodedJWT = jwtKeys.verify(jwtToken);
+
+        if (decodedJWT == null) {
+            return null;
+        }
+
+        Long userId = decodedJWT.getClaim(USER_ID_CLAIM).asLong();
+        Long walletId = decodedJWT.getClaim(WALLET_ID_CLAIM).asLong();
+        Integer securityVersion = decodedJWT.getClaim(SECURITY_VERSION_CLAIM).asInt();
 
-        try {
-            decodedJWT = verifier.verify(jwtToken);
-        } catch (Exception e) {
+        if (userId == null || walletId == null || securityVersion == null || decodedJWT.getId() == null || decodedJWT.getExpiresAt() == null) {
             return null;
         }
 
-        return decodedJWT.getSubject();
+        return new JWTPrincipal(userId, walletId, decodedJWT.getSubject(), securityVersion, decodedJWT.getId(), decodedJWT.getExpiresAtAsInstant());
     }
 
     public String parseJwtToken(HttpServletRequest request) {
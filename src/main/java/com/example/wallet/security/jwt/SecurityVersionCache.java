@@ -0,0 +1,64 @@
+package com.example.wallet.security.jwt;
+
+import com.example.wallet.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the current security version of users for a short time, so validating a token does
+ * not query {@code wallet_users} on every request. Locked or disabled users have no current
+ * version. Raising a user's version, or locking them, revokes their tokens once the cached entry
+ * expires, or immediately if it is invalidated.
+ */
+@Component
+public class SecurityVersionCache {
+
+    private static final int NO_VERSION = -1;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.security-version-ttl:30s}")
+    private Duration ttl;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private Clock clock = Clock.systemUTC();
+
+    public boolean isCurrent(Long userId, int securityVersion) {
+        long now = clock.millis();
+        Entry entry = entries.get(userId);
+
+        if (entry == null || entry.expiresAt <= now) {
+            int version = userRepository.findActiveSecurityVersionById(userId).orElse(NO_VERSION);
+            entry = new Entry(version, now + ttl.toMillis());
+            entries.put(userId, entry);
+        }
+
+        return entry.version == securityVersion;
+    }
+
+    public void invalidate(Long userId) {
+        entries.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.security-version-eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    int getCachedUsers() {
+        return entries.size();
+    }
+
+    private record Entry(int version, long expiresAt) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.wallet.security.jwt;
+
+import com.example.wallet.entity.RevokedToken;
+import com.example.wallet.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token ids, stored in {@code wallet_revoked_tokens} and mirrored on every node into a
+ * {@link BloomFilter} backed by an exact set. Checking a token which was not revoked is a single
+ * probe of the filter; only probes the filter cannot rule out look at the set. Rows revoked on
+ * other nodes are picked up by an incremental refresh, which re-reads a short overlap so rows
+ * committed late are not missed. Expired revocations are purged and the filter rebuilt
+ * periodically.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.revocation.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    @Value("${jwt.revocation.false-positive-probability:0.001}")
+    private double falsePositiveProbability;
+
+    @Value("${jwt.revocation.refresh-overlap:30s}")
+    private Duration refreshOverlap;
+
+    private final Map<String, LocalDateTime> revoked = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+    private LocalDateTime lastRefresh;
+    private Counter falsePositives;
+    private Clock clock = Clock.systemDefaultZone();
+
+    @PostConstruct
+    public void init() {
+        filter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        falsePositives = meterRegistry.counter("wallet.jwt.revocation.false.positives");
+        Gauge.builder("wallet.jwt.revoked.tokens", revoked, Map::size).register(meterRegistry);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+
+        if (revoked.containsKey(tokenId)) {
+            return true;
+        }
+
+        falsePositives.increment();
+        return false;
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (revoked.containsKey(tokenId)) {
+            return;
+        }
+
+        RevokedToken revokedToken = revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .expiresAt(LocalDateTime.ofInstant(expiresAt, clock.getZone()))
+                .revokedAt(LocalDateTime.now(clock))
+                .build());
+
+        add(revokedToken);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<RevokedToken> revokedTokens = revokedTokenRepository.findAllByExpiresAtAfter(now);
+
+        revokedTokens.forEach(this::add);
+        lastRefresh = now;
+
+        LOGGER.info("Token revocation list warmed up with {} tokens", revokedTokens.size());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (lastRefresh == null) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(lastRefresh.minus(refreshOverlap), now)
+                .forEach(this::add);
+
+        lastRefresh = now;
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        revokedTokenRepository.deleteExpired(now);
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        rebuild();
+    }
+
+    int getRevokedTokens() {
+        return revoked.size();
+    }
+
+    private synchronized void add(RevokedToken revokedToken) {
+        if (revoked.putIfAbsent(revokedToken.getTokenId(), revokedToken.getExpiresAt()) != null) {
+            return;
+        }
+
+        filter.put(revokedToken.getTokenId());
+
+        if (revoked.size() > filter.getCapacity()) {
+            rebuild();
+        }
+    }
+
+    private synchronized void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size() * 2), falsePositiveProbability);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.wallet.security.provider;
 
-import com.example.wallet.entity.User;
 import com.example.wallet.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -8,6 +7,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 public class JWTAuthenticationProvider implements AuthenticationProvider {
@@ -23,7 +23,7 @@ public class JWTAuthenticationProvider implements AuthenticationProvider {
         String email = authentication.getName();
         String rawPassword = authentication.getCredentials().toString();
 
-        User user = (User) userService.loadUserByUsername(email);
+        UserDetails user = userService.loadUserByUsername(email);
 
         if (!validatePassword(rawPassword, user.getPassword())) {
             throw new BadCredentialsException("Password does not match");
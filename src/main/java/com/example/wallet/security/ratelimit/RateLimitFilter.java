@@ -0,0 +1,86 @@
+package com.example.wallet.security.ratelimit;
+
+import com.example.wallet.dto.response.ErrorResponseMessage;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.security.jwt.JWTPrincipal;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejects requests with {@code 429 Too Many Requests} and a {@code Retry-After} header once the
+ * client's bucket on the matching route is empty. IP keyed routes are checked before the request
+ * is authenticated, user keyed routes after it.
+ * <p>
+ * The client IP is the remote address of the request, which {@code server.forward-headers-strategy}
+ * replaces with the address in {@code X-Forwarded-For} when the request comes through a trusted
+ * proxy, by default one on a private network ({@code server.tomcat.remoteip.internal-proxies}).
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties.KeyType keyType;
+    private final byte[] rejectedBody;
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties.KeyType keyType, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.rateLimiter = rateLimiter;
+        this.keyType = keyType;
+        this.rejectedBody = objectMapper.writeValueAsBytes(new ErrorResponseMessage(false, ErrorCode.RATE_LIMITED, "Too many requests, please try again later"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RateLimitProperties.Route route = rateLimiter.findRoute(keyType, request.getRequestURI().substring(request.getContextPath().length()));
+        String key = route == null ? null : resolveKey(request);
+
+        if (key == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterNanos = rateLimiter.tryAcquire(route, key);
+
+        if (retryAfterNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfterSeconds = Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(rejectedBody);
+    }
+
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return RateLimitFilter.class.getName() + "." + keyType + ALREADY_FILTERED_SUFFIX;
+    }
+
+    private String resolveKey(HttpServletRequest request) {
+        if (keyType == RateLimitProperties.KeyType.IP) {
+            return request.getRemoteAddr();
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication instanceof JWTPrincipal principal) {
+            return String.valueOf(principal.getUserId());
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.wallet.security.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+@ConfigurationProperties(prefix = "wallet.rate-limit")
+public record RateLimitProperties(List<Route> routes) {
+
+    public RateLimitProperties {
+        routes = routes == null ? List.of() : List.copyOf(routes);
+    }
+
+    public enum KeyType {
+        IP,
+        USER
+    }
+
+    /**
+     * Token bucket applied to every request matching the ant style {@code pattern}, keyed by the
+     * client IP or the authenticated user. The bucket holds up to {@code capacity} requests and
+     * refills at {@code refillPerSecond}. Invalid routes fail the binding on startup.
+     */
+    public record Route(String name, String pattern, KeyType key, int capacity, double refillPerSecond) {
+
+        public Route {
+            if (name == null || pattern == null || key == null) {
+                throw new IllegalArgumentException("Rate limit route needs a name, a pattern and a key");
+            }
+
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Rate limit route " + name + " needs a capacity above zero");
+            }
+
+            if (!(refillPerSecond > 0)) {
+                throw new IllegalArgumentException("Rate limit route " + name + " needs a refill per second above zero");
+            }
+        }
+    }
+}
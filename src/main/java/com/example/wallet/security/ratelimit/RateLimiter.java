@@ -0,0 +1,104 @@
+package com.example.wallet.security.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for the configured routes. Each bucket is a single {@link AtomicLong} holding the
+ * time at which it will be full again, which is advanced with a compare and set for every granted
+ * request, so no locks are taken. A bucket which is already full carries no state, so those are
+ * evicted periodically, which bounds memory by the number of recently active clients.
+ */
+@Component
+@ConditionalOnProperty(name = "wallet.rate-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimiter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new HashMap<>();
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Clock clock = Clock.systemUTC();
+
+    @PostConstruct
+    public void init() {
+        for (RateLimitProperties.Route route : properties.routes()) {
+            rejections.put(route.name(), Counter.builder("wallet.ratelimit.rejections")
+                    .tag("route", route.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Returns the first route of the given key type matching the path, or {@code null}.
+     */
+    public RateLimitProperties.Route findRoute(RateLimitProperties.KeyType keyType, String path) {
+        for (RateLimitProperties.Route route : properties.routes()) {
+            if (route.key() == keyType && pathMatcher.match(route.pattern(), path)) {
+                return route;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Takes one token from the bucket of the key on the route. Returns zero if the request is
+     * allowed, otherwise the number of nanoseconds until a token is available.
+     */
+    public long tryAcquire(RateLimitProperties.Route route, String key) {
+        long interval = (long) (1_000_000_000L / route.refillPerSecond());
+        long burst = interval * route.capacity();
+        long now = nanos();
+        AtomicLong bucket = buckets.computeIfAbsent(route.name() + ':' + key, ignored -> new AtomicLong(now));
+
+        while (true) {
+            long fullAt = bucket.get();
+            long next = Math.max(fullAt, now) + interval;
+
+            if (next - now > burst) {
+                rejections.get(route.name()).increment();
+                return next - now - burst;
+            }
+
+            if (bucket.compareAndSet(fullAt, next)) {
+                return 0;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long now = nanos();
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    int getTrackedKeys() {
+        return buckets.size();
+    }
+
+    private long nanos() {
+        Instant instant = clock.instant();
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
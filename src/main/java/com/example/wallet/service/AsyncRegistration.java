@@ -0,0 +1,148 @@
+package com.example.wallet.service;
+
+import com.example.wallet.dto.response.RegistrationStatusResponse;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Takes the password hashing and the inserts of a registration off the request threads. Accepted
+ * registrations run on a fixed number of threads behind a bounded queue, and are rejected with
+ * {@link ErrorCode#SERVICE_BUSY} once it is full. The outcome of each registration is kept in
+ * memory for {@code status-ttl}, under a random id which the client polls, so it can only be
+ * read from the node which accepted it.
+ */
+@Service
+@ConditionalOnProperty(name = "wallet.registration.async.enabled", havingValue = "true")
+public class AsyncRegistration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncRegistration.class);
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.registration.async.threads:2}")
+    private int threads;
+
+    @Value("${wallet.registration.async.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${wallet.registration.async.status-ttl:10m}")
+    private Duration statusTtl;
+
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+
+    private Clock clock = Clock.systemUTC();
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "registration-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("wallet.registration.queue.size", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queues the registration and returns its pending status.
+     */
+    public RegistrationStatusResponse submit(String firstName, String lastName, String email, String password) {
+        String id = UUID.randomUUID().toString();
+        Registration registration = new Registration(RegistrationStatusResponse.Status.PENDING, null, null, clock.instant());
+
+        registrations.put(id, registration);
+
+        try {
+            executor.execute(() -> register(id, firstName, lastName, email, password));
+        } catch (RejectedExecutionException e) {
+            registrations.remove(id);
+            throw new AppException(ErrorCode.SERVICE_BUSY, "Too many registrations in progress");
+        }
+
+        return registration.toResponse(id);
+    }
+
+    public RegistrationStatusResponse getStatus(String id) {
+        Registration registration = registrations.get(id);
+
+        if (registration == null) {
+            throw new AppException(ErrorCode.REGISTRATION_NOT_FOUND, "Registration Not Found");
+        }
+
+        return registration.toResponse(id);
+    }
+
+    @Scheduled(fixedDelayString = "${wallet.registration.async.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        Instant expiredBefore = clock.instant().minus(statusTtl);
+        registrations.values().removeIf(registration -> registration.updatedAt().isBefore(expiredBefore));
+    }
+
+    int getTrackedRegistrations() {
+        return registrations.size();
+    }
+
+    private void register(String id, String firstName, String lastName, String email, String password) {
+        Registration registration;
+
+        try {
+            authService.registerUser(firstName, lastName, email, password);
+            registration = new Registration(RegistrationStatusResponse.Status.COMPLETED, null, null, clock.instant());
+        } catch (AppException e) {
+            registration = new Registration(RegistrationStatusResponse.Status.FAILED, e.getCode(), e.getMessage(), clock.instant());
+        } catch (RuntimeException e) {
+            LOGGER.error("Registration {} failed", id, e);
+            registration = new Registration(RegistrationStatusResponse.Status.FAILED, ErrorCode.UNCATEGORIZED, "Registration failed", clock.instant());
+        }
+
+        registrations.put(id, registration);
+    }
+
+    private record Registration(RegistrationStatusResponse.Status status, ErrorCode code, String message, Instant updatedAt) {
+
+        RegistrationStatusResponse toResponse(String id) {
+            return new RegistrationStatusResponse(id, status, code, message);
+        }
+    }
+}
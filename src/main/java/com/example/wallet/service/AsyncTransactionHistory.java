@@ -0,0 +1,193 @@
+package com.example.wallet.service;
+
+import com.example.wallet.dto.response.WalletHistoryBalance;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.repository.HistoryOutboxRepository;
+import com.example.wallet.repository.HistoryOutboxRepository.OutboxEntry;
+import com.example.wallet.repository.TransactionBulkRepository;
+import com.example.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Takes the deposit history rows off the request path. The deposit is written to the
+ * {@code wallet_history_outbox} in the same transaction as the balance change, so a committed
+ * deposit always has its row, and a background writer moves the outbox rows into
+ * {@code wallet_transactions} in batches together with their daily aggregates, deleting them in the
+ * same transaction. Every node drains the shared outbox, each claiming rows the others do not hold.
+ * <p>
+ * The periodic reconciliation compares each wallet balance with the balance implied by its
+ * aggregates once the outbox is empty, and a drift seen twice is reported through the
+ * {@code wallet.history.drifted.wallets} gauge, since it means a balance change bypassed the history.
+ */
+@Service
+@ConditionalOnProperty(name = "wallet.history.async.enabled", havingValue = "true")
+public class AsyncTransactionHistory {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncTransactionHistory.class);
+
+    private static final double DRIFT_TOLERANCE = 1e-6;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private HistoryOutboxRepository historyOutboxRepository;
+
+    @Autowired
+    private TransactionBulkRepository transactionBulkRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${wallet.history.async.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${wallet.history.async.poll-interval-ms:100}")
+    private long pollIntervalMs;
+
+    @Value("${wallet.history.async.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    private final Map<Long, Double> previousDrifts = new HashMap<>();
+    private final AtomicInteger driftedWallets = new AtomicInteger();
+
+    private Counter writeFailures;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        writeFailures = Counter.builder("wallet.history.write.failures").register(meterRegistry);
+        Gauge.builder("wallet.history.drifted.wallets", driftedWallets, AtomicInteger::get).register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::run, "transaction-history-writer");
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join();
+    }
+
+    /**
+     * Queues the deposit history row. Must be called inside the transaction that changes the
+     * balance, so the row commits or rolls back with it.
+     */
+    public void recordDeposit(Transaction transaction) {
+        if (!transaction.isValidDepositTransaction()) {
+            throw new AppException(ErrorCode.INVALID_TRANSACTION, "Transaction is not valid deposit transaction");
+        }
+
+        historyOutboxRepository.insert(transaction);
+    }
+
+    /**
+     * Reports wallets whose balance disagrees with their history. Only runs while the outbox is
+     * empty, so rows still in flight are never mistaken for drift.
+     */
+    @Scheduled(cron = "${wallet.history.async.reconcile-cron:0 */15 * * * *}")
+    public void reconcile() {
+        if (!historyOutboxRepository.isEmpty()) {
+            previousDrifts.clear();
+            return;
+        }
+
+        Map<Long, Double> drifts = new HashMap<>();
+        int drifted = 0;
+
+        for (WalletHistoryBalance wallet : walletRepository.findWalletHistoryBalances()) {
+            double drift = wallet.balance() - wallet.historyBalance();
+
+            if (Math.abs(drift) <= DRIFT_TOLERANCE) {
+                continue;
+            }
+
+            drifts.put(wallet.walletId(), drift);
+            Double previousDrift = previousDrifts.get(wallet.walletId());
+
+            if (previousDrift != null && Math.abs(previousDrift - drift) <= DRIFT_TOLERANCE) {
+                LOGGER.error("Wallet {} balance differs from its history by {}", wallet.walletId(), drift);
+                drifted++;
+            }
+        }
+
+        driftedWallets.set(drifted);
+        previousDrifts.clear();
+        previousDrifts.putAll(drifts);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                if (writeBatch() < batchSize) {
+                    Thread.sleep(pollIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not write transaction history rows, retrying", e);
+                writeFailures.increment();
+
+                try {
+                    Thread.sleep(retryDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the oldest outbox rows into the history and returns how many were moved.
+     */
+    int writeBatch() {
+        Integer written = transactionTemplate.execute(status -> {
+            List<OutboxEntry> entries = historyOutboxRepository.claim(batchSize);
+
+            if (entries.isEmpty()) {
+                return 0;
+            }
+
+            List<Transaction> transactions = entries.stream().map(OutboxEntry::transaction).toList();
+
+            transactionBulkRepository.insertAll(transactions);
+            transactionService.recordDailyAggregates(transactions);
+            historyOutboxRepository.deleteAll(entries);
+
+            return entries.size();
+        });
+
+        return written == null ? 0 : written;
+    }
+}
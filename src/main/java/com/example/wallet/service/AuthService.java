@@ -1,22 +1,31 @@
 package com.example.wallet.service;
 
+import com.example.wallet.dto.response.AuthTokens;
 import com.example.wallet.entity.User;
 import com.example.wallet.entity.Wallet;
 import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
 import com.example.wallet.repository.UserRepository;
+import com.example.wallet.security.jwt.JWTPrincipal;
 import com.example.wallet.security.jwt.JWTUtils;
+import com.example.wallet.security.jwt.SecurityVersionCache;
+import com.example.wallet.security.jwt.TokenRevocationList;
 import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+
 @Service
 public class AuthService {
 
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "email_unique";
+
     @Autowired
     private UserRepository userRepository;
 
@@ -29,36 +38,99 @@ public class AuthService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
-    public User registerUser(String firstName, String lastName, String email, String password) {
-        if (userRepository.findByEmail(email).isPresent()) {
-            throw new AppException(HttpStatus.CONFLICT, "User Already Exists");
-        }
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private SecurityVersionCache securityVersionCache;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    /**
+     * Relies on the {@code email_unique} constraint to reject an existing email rather than
+     * querying for it first, as almost every registration is for a new email.
+     */
+    public User registerUser(String firstName, String lastName, String email, String password) {
         User user = User.builder()
                 .firstName(firstName)
                 .lastName(lastName)
                 .email(email)
                 .password(passwordEncoder.encode(password))
-                .wallet(new Wallet())
+                .wallet(Wallet.builder().amount(0.0).build())
                 .locked(false)
                 .enabled(true)
                 .build();
 
-        return userRepository.save(user);
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isViolationOf(e, EMAIL_UNIQUE_CONSTRAINT)) {
+                throw new AppException(ErrorCode.USER_ALREADY_EXISTS, "User Already Exists");
+            }
+
+            throw e;
+        }
     }
 
-    public String loginUser(String email, String password, HttpServletRequest request) {
-        if (userRepository.findByEmail(email).isEmpty()) {
-            throw new AppException(HttpStatus.NOT_FOUND, "User does not have an account");
+    public AuthTokens loginUser(String email, String password, HttpServletRequest request) {
+        if (!userRepository.existsByEmail(email)) {
+            throw new AppException(ErrorCode.USER_NOT_FOUND, "User does not have an account");
         }
 
         String jwtToken = jwtUtils.parseJwtToken(request);
 
         if (jwtToken != null && jwtUtils.validateJwtToken(jwtToken) != null) {
-            throw new AppException(HttpStatus.FORBIDDEN, "User already logged in");
+            throw new AppException(ErrorCode.ALREADY_LOGGED_IN, "User already logged in");
+        }
+
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_FOUND, "User does not have an account"));
+
+        return new AuthTokens(jwtUtils.generateJwtToken(user), refreshTokenService.issue(user.getId()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token, without checking the
+     * password again.
+     */
+    public AuthTokens refreshTokens(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+
+        User user = userRepository.findById(rotation.userId())
+                .filter(User::isEnabled)
+                .filter(User::isAccountNonLocked)
+                .orElseThrow(() -> new AppException(ErrorCode.INVALID_REFRESH_TOKEN, "Invalid refresh token"));
+
+        return new AuthTokens(jwtUtils.generateJwtToken(user), rotation.refreshToken());
+    }
+
+    /**
+     * Revokes the token of the request, and the family of the refresh token if one is given.
+     */
+    public void logoutUser(JWTPrincipal principal, String refreshToken) {
+        tokenRevocationList.revoke(principal.getTokenId(), principal.getExpiresAt());
+
+        if (refreshToken != null) {
+            refreshTokenService.revoke(refreshToken);
         }
+    }
+
+    /**
+     * Revokes every token issued to the user by raising its security version, along with all of
+     * its refresh tokens. Other nodes reject the tokens once their cached version expires.
+     */
+    public void logoutUserEverywhere(JWTPrincipal principal) {
+        userRepository.incrementSecurityVersion(principal.getUserId());
+        refreshTokenService.revokeAll(principal.getUserId());
+        securityVersionCache.invalidate(principal.getUserId());
+    }
 
-        Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(email, password));
-        return jwtUtils.generateJwtToken(authentication);
+    private static boolean isViolationOf(DataIntegrityViolationException exception, String constraint) {
+        return exception.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint);
     }
 }
@@ -0,0 +1,131 @@
+package com.example.wallet.service;
+
+import com.example.wallet.entity.RefreshToken;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Tokens are 256 random bits, so they are stored as a
+ * plain SHA-256 hash and checking one costs a single hash instead of a password check.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final Logger LOGGER = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.refresh.expiration:30d}")
+    private Duration expiration;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * Starts a new token family for the user and returns its first token.
+     */
+    public String issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Uses up the refresh token and returns a new one of the same family. A token which was
+     * already used means it leaked, so the whole family is revoked and the user has to log in
+     * again.
+     */
+    @Transactional(dontRollbackOn = AppException.class)
+    public Rotation rotate(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHashForUpdate(hash(token))
+                .orElseThrow(() -> new AppException(ErrorCode.INVALID_REFRESH_TOKEN, "Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        if (refreshToken.isUsed()) {
+            refreshTokenRepository.deleteFamily(refreshToken.getFamilyId());
+            meterRegistry.counter("wallet.auth.refresh.reuse").increment();
+            LOGGER.warn("Refresh token reused for user {}, revoked its token family", refreshToken.getUserId());
+            throw new AppException(ErrorCode.INVALID_REFRESH_TOKEN, "Invalid refresh token");
+        }
+
+        if (!refreshToken.getExpiresAt().isAfter(now)) {
+            throw new AppException(ErrorCode.INVALID_REFRESH_TOKEN, "Refresh token expired");
+        }
+
+        refreshToken.setUsedAt(now);
+        refreshTokenRepository.save(refreshToken);
+
+        return new Rotation(refreshToken.getUserId(), issue(refreshToken.getUserId(), refreshToken.getFamilyId()));
+    }
+
+    /**
+     * Revokes the family of the token, if the token exists.
+     */
+    @Transactional
+    public void revoke(String token) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(token))
+                .ifPresent(refreshToken -> refreshTokenRepository.deleteFamily(refreshToken.getFamilyId()));
+    }
+
+    public void revokeAll(Long userId) {
+        refreshTokenRepository.deleteAllByUser(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpired(LocalDateTime.now(clock));
+    }
+
+    private String issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .userId(userId)
+                .familyId(familyId)
+                .tokenHash(hash(token))
+                .createdAt(now)
+                .expiresAt(now.plus(expiration))
+                .build());
+
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
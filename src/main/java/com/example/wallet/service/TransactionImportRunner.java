@@ -0,0 +1,48 @@
+package com.example.wallet.service;
+
+import com.example.wallet.dto.response.TransactionImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+
+/**
+ * Imports the files listed in {@code wallet.import.files} on startup, e.g.
+ * {@code java -jar wallet.jar --wallet.import.files=legacy-2021.csv.gz,legacy-2022.ndjson}.
+ * Files already imported are skipped, so the property can stay set across restarts.
+ */
+@Component
+@ConditionalOnExpression("!'${wallet.import.files:}'.isBlank()")
+public class TransactionImportRunner implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionImportRunner.class);
+
+    @Autowired
+    private TransactionImportService transactionImportService;
+
+    @Value("${wallet.import.files}")
+    private String[] files;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        for (String file : files) {
+            TransactionImportReport report = transactionImportService.importTransactions(Paths.get(file.trim()));
+
+            LOGGER.info("Imported {} of {} rows from {} in {} ms ({} rows/sec), skipped {} already imported, rejected {}, updated {} wallet balances",
+                    report.rowsImported(), report.rowsRead(), report.file(), report.elapsedMillis(),
+                    String.format("%.0f", report.rowsPerSecond()), report.rowsSkipped(), report.rowsRejected(), report.walletsUpdated());
+
+            report.errors().forEach(error -> LOGGER.warn("Rejected row in {}: {}", report.file(), error));
+
+            if (!report.unknownWalletIds().isEmpty()) {
+                LOGGER.warn("Rejected rows of unknown wallets in {}: {}", report.file(), report.unknownWalletIds());
+            }
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.example.wallet.service;
+
+import com.example.wallet.dto.response.TransactionImportReport;
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.ImportedFile;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.ledger.LedgerEngine;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.repository.ImportedFileRepository;
+import com.example.wallet.repository.TransactionBulkRepository;
+import com.example.wallet.repository.WalletRepository;
+import com.example.wallet.repository.WalletStripeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports historical transactions from CSV or NDJSON files, optionally gzip compressed. Rows are
+ * validated with the same rules as new transactions and bulk inserted in batches. Each batch adds
+ * its daily aggregates, applies its net amounts to the wallet balances and advances the progress of
+ * the file, identified by its checksum, in one transaction. Importing the same file again resumes
+ * after the last committed row, or does nothing once the file was fully imported. Wallets held by
+ * the {@link LedgerEngine} are invalidated so it picks up the imported amounts.
+ * <p>
+ * Rows of wallets which do not exist are rejected and the unknown wallet ids are reported. The
+ * partition of every imported month is created before its first batch, so legacy rows never land
+ * in the default partition.
+ */
+@Service
+public class TransactionImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    @Autowired
+    private TransactionBulkRepository transactionBulkRepository;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletStripeRepository walletStripeRepository;
+
+    @Autowired
+    private ImportedFileRepository importedFileRepository;
+
+    @Autowired
+    private ConversionRates conversionRates;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionPartitionService transactionPartitionService;
+
+    @Autowired(required = false)
+    private LedgerEngine ledgerEngine;
+
+    @Value("${wallet.import.batch-size:10000}")
+    private int batchSize;
+
+    public TransactionImportReport importTransactions(Path file) throws IOException {
+        long start = System.nanoTime();
+        long rowsRead = 0;
+        long rowsImported = 0;
+        long rowsSkipped = 0;
+        List<String> errors = new ArrayList<>();
+        Set<Long> walletIds = new HashSet<>();
+        Set<Long> unknownWalletIds = new TreeSet<>();
+        Set<YearMonth> months = new HashSet<>();
+        List<Transaction> batch = new ArrayList<>(batchSize);
+
+        String name = file.getFileName().toString();
+        String checksum = checksum(file);
+        ImportedFile importedFile = importedFileRepository.findById(checksum)
+                .orElseGet(() -> ImportedFile.builder().checksum(checksum).fileName(name).build());
+
+        if (importedFile.isCompleted()) {
+            return new TransactionImportReport(file.toString(), 0, 0, 0, importedFile.getRowsImported(), 0, 0, List.of(), Set.of());
+        }
+
+        long committedRows = importedFile.getRowsImported();
+
+        boolean compressed = name.endsWith(".gz");
+        boolean ndjson = name.matches(".*\\.(ndjson|jsonl)(\\.gz)?$");
+
+        try (BufferedReader reader = open(file, compressed)) {
+            Map<String, Integer> columns = ndjson ? Map.of() : readHeader(reader.readLine());
+            long lineNumber = ndjson ? 0 : 1;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                rowsRead++;
+
+                try {
+                    Transaction transaction = ndjson ? objectMapper.readValue(line, Transaction.class) : fromCsv(line, columns);
+                    validate(transaction);
+
+                    if (rowsSkipped < committedRows) {
+                        rowsSkipped++;
+                        continue;
+                    }
+
+                    batch.add(transaction);
+                } catch (IOException | RuntimeException e) {
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("line " + lineNumber + ": " + e.getMessage());
+                    }
+                }
+
+                if (batch.size() >= batchSize) {
+                    rowsImported += insert(batch, importedFile, walletIds, unknownWalletIds, months);
+                }
+            }
+        }
+
+        importedFile.setCompleted(true);
+        rowsImported += insert(batch, importedFile, walletIds, unknownWalletIds, months);
+
+        long rowsRejected = rowsRead - rowsSkipped - rowsImported;
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        return new TransactionImportReport(file.toString(), rowsRead, rowsImported, rowsRejected, rowsSkipped, walletIds.size(), elapsedMillis, errors, unknownWalletIds);
+    }
+
+    private String checksum(Path file) throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BufferedReader open(Path file, boolean compressed) throws IOException {
+        InputStream input = Files.newInputStream(file);
+        return new BufferedReader(new InputStreamReader(compressed ? new GZIPInputStream(input) : input, StandardCharsets.UTF_8));
+    }
+
+    private Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            return Map.of();
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        String[] names = header.split(",");
+
+        for (int i = 0; i < names.length; i++) {
+            columns.put(names[i].trim(), i);
+        }
+
+        return columns;
+    }
+
+    private Transaction fromCsv(String line, Map<String, Integer> columns) {
+        String[] values = line.split(",", -1);
+
+        return Transaction.builder()
+                .fromWalletId(Long.valueOf(column(values, columns, "from_wallet_id")))
+                .fromWalletAmount(Double.valueOf(column(values, columns, "from_wallet_amount")))
+                .fromWalletCurrency(Currency.valueOf(column(values, columns, "from_wallet_currency")))
+                .toWalletId(Long.valueOf(column(values, columns, "to_wallet_id")))
+                .toWalletAmount(Double.valueOf(column(values, columns, "to_wallet_amount")))
+                .toWalletCurrency(Currency.valueOf(column(values, columns, "to_wallet_currency")))
+                .rateVersion(columns.containsKey("rate_version") && !column(values, columns, "rate_version").isEmpty()
+                        ? Long.valueOf(column(values, columns, "rate_version"))
+                        : null)
+                .transactionType(TransactionType.valueOf(column(values, columns, "transaction_type")))
+                .createdAt(LocalDateTime.parse(column(values, columns, "created_at")))
+                .build();
+    }
+
+    private String column(String[] values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+
+        if (index == null || index >= values.length) {
+            throw new IllegalArgumentException("missing column " + name);
+        }
+
+        return values[index].trim();
+    }
+
+    private void validate(Transaction transaction) {
+        if (transaction.getTransactionType() == null) {
+            throw new IllegalArgumentException("missing transaction type");
+        }
+
+        boolean valid = switch (transaction.getTransactionType()) {
+            case DEPOSIT -> transaction.isValidDepositTransaction();
+            case WITHDRAW -> transaction.isValidWithdrawTransaction();
+            case TRANSFER -> conversionRates.getRateSet(transaction.getRateVersion())
+                    .map(transaction::isValidTransferTransaction)
+                    .orElse(false);
+        };
+
+        if (!valid) {
+            throw new IllegalArgumentException("not a valid " + transaction.getTransactionType().name().toLowerCase() + " transaction");
+        }
+    }
+
+    /**
+     * Inserts the batch and returns the number of rows imported. Rows touching a wallet which does
+     * not exist are dropped, but still count towards the progress of the file so a resumed import
+     * does not read them again.
+     */
+    private int insert(List<Transaction> batch, ImportedFile importedFile, Set<Long> walletIds, Set<Long> unknownWalletIds, Set<YearMonth> months) {
+        for (Transaction transaction : batch) {
+            YearMonth month = YearMonth.from(transaction.getCreatedAt());
+
+            if (months.add(month)) {
+                transactionPartitionService.ensurePartition(month);
+            }
+        }
+
+        int rows = batch.size();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!batch.isEmpty()) {
+                dropUnknownWallets(batch, unknownWalletIds);
+            }
+
+            if (!batch.isEmpty()) {
+                transactionBulkRepository.insertAll(batch);
+                transactionService.recordDailyAggregates(batch);
+                applyBalances(batch, walletIds);
+            }
+
+            importedFile.setRowsImported(importedFile.getRowsImported() + rows);
+            importedFile.setUpdatedAt(LocalDateTime.now());
+            importedFileRepository.save(importedFile);
+        });
+
+        if (ledgerEngine != null) {
+            for (Transaction transaction : batch) {
+                ledgerEngine.invalidate(transaction.getFromWalletId());
+                ledgerEngine.invalidate(transaction.getToWalletId());
+            }
+        }
+
+        int inserted = batch.size();
+        batch.clear();
+
+        return inserted;
+    }
+
+    private void dropUnknownWallets(List<Transaction> batch, Set<Long> unknownWalletIds) {
+        Set<Long> batchWalletIds = new HashSet<>();
+
+        for (Transaction transaction : batch) {
+            batchWalletIds.add(transaction.getFromWalletId());
+            batchWalletIds.add(transaction.getToWalletId());
+        }
+
+        batchWalletIds.removeAll(walletRepository.findExistingIds(batchWalletIds));
+
+        if (batchWalletIds.isEmpty()) {
+            return;
+        }
+
+        unknownWalletIds.addAll(batchWalletIds);
+        batch.removeIf(transaction -> batchWalletIds.contains(transaction.getFromWalletId()) || batchWalletIds.contains(transaction.getToWalletId()));
+    }
+
+    /**
+     * Adds the net amount of the batch to each wallet it touches, in wallet id order like every
+     * other multi-wallet update. Striped wallets take the amount on their first stripe.
+     */
+    private void applyBalances(List<Transaction> batch, Set<Long> walletIds) {
+        Map<Long, Double> deltas = new TreeMap<>();
+
+        for (Transaction transaction : batch) {
+            if (transaction.getTransactionType() != TransactionType.DEPOSIT) {
+                deltas.merge(transaction.getFromWalletId(), -transaction.getFromWalletAmount(), Double::sum);
+            }
+
+            if (transaction.getTransactionType() != TransactionType.WITHDRAW) {
+                deltas.merge(transaction.getToWalletId(), transaction.getToWalletAmount(), Double::sum);
+            }
+        }
+
+        deltas.forEach((walletId, delta) -> {
+            if (walletRepository.addAmount(walletId, delta) > 0 || walletStripeRepository.credit(walletId, 0, delta) > 0) {
+                walletIds.add(walletId);
+            }
+        });
+    }
+}
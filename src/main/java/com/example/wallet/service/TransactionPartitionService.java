@@ -0,0 +1,247 @@
+package com.example.wallet.service;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.repository.TransactionArchiveRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Maintains the monthly range partitions of {@code wallet_transactions} on PostgreSQL.
+ * Partitions are always created ahead of time, on startup and on schedule. When archiving is
+ * enabled, partitions older than the retention period are written to the
+ * {@link TransactionArchiveRepository} before being detached and dropped.
+ * <p>
+ * Rows written while no monthly partition covered them sit in the default partition, and are
+ * moved into the monthly partition when it is created. Maintenance creates the partition of every
+ * month found in the default partition, so past months, such as imported ones, are archived too.
+ */
+@Service
+public class TransactionPartitionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TransactionPartitionService.class);
+
+    private static final String TABLE_NAME = "wallet_transactions";
+    private static final String DEFAULT_PARTITION = TABLE_NAME + "_default";
+    private static final DateTimeFormatter PARTITION_SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final RowMapper<Transaction> TRANSACTION_ROW_MAPPER = (resultSet, rowNum) -> Transaction.builder()
+            .id(resultSet.getLong("id"))
+            .fromWalletId(resultSet.getLong("from_wallet_id"))
+            .fromWalletAmount(resultSet.getDouble("from_wallet_amount"))
+            .fromWalletCurrency(Currency.values()[resultSet.getInt("from_wallet_currency")])
+            .toWalletId(resultSet.getLong("to_wallet_id"))
+            .toWalletAmount(resultSet.getDouble("to_wallet_amount"))
+            .toWalletCurrency(Currency.values()[resultSet.getInt("to_wallet_currency")])
+            .transactionType(TransactionType.valueOf(resultSet.getString("transaction_type")))
+            .createdAt(resultSet.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Value("${wallet.transactions.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${wallet.transactions.partitioning.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${wallet.transactions.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${wallet.transactions.archive.fetch-size:1000}")
+    private int fetchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${wallet.transactions.partitioning.cron:0 0 2 * * *}")
+    public void maintainPartitions() {
+        if (!isPartitioned()) {
+            LOGGER.debug("Table {} is not partitioned, skipping partition maintenance", TABLE_NAME);
+            return;
+        }
+
+        YearMonth currentMonth = YearMonth.now();
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(currentMonth.plusMonths(i));
+        }
+
+        for (YearMonth month : findDefaultPartitionMonths()) {
+            createPartition(month);
+        }
+
+        if (!archiveEnabled) {
+            return;
+        }
+
+        YearMonth oldestLiveMonth = currentMonth.minusMonths(retentionMonths);
+
+        for (String partition : findPartitions()) {
+            YearMonth month = partitionMonth(partition);
+
+            if (month != null && month.isBefore(oldestLiveMonth)) {
+                archivePartition(partition, month);
+            }
+        }
+
+        try {
+            transactionArchiveRepository.refresh();
+        } catch (IOException e) {
+            LOGGER.warn("Could not list the transaction archive", e);
+        }
+    }
+
+    /**
+     * Creates the partition of the month if the table is partitioned and it does not exist yet.
+     */
+    public void ensurePartition(YearMonth month) {
+        if (isPartitioned()) {
+            createPartition(month);
+        }
+    }
+
+    public static String partitionName(YearMonth month) {
+        return TABLE_NAME + "_" + month.format(PARTITION_SUFFIX_FORMAT);
+    }
+
+    static YearMonth partitionMonth(String partition) {
+        if (!partition.startsWith(TABLE_NAME + "_")) {
+            return null;
+        }
+
+        try {
+            return YearMonth.parse(partition.substring(TABLE_NAME.length() + 1), PARTITION_SUFFIX_FORMAT);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private boolean isPartitioned() {
+        String databaseName = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+
+        if (!"PostgreSQL".equals(databaseName)) {
+            return false;
+        }
+
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid WHERE c.relname = ?",
+                Integer.class,
+                TABLE_NAME
+        );
+
+        return count != null && count > 0;
+    }
+
+    /**
+     * Creates the partition of the month. A partition can not be created while the default
+     * partition holds rows of its range, so those are moved over with the default partition
+     * detached, which blocks writes to the table until the transaction commits.
+     */
+    private void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        String range = "created_at >= '" + month.atDay(1) + "' AND created_at < '" + month.plusMonths(1).atDay(1) + "'";
+        String create = "CREATE TABLE " + partition + " PARTITION OF " + TABLE_NAME +
+                " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition)) {
+                return;
+            }
+
+            if (!jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION + " WHERE " + range + ")", Boolean.class)) {
+                jdbcTemplate.execute(create);
+                return;
+            }
+
+            jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " DETACH PARTITION " + DEFAULT_PARTITION);
+            jdbcTemplate.execute(create);
+            int moved = jdbcTemplate.update("INSERT INTO " + TABLE_NAME + " SELECT * FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " ATTACH PARTITION " + DEFAULT_PARTITION + " DEFAULT");
+
+            LOGGER.info("Moved {} transactions from the default partition into {}", moved, partition);
+        });
+    }
+
+    private List<YearMonth> findDefaultPartitionMonths() {
+        return jdbcTemplate.queryForList("SELECT DISTINCT to_char(created_at, 'YYYY_MM') FROM " + DEFAULT_PARTITION, String.class).stream()
+                .map(month -> YearMonth.parse(month, PARTITION_SUFFIX_FORMAT))
+                .toList();
+    }
+
+    private List<String> findPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid " +
+                        "JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = ?",
+                String.class,
+                TABLE_NAME
+        );
+    }
+
+    /**
+     * Streams the partition into the archive with a cursor of {@code fetch-size} rows, so a month is
+     * never held in memory, then detaches and drops it. Rows are read once per wallet they belong
+     * to, in wallet order, as the archive indexes them by wallet.
+     */
+    private void archivePartition(String partition, YearMonth month) {
+        long archived;
+
+        try (TransactionArchiveRepository.ArchiveWriter writer = transactionArchiveRepository.openWriter(month)) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "SELECT * FROM (" +
+                                "SELECT from_wallet_id AS wallet_id, t.* FROM " + partition + " t " +
+                                "UNION ALL " +
+                                "SELECT to_wallet_id AS wallet_id, t.* FROM " + partition + " t WHERE to_wallet_id <> from_wallet_id" +
+                                ") entries ORDER BY wallet_id, id");
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (RowCallbackHandler) resultSet -> {
+                try {
+                    writer.append(resultSet.getLong("wallet_id"), TRANSACTION_ROW_MAPPER.mapRow(resultSet, resultSet.getRow()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+
+            archived = writer.commit();
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.error("Could not archive partition {}, keeping it attached", partition, e);
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("ALTER TABLE " + TABLE_NAME + " DETACH PARTITION " + partition);
+            jdbcTemplate.execute("DROP TABLE " + partition);
+        });
+
+        LOGGER.info("Archived {} wallet entries from partition {}", archived, partition);
+    }
+}
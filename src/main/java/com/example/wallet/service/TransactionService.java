@@ -1,54 +1,254 @@
 package com.example.wallet.service;
 
+import com.example.wallet.dto.response.TransactionResponse;
+import com.example.wallet.dto.response.TransactionSummaryResponse;
+import com.example.wallet.entity.DailyWalletAggregate;
 import com.example.wallet.entity.Transaction;
-import com.example.wallet.entity.User;
+import com.example.wallet.entity.TransactionType;
 import com.example.wallet.entity.Wallet;
 import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.rates.RateSet;
+import com.example.wallet.repository.DailyWalletAggregateRepository;
+import com.example.wallet.repository.TransactionArchiveRepository;
 import com.example.wallet.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class TransactionService {
 
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Autowired
+    private DailyWalletAggregateRepository dailyWalletAggregateRepository;
+
+    @Autowired
+    private ConversionRates conversionRates;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean postgres;
+
+    @PostConstruct
+    public void init() {
+        postgres = "PostgreSQL".equals(jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
     public void createTransferTransaction(Transaction transaction) {
-        if (!transaction.isValidTransferTransaction()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Transaction is not valid transfer transaction");
+        RateSet rates = conversionRates.getRateSet(transaction.getRateVersion())
+                .orElseThrow(() -> new AppException(ErrorCode.UNKNOWN_RATE_VERSION, "Unknown conversion rate version"));
+
+        if (!transaction.isValidTransferTransaction(rates)) {
+            throw new AppException(ErrorCode.INVALID_TRANSACTION, "Transaction is not valid transfer transaction");
         }
 
         transactionRepository.save(transaction);
+        recordDailyAggregates(transaction);
     }
 
     public void createDepositTransaction(Transaction transaction) {
         if (!transaction.isValidDepositTransaction()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Transaction is not valid deposit transaction");
+            throw new AppException(ErrorCode.INVALID_TRANSACTION, "Transaction is not valid deposit transaction");
         }
 
         transactionRepository.save(transaction);
+        recordDailyAggregates(transaction);
     }
 
     public void createWithdrawTransaction(Transaction transaction) {
         if (!transaction.isValidWithdrawTransaction()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Transaction is not valid withdraw transaction");
+            throw new AppException(ErrorCode.INVALID_TRANSACTION, "Transaction is not valid withdraw transaction");
         }
 
         transactionRepository.save(transaction);
+        recordDailyAggregates(transaction);
     }
 
-    public List<Transaction> getAllTransactions(User user) {
-        Wallet wallet = user.getWallet();
+    /**
+     * Returns the whole history of the wallet, the archived months followed by the live rows.
+     */
+    public List<TransactionResponse> getAllTransactions(Wallet wallet) {
+        if (!wallet.isActivated()) {
+            throw new AppException(ErrorCode.WALLET_NOT_ACTIVATED, "User's wallet is not activated yet");
+        }
+
+        Optional<LocalDateTime> liveFrom = getLiveTransactionsStart();
 
+        if (liveFrom.isEmpty()) {
+            return transactionRepository.findTransactionResponsesByWalletId(wallet.getId());
+        }
+
+        List<TransactionResponse> transactions = new ArrayList<>();
+
+        try {
+            transactionArchiveRepository.findByWalletId(wallet.getId(), getHistoryStart(), liveFrom.get())
+                    .forEach(transaction -> transactions.add(TransactionResponse.from(transaction)));
+        } catch (IOException e) {
+            throw new AppException(ErrorCode.ARCHIVE_UNAVAILABLE, "Could not read archived transactions");
+        }
+
+        transactionRepository.findTransactionResponsesByWalletId(wallet.getId()).stream()
+                .filter(transaction -> !transaction.createdAt().isBefore(liveFrom.get()))
+                .forEach(transactions::add);
+
+        return transactions;
+    }
+
+    /**
+     * Returns the transactions in {@code [from, to)}, reading archived months from the archive.
+     * Without {@code from} the range starts at the beginning of the wallet's history.
+     */
+    public List<TransactionResponse> getTransactions(Wallet wallet, LocalDateTime from, LocalDateTime to) {
         if (!wallet.isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "User's wallet is not activated yet");
+            throw new AppException(ErrorCode.WALLET_NOT_ACTIVATED, "User's wallet is not activated yet");
+        }
+
+        LocalDateTime start = from == null ? getHistoryStart() : from;
+
+        if (to == null || !start.isBefore(to)) {
+            throw new AppException(ErrorCode.INVALID_DATE_RANGE, "Invalid transactions date range");
+        }
+
+        LocalDateTime liveFrom = getLiveTransactionsStart()
+                .filter(start::isBefore)
+                .orElse(start);
+
+        List<TransactionResponse> transactions = new ArrayList<>();
+
+        if (start.isBefore(liveFrom)) {
+            try {
+                transactionArchiveRepository.findByWalletId(wallet.getId(), start, liveFrom.isBefore(to) ? liveFrom : to)
+                        .forEach(transaction -> transactions.add(TransactionResponse.from(transaction)));
+            } catch (IOException e) {
+                throw new AppException(ErrorCode.ARCHIVE_UNAVAILABLE, "Could not read archived transactions");
+            }
         }
 
-        return transactionRepository.getTransactionsByWalletId(wallet.getId());
+        if (liveFrom.isBefore(to)) {
+            transactions.addAll(transactionRepository.findTransactionResponsesByWalletIdBetween(wallet.getId(), liveFrom, to));
+        }
+
+        return transactions;
+    }
+
+    public TransactionSummaryResponse getTransactionSummary(Wallet wallet, LocalDate from, LocalDate to) {
+        if (!wallet.isActivated()) {
+            throw new AppException(ErrorCode.WALLET_NOT_ACTIVATED, "User's wallet is not activated yet");
+        }
+
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new AppException(ErrorCode.INVALID_DATE_RANGE, "Invalid transactions date range");
+        }
+
+        return new TransactionSummaryResponse(from, to, dailyWalletAggregateRepository.summarize(wallet.getId(), from, to));
+    }
+
+    /**
+     * Adds the transactions to the daily aggregates, issuing one upsert per wallet, day and type,
+     * so concurrent first transactions of a day never race on creating the aggregate.
+     */
+    public void recordDailyAggregates(List<Transaction> transactions) {
+        Map<AggregateKey, DailyWalletAggregate> aggregates = new LinkedHashMap<>();
+
+        for (Transaction transaction : transactions) {
+            LocalDate date = transaction.getCreatedAt().toLocalDate();
+            TransactionType type = transaction.getTransactionType();
+
+            switch (type) {
+                case DEPOSIT -> addToAggregate(aggregates, transaction.getToWalletId(), date, type, 1, transaction.getToWalletAmount(), 0, 0);
+                case WITHDRAW -> addToAggregate(aggregates, transaction.getFromWalletId(), date, type, 0, 0, 1, transaction.getFromWalletAmount());
+                case TRANSFER -> {
+                    addToAggregate(aggregates, transaction.getFromWalletId(), date, type, 0, 0, 1, transaction.getFromWalletAmount());
+                    addToAggregate(aggregates, transaction.getToWalletId(), date, type, 1, transaction.getToWalletAmount(), 0, 0);
+                }
+            }
+        }
+
+        aggregates.values().forEach(this::recordDailyAggregate);
     }
 
+    private void recordDailyAggregates(Transaction transaction) {
+        recordDailyAggregates(List.of(transaction));
+    }
+
+    private void addToAggregate(Map<AggregateKey, DailyWalletAggregate> aggregates, Long walletId, LocalDate date, TransactionType type, long inflowCount, double inflowAmount, long outflowCount, double outflowAmount) {
+        DailyWalletAggregate aggregate = aggregates.computeIfAbsent(new AggregateKey(walletId, date, type), key -> DailyWalletAggregate.builder()
+                .walletId(walletId)
+                .aggregateDate(date)
+                .transactionType(type)
+                .build());
+
+        aggregate.setInflowCount(aggregate.getInflowCount() + inflowCount);
+        aggregate.setInflowAmount(aggregate.getInflowAmount() + inflowAmount);
+        aggregate.setOutflowCount(aggregate.getOutflowCount() + outflowCount);
+        aggregate.setOutflowAmount(aggregate.getOutflowAmount() + outflowAmount);
+    }
+
+    private void recordDailyAggregate(DailyWalletAggregate aggregate) {
+        if (postgres) {
+            dailyWalletAggregateRepository.upsert(
+                    aggregate.getWalletId(),
+                    aggregate.getAggregateDate(),
+                    aggregate.getTransactionType().name(),
+                    aggregate.getInflowCount(),
+                    aggregate.getInflowAmount(),
+                    aggregate.getOutflowCount(),
+                    aggregate.getOutflowAmount()
+            );
+        } else {
+            dailyWalletAggregateRepository.merge(
+                    aggregate.getWalletId(),
+                    aggregate.getAggregateDate(),
+                    aggregate.getTransactionType().name(),
+                    aggregate.getInflowCount(),
+                    aggregate.getInflowAmount(),
+                    aggregate.getOutflowCount(),
+                    aggregate.getOutflowAmount()
+            );
+        }
+    }
+
+    private LocalDateTime getHistoryStart() {
+        try {
+            return transactionArchiveRepository.findEarliestArchivedMonth()
+                    .map(month -> month.atDay(1).atStartOfDay())
+                    .orElse(HISTORY_START);
+        } catch (IOException e) {
+            throw new AppException(ErrorCode.ARCHIVE_UNAVAILABLE, "Could not read archived transactions");
+        }
+    }
+
+    private Optional<LocalDateTime> getLiveTransactionsStart() {
+        try {
+            return transactionArchiveRepository.findLatestArchivedMonth()
+                    .map(month -> month.plusMonths(1))
+                    .map(month -> month.atDay(1).atStartOfDay());
+        } catch (IOException e) {
+            throw new AppException(ErrorCode.ARCHIVE_UNAVAILABLE, "Could not read archived transactions");
+        }
+    }
+
+    private record AggregateKey(Long walletId, LocalDate date, TransactionType type) {
+    }
 }
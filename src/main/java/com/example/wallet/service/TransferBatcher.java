@@ -0,0 +1,201 @@
+package com.example.wallet.service;
+
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.repository.WalletRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Coalesces concurrent transfer requests and applies them in a single database transaction.
+ * Wallets of a batch are locked in id order, so batches never deadlock each other. When a
+ * transfer of the batch is rejected with an {@link AppException}, the batch is rolled back and
+ * applied again without it, so every caller gets exactly the result it would have had with its own
+ * transaction. Any other failure leaves the persistence context unusable, so the batch is rolled
+ * back and its halves are committed separately until the failing transfer is isolated.
+ */
+@Service
+@ConditionalOnProperty(name = "wallet.transfers.batching.enabled", havingValue = "true")
+public class TransferBatcher {
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${wallet.transfers.batching.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${wallet.transfers.batching.max-wait-ms:2}")
+    private long maxWaitMs;
+
+    @Value("${wallet.transfers.batching.queue-capacity:4096}")
+    private int queueCapacity;
+
+    private BlockingQueue<Transfer> transfers;
+    private Thread thread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        transfers = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        thread = new Thread(this::run, "transfer-batcher");
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+    }
+
+    public Wallet transferAmountToWallet(Double amount, Long fromWalletId, Long toWalletId) {
+        Transfer transfer = new Transfer(amount, fromWalletId, toWalletId, new CompletableFuture<>());
+
+        if (!running || !transfers.offer(transfer)) {
+            throw new AppException(ErrorCode.SERVICE_BUSY, "Too many transfers in progress");
+        }
+
+        try {
+            return transfer.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<Transfer> batch = new ArrayList<>(maxBatchSize);
+
+        while (running || !transfers.isEmpty()) {
+            try {
+                Transfer first = transfers.poll(100, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+
+                while (batch.size() < maxBatchSize) {
+                    Transfer next = transfers.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+
+                    if (next == null) {
+                        break;
+                    }
+
+                    batch.add(next);
+                }
+
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(transfer -> transfer.result().completeExceptionally(
+                        new AppException(ErrorCode.SERVICE_BUSY, "Transfer was interrupted")));
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Transfer> batch) {
+        List<Transfer> pending = new ArrayList<>(batch);
+
+        while (!pending.isEmpty()) {
+            Map<Transfer, Wallet> results = new HashMap<>();
+            Map<Transfer, AppException> failures = new LinkedHashMap<>();
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Map<Long, Wallet> wallets = lockWallets(pending);
+
+                    for (Transfer transfer : pending) {
+                        try {
+                            Wallet fromWallet = walletService.transferAmountBetweenWallets(
+                                    transfer.amount(),
+                                    wallets.get(transfer.fromWalletId()),
+                                    wallets.get(transfer.toWalletId())
+                            );
+                            results.put(transfer, snapshot(fromWallet));
+                        } catch (AppException e) {
+                            failures.put(transfer, e);
+                        }
+                    }
+
+                    if (!failures.isEmpty()) {
+                        status.setRollbackOnly();
+                    }
+                });
+            } catch (RuntimeException e) {
+                if (pending.size() == 1) {
+                    pending.get(0).result().completeExceptionally(e);
+                    return;
+                }
+
+                int middle = pending.size() / 2;
+                commit(pending.subList(0, middle));
+                commit(pending.subList(middle, pending.size()));
+                return;
+            }
+
+            if (failures.isEmpty()) {
+                results.forEach((transfer, wallet) -> transfer.result().complete(wallet));
+                return;
+            }
+
+            failures.forEach((transfer, e) -> transfer.result().completeExceptionally(e));
+            pending.removeAll(failures.keySet());
+        }
+    }
+
+    private Map<Long, Wallet> lockWallets(List<Transfer> batch) {
+        Set<Long> walletIds = new TreeSet<>();
+
+        for (Transfer transfer : batch) {
+            walletIds.add(transfer.fromWalletId());
+            walletIds.add(transfer.toWalletId());
+        }
+
+        return walletRepository.findAllByIdInForUpdate(walletIds).stream()
+                .collect(Collectors.toMap(Wallet::getId, Function.identity()));
+    }
+
+    private Wallet snapshot(Wallet wallet) {
+        return Wallet.builder()
+                .id(wallet.getId())
+                .amount(wallet.getAmount())
+                .currency(wallet.getCurrency())
+                .isActivated(wallet.isActivated())
+                .stripeCount(wallet.getStripeCount())
+                .stripeBalance(wallet.getStripeBalance())
+                .build();
+    }
+
+    private record Transfer(Double amount, Long fromWalletId, Long toWalletId, CompletableFuture<Wallet> result) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.wallet.service;
 
+import com.example.wallet.entity.User;
 import com.example.wallet.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,10 +14,31 @@ public class UserService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    /**
+     * Loads only the credentials of the user, which is all authentication needs.
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        return userRepository
+                .findCredentialsByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User does not exist with email " + email));
+    }
+
+    /**
+     * Loads the user with its wallet left unfetched, the wallet id is still available.
+     */
+    public User loadUser(String email) throws UsernameNotFoundException {
         return userRepository
                 .findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User does not exist with email " + email));
     }
+
+    /**
+     * Loads the user and its wallet with a single join.
+     */
+    public User loadUserWithWallet(String email) throws UsernameNotFoundException {
+        return userRepository
+                .findWithWalletByEmail(email)
+                .orElseThrow(() -> new UsernameNotFoundException("User does not exist with email " + email));
+    }
 }
@@ -1,15 +1,19 @@
 package com.example.wallet.service;
 
+import com.example.wallet.dto.response.WalletResponse;
 import com.example.wallet.entity.Currency;
 import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
 import com.example.wallet.entity.User;
 import com.example.wallet.entity.Wallet;
 import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.limits.VelocityLimiter;
+import com.example.wallet.rates.ConversionRates;
 import com.example.wallet.repository.UserRepository;
 import com.example.wallet.repository.WalletRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -24,15 +28,27 @@ public class WalletService {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private WalletStripeService walletStripeService;
+
+    @Autowired
+    private ConversionRates conversionRates;
+
+    @Autowired(required = false)
+    private AsyncTransactionHistory asyncTransactionHistory;
+
+    @Autowired(required = false)
+    private VelocityLimiter velocityLimiter;
+
     public Wallet activateWallet(User user, Currency currency) {
         Wallet wallet = user.getWallet();
 
         if (wallet.isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "User already has a wallet");
+            throw new AppException(ErrorCode.WALLET_ALREADY_ACTIVATED, "User already has a wallet");
         }
 
         if (currency == null) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Invalid Currency");
+            throw new AppException(ErrorCode.INVALID_CURRENCY, "Invalid Currency");
         }
 
         wallet.activate(currency);
@@ -43,13 +59,22 @@ public class WalletService {
     @Transactional
     public Wallet depositAmountToWallet(double amount, Long walletId) {
         if (amount <= 0) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Cannot deposit 0 or less amount");
+            throw new AppException(ErrorCode.INVALID_AMOUNT, "Cannot deposit 0 or less amount");
         }
 
-        Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "Wallet Not found"));
+        Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new AppException(ErrorCode.WALLET_NOT_FOUND, "Wallet Not found"));
         Transaction depositTransaction = wallet.depositMoney(amount);
 
-        transactionService.createDepositTransaction(depositTransaction);
+        if (wallet.isStriped()) {
+            walletStripeService.credit(wallet, amount);
+            wallet.setStripeBalance(walletStripeService.getBalance(wallet));
+        }
+
+        if (asyncTransactionHistory != null) {
+            asyncTransactionHistory.recordDeposit(depositTransaction);
+        } else {
+            transactionService.createDepositTransaction(depositTransaction);
+        }
 
         return walletRepository.save(wallet);
     }
@@ -57,12 +82,21 @@ public class WalletService {
     @Transactional
     public Wallet withDrawAmountFromWallet(double amount, Long walletId) {
         if (amount <= 0) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Cannot withdraw 0 or less amount");
+            throw new AppException(ErrorCode.INVALID_AMOUNT, "Cannot withdraw 0 or less amount");
         }
 
-        Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "Wallet Not found"));
+        Wallet wallet = walletRepository.findById(walletId).orElseThrow(() -> new AppException(ErrorCode.WALLET_NOT_FOUND, "Wallet Not found"));
         Transaction withdrawTransaction = wallet.withdrawMoney(amount);
 
+        if (velocityLimiter != null) {
+            velocityLimiter.acquire(wallet, TransactionType.WITHDRAW, amount);
+        }
+
+        if (wallet.isStriped()) {
+            walletStripeService.debit(wallet, amount);
+            wallet.setStripeBalance(walletStripeService.getBalance(wallet));
+        }
+
         transactionService.createWithdrawTransaction(withdrawTransaction);
 
         return walletRepository.save(wallet);
@@ -70,36 +104,85 @@ public class WalletService {
 
     public Wallet getUserWallet(User user) {
         if (user == null) {
-            throw new AppException(HttpStatus.NOT_FOUND, "User Not Found");
+            throw new AppException(ErrorCode.USER_NOT_FOUND, "User Not Found");
         }
 
         return user.getWallet();
     }
 
+    public Wallet getWallet(Long walletId) {
+        return walletRepository.findById(walletId)
+                .orElseThrow(() -> new AppException(ErrorCode.WALLET_NOT_FOUND, "Wallet Not found"));
+    }
+
+    public WalletResponse getWalletResponse(Long walletId) {
+        return walletRepository.findWalletResponseById(walletId)
+                .orElseThrow(() -> new AppException(ErrorCode.WALLET_NOT_FOUND, "Wallet Not found"));
+    }
+
     @Transactional
     public Wallet transferAmountToWallet(Double amount, User user, Long toWalletId) {
         Wallet fromWallet = user.getWallet();
 
+        validateTransferSource(amount, fromWallet);
+
+        Wallet toWallet = walletRepository.findById(toWalletId)
+                .orElseThrow(() -> new AppException(ErrorCode.RECIPIENT_WALLET_NOT_FOUND, "The wallet you are trying to transfer does not exist"));
+
+        applyTransfer(amount, fromWallet, toWallet);
+
+        walletRepository.save(toWallet);
+
+        return walletRepository.save(fromWallet);
+    }
+
+    /**
+     * Applies a transfer between wallets which are already loaded and locked by the caller's
+     * transaction. Every check runs before any balance is changed, so a failed transfer leaves
+     * both wallets untouched.
+     */
+    public Wallet transferAmountBetweenWallets(Double amount, Wallet fromWallet, Wallet toWallet) {
+        validateTransferSource(amount, fromWallet);
+
+        if (toWallet == null) {
+            throw new AppException(ErrorCode.RECIPIENT_WALLET_NOT_FOUND, "The wallet you are trying to transfer does not exist");
+        }
+
+        applyTransfer(amount, fromWallet, toWallet);
+
+        return fromWallet;
+    }
+
+    private void validateTransferSource(Double amount, Wallet fromWallet) {
         if (!fromWallet.isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "User's wallet is not activated yet");
+            throw new AppException(ErrorCode.WALLET_NOT_ACTIVATED, "User's wallet is not activated yet");
         }
 
         if (amount <= 0) {
-            throw new AppException(HttpStatus.BAD_REQUEST, "Cannot transfer zero or less money");
+            throw new AppException(ErrorCode.INVALID_AMOUNT, "Cannot transfer zero or less money");
         }
+    }
 
-        Wallet toWallet = walletRepository.findById(toWalletId)
-                .orElseThrow(() -> new AppException(HttpStatus.NOT_FOUND, "The wallet you are trying to transfer does not exist"));
-
+    private void applyTransfer(Double amount, Wallet fromWallet, Wallet toWallet) {
         if (!toWallet.isActivated()) {
-            throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "The wallet you are trying to transfer is not activated yet");
+            throw new AppException(ErrorCode.RECIPIENT_WALLET_NOT_ACTIVATED, "The wallet you are trying to transfer is not activated yet");
         }
 
-        Transaction transaction = fromWallet.transferAmountTo(amount, toWallet);
-        transactionService.createTransferTransaction(transaction);
+        if (velocityLimiter != null) {
+            velocityLimiter.acquire(fromWallet, TransactionType.TRANSFER, amount);
+        }
 
-        walletRepository.save(toWallet);
+        Transaction transaction = fromWallet.transferAmountTo(amount, toWallet, conversionRates.forConversion(fromWallet.getCurrency(), toWallet.getCurrency()));
 
-        return walletRepository.save(fromWallet);
+        if (fromWallet.isStriped()) {
+            walletStripeService.debit(fromWallet, amount);
+            fromWallet.setStripeBalance(walletStripeService.getBalance(fromWallet));
+        }
+
+        if (toWallet.isStriped()) {
+            walletStripeService.credit(toWallet, transaction.getToWalletAmount());
+        }
+
+        transactionService.createTransferTransaction(transaction);
     }
 }
@@ -0,0 +1,124 @@
+package com.example.wallet.service;
+
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.entity.WalletStripe;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.repository.WalletRepository;
+import com.example.wallet.repository.WalletStripeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Splits the balance of designated high traffic wallets over several {@link WalletStripe} rows,
+ * so that concurrent credits lock different rows instead of serializing on the wallet row.
+ * A wallet is striped in one transaction holding the lock of its row, so a concurrent balance
+ * change either lands before its balance moves to the stripes or waits until it has.
+ */
+@Service
+public class WalletStripeService {
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private WalletStripeRepository walletStripeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${wallet.striping.wallet-ids:}")
+    private List<Long> stripedWalletIds;
+
+    @Value("${wallet.striping.stripes:8}")
+    private int stripes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void stripeDesignatedWallets() {
+        if (stripes <= 0) {
+            throw new AppException(ErrorCode.INVALID_STRIPE_COUNT, "Stripe count must be greater than 0");
+        }
+
+        for (Long walletId : stripedWalletIds) {
+            transactionTemplate.executeWithoutResult(status -> walletRepository.findByIdForUpdate(walletId)
+                    .filter(wallet -> !wallet.isStriped())
+                    .ifPresent(wallet -> stripe(wallet, stripes)));
+        }
+    }
+
+    @Transactional
+    public Wallet stripeWallet(Long walletId, int stripeCount) {
+        if (stripeCount <= 0) {
+            throw new AppException(ErrorCode.INVALID_STRIPE_COUNT, "Stripe count must be greater than 0");
+        }
+
+        Wallet wallet = walletRepository.findByIdForUpdate(walletId).orElseThrow(() -> new AppException(ErrorCode.WALLET_NOT_FOUND, "Wallet Not found"));
+
+        if (wallet.isStriped()) {
+            throw new AppException(ErrorCode.WALLET_ALREADY_STRIPED, "Wallet is already striped");
+        }
+
+        return stripe(wallet, stripeCount);
+    }
+
+    private Wallet stripe(Wallet wallet, int stripeCount) {
+        Long walletId = wallet.getId();
+
+        for (int i = 0; i < stripeCount; i++) {
+            walletStripeRepository.save(WalletStripe.builder()
+                    .walletId(walletId)
+                    .stripeIndex(i)
+                    .amount(i == 0 ? wallet.getAmount() : 0.0)
+                    .build());
+        }
+
+        wallet.setAmount(0.0);
+        wallet.setStripeCount(stripeCount);
+
+        return walletRepository.save(wallet);
+    }
+
+    public void credit(Wallet wallet, double amount) {
+        walletStripeRepository.credit(wallet.getId(), ThreadLocalRandom.current().nextInt(wallet.getStripeCount()), amount);
+    }
+
+    public void debit(Wallet wallet, double amount) {
+        int stripeCount = wallet.getStripeCount();
+        int start = ThreadLocalRandom.current().nextInt(stripeCount);
+
+        for (int i = 0; i < stripeCount; i++) {
+            if (walletStripeRepository.debit(wallet.getId(), (start + i) % stripeCount, amount) == 1) {
+                return;
+            }
+        }
+
+        sweepAndDebit(wallet, amount);
+    }
+
+    public double getBalance(Wallet wallet) {
+        return walletStripeRepository.sumAmountByWalletId(wallet.getId());
+    }
+
+    private void sweepAndDebit(Wallet wallet, double amount) {
+        List<WalletStripe> walletStripes = walletStripeRepository.findAllByWalletIdForUpdate(wallet.getId());
+        double total = walletStripes.stream().mapToDouble(WalletStripe::getAmount).sum();
+
+        if (amount > total) {
+            throw new AppException(ErrorCode.INSUFFICIENT_BALANCE, "Amount exceeded current balance in wallet");
+        }
+
+        for (WalletStripe walletStripe : walletStripes) {
+            walletStripe.setAmount(walletStripe.getStripeIndex() == 0 ? total - amount : 0.0);
+        }
+
+        walletStripeRepository.saveAll(walletStripes);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.wallet.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.sql.monitor.enabled", havingValue = "true")
+public class StatementMonitorConfig {
+
+    /**
+     * Registered ahead of the security filter chain, so the security version check of the JWT
+     * filter counts when its cached version has expired.
+     */
+    @Bean
+    public FilterRegistrationBean<StatementMonitorFilter> statementMonitorFilter(
+            MeterRegistry meterRegistry,
+            @Value("${wallet.sql.monitor.max-statements:10}") int maxStatements,
+            @Value("${wallet.sql.monitor.max-duration:500ms}") Duration maxDuration
+    ) {
+        FilterRegistrationBean<StatementMonitorFilter> registration = new FilterRegistrationBean<>(new StatementMonitorFilter(meterRegistry, maxStatements, maxDuration));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 2);
+        return registration;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.wallet.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Counts the SQL statements of every request. Requests running more statements or taking longer
+ * than the configured limits are logged with the statements they ran, which is how N+1 selects
+ * show up.
+ */
+public class StatementMonitorFilter extends OncePerRequestFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementMonitorFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final Duration maxDuration;
+
+    public StatementMonitorFilter(MeterRegistry meterRegistry, int maxStatements, Duration maxDuration) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (StatementRecorder recorder = StatementRecorder.start(maxStatements + 1)) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                report(request, recorder);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, StatementRecorder recorder) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern == null ? "unknown" : pattern.toString();
+        long elapsedNanos = recorder.getElapsedNanos();
+
+        DistributionSummary.builder("wallet.sql.statements")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(recorder.getCount());
+
+        if (recorder.getCount() <= maxStatements && elapsedNanos <= maxDuration.toNanos()) {
+            return;
+        }
+
+        meterRegistry.counter("wallet.sql.flagged.requests", "endpoint", endpoint).increment();
+        LOGGER.warn("{} {} ran {} SQL statements in {} ms: {}", request.getMethod(), request.getRequestURI(),
+                recorder.getCount(), elapsedNanos / 1_000_000, recorder.getStatements());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.wallet.sql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records the SQL statements executed on the current thread while it is open. Recorders
+ * nest: closing one restores the recorder which was open before it.
+ */
+public final class StatementRecorder implements AutoCloseable {
+
+    private static final ThreadLocal<StatementRecorder> CURRENT = new ThreadLocal<>();
+
+    private final StatementRecorder previous;
+    private final int maxStatements;
+    private final List<String> statements = new ArrayList<>();
+    private final long startNanos = System.nanoTime();
+    private int count;
+
+    private StatementRecorder(StatementRecorder previous, int maxStatements) {
+        this.previous = previous;
+        this.maxStatements = maxStatements;
+    }
+
+    /**
+     * Starts recording, keeping the text of at most {@code maxStatements} statements.
+     */
+    public static StatementRecorder start(int maxStatements) {
+        StatementRecorder recorder = new StatementRecorder(CURRENT.get(), maxStatements);
+        CURRENT.set(recorder);
+        return recorder;
+    }
+
+    static void record(String sql) {
+        for (StatementRecorder recorder = CURRENT.get(); recorder != null; recorder = recorder.previous) {
+            recorder.count++;
+
+            if (recorder.statements.size() < recorder.maxStatements) {
+                recorder.statements.add(sql);
+            }
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public void close() {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
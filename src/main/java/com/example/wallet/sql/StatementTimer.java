@@ -0,0 +1,67 @@
+package com.example.wallet.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+
+/**
+ * Times SQL statements into {@code wallet.sql.statement.duration}, logs the ones slower than the
+ * configured threshold and hands every statement to the {@link StatementRecorder} of the current
+ * thread. Statements going through the data source are timed by {@link StatementTimingDataSource},
+ * code talking to the driver directly, like {@code COPY}, calls {@link #time} itself.
+ */
+public class StatementTimer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementTimer.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final long slowStatementNanos;
+    private volatile Timer timer;
+
+    public StatementTimer(ObjectProvider<MeterRegistry> meterRegistry, Duration slowStatement) {
+        this.meterRegistry = meterRegistry;
+        this.slowStatementNanos = slowStatement.toNanos();
+    }
+
+    public <T, E extends Throwable> T time(String sql, Statement<T, E> statement) throws E {
+        StatementRecorder.record(sql);
+        long start = System.nanoTime();
+
+        try {
+            return statement.execute();
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            Timer statementTimer = getTimer();
+
+            if (statementTimer != null) {
+                statementTimer.record(Duration.ofNanos(elapsedNanos));
+            }
+
+            if (elapsedNanos > slowStatementNanos) {
+                LOGGER.warn("SQL statement took {} ms: {}", elapsedNanos / 1_000_000, sql);
+            }
+        }
+    }
+
+    private Timer getTimer() {
+        if (timer == null) {
+            MeterRegistry registry = meterRegistry.getIfAvailable();
+
+            if (registry != null) {
+                timer = Timer.builder("wallet.sql.statement.duration").register(registry);
+            }
+        }
+
+        return timer;
+    }
+
+    @FunctionalInterface
+    public interface Statement<T, E extends Throwable> {
+
+        T execute() throws E;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.wallet.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class StatementTimingConfig {
+
+    @Bean
+    public StatementTimer statementTimer(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${wallet.sql.monitor.slow-statement:100ms}") Duration slowStatement
+    ) {
+        return new StatementTimer(meterRegistry, slowStatement);
+    }
+
+    /**
+     * Wraps every data source once it is initialized, so pool settings still apply to the pool.
+     */
+    @Bean
+    public static BeanPostProcessor statementTimingDataSourceWrapper(ObjectProvider<StatementTimer> statementTimer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementTimingDataSource)) {
+                    return new StatementTimingDataSource(dataSource, statementTimer.getObject());
+                }
+
+                return bean;
+            }
+        };
+    }
+}
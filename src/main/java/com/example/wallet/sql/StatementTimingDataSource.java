@@ -0,0 +1,92 @@
+package com.example.wallet.sql;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Wraps the connections of a data source so every statement executed on them is timed by the
+ * {@link StatementTimer}, whether it comes from Hibernate, a {@code JdbcTemplate} or Flyway.
+ * A JDBC batch counts as one statement.
+ */
+public class StatementTimingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch"
+    );
+
+    private final StatementTimer statementTimer;
+
+    public StatementTimingDataSource(DataSource dataSource, StatementTimer statementTimer) {
+        super(dataSource);
+        this.statementTimer = statementTimer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "prepareStatement", "prepareCall" -> {
+                    return wrap((Statement) invoke(connection, method, args), method.getReturnType(), (String) args[0]);
+                }
+                case "createStatement" -> {
+                    return wrap((Statement) invoke(connection, method, args), Statement.class, null);
+                }
+                default -> {
+                    return invoke(connection, method, args);
+                }
+            }
+        });
+    }
+
+    private Statement wrap(Statement statement, Class<?> type, String preparedSql) {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    if (!EXECUTE_METHODS.contains(method.getName())) {
+                        return invoke(statement, method, args);
+                    }
+
+                    String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                    return statementTimer.time(sql, () -> invoke(statement, method, args));
+                }
+            }
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.wallet.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends finished spans as JSON lines to a local file. Traces are written by a background thread,
+ * and dropped when its queue is full, so exporting never blocks a request.
+ */
+@Component
+@ConditionalOnExpression("${wallet.tracing.enabled:false} && !'${wallet.tracing.file:}'.isBlank()")
+public class FileSpanExporter implements SpanExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileSpanExporter.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${wallet.tracing.file}")
+    private String file;
+
+    @Value("${wallet.tracing.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<List<SpanData>> traces;
+    private BufferedWriter writer;
+    private Thread thread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() throws IOException {
+        Path path = Paths.get(file);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        traces = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        thread = new Thread(this::run, "span-exporter");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        thread.join();
+        writer.close();
+    }
+
+    @Override
+    public void export(List<SpanData> spans) {
+        traces.offer(spans);
+    }
+
+    private void run() {
+        List<List<SpanData>> batch = new ArrayList<>();
+
+        while (running || !traces.isEmpty()) {
+            try {
+                List<SpanData> first = traces.poll(100, TimeUnit.MILLISECONDS);
+
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                traces.drainTo(batch);
+
+                for (List<SpanData> spans : batch) {
+                    for (SpanData span : spans) {
+                        writer.write(objectMapper.writeValueAsString(span));
+                        writer.newLine();
+                    }
+                }
+
+                writer.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                LOGGER.warn("Could not export {} traces", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+}
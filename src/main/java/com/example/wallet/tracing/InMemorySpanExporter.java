@@ -0,0 +1,25 @@
+package com.example.wallet.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every exported span in memory, for tests.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final List<SpanData> spans = new ArrayList<>();
+
+    @Override
+    public synchronized void export(List<SpanData> spans) {
+        this.spans.addAll(spans);
+    }
+
+    public synchronized List<SpanData> getSpans() {
+        return List.copyOf(spans);
+    }
+
+    public synchronized void reset() {
+        spans.clear();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.wallet.tracing;
+
+/**
+ * An active span, ended by {@link #close()}. Spans are started by {@link Tracer} and must be
+ * closed on the thread which started them, in reverse order.
+ */
+public final class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, null, null, null, 0, 0);
+
+    final Tracer tracer;
+    final Tracer.Trace trace;
+    final String spanId;
+    final String parentSpanId;
+    final String name;
+    final long startEpochNanos;
+    final long startNanos;
+
+    Span(Tracer tracer, Tracer.Trace trace, String spanId, String parentSpanId, String name, long startEpochNanos, long startNanos) {
+        this.tracer = tracer;
+        this.trace = trace;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.startEpochNanos = startEpochNanos;
+        this.startNanos = startNanos;
+    }
+
+    public long getElapsedNanos() {
+        return this == NOOP ? 0 : System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public void close() {
+        if (this != NOOP) {
+            tracer.end(this);
+        }
+    }
+}
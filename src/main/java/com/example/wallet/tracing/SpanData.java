@@ -0,0 +1,7 @@
+package com.example.wallet.tracing;
+
+/**
+ * A finished span. Times are in nanoseconds, the start since the epoch.
+ */
+public record SpanData(String traceId, String spanId, String parentSpanId, String name, long startEpochNanos, long durationNanos) {
+}
@@ -0,0 +1,11 @@
+package com.example.wallet.tracing;
+
+import java.util.List;
+
+/**
+ * Receives the spans of a trace once its root span has ended.
+ */
+public interface SpanExporter {
+
+    void export(List<SpanData> spans);
+}
@@ -0,0 +1,104 @@
+package com.example.wallet.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Minimal in process tracer. A trace is bound to the thread handling the request: the root span is
+ * started by {@link TracingFilter} and every span started on that thread until the root ends
+ * becomes its descendant. Spans started outside of a trace, or while tracing is disabled, are
+ * no-ops. Finished traces are handed to every {@link SpanExporter}.
+ */
+@Component
+public class Tracer {
+
+    @Value("${wallet.tracing.enabled:false}")
+    private boolean enabled;
+
+    @Autowired(required = false)
+    private List<SpanExporter> exporters = List.of();
+
+    private final ThreadLocal<Trace> currentTrace = new ThreadLocal<>();
+
+    private Clock clock = Clock.systemUTC();
+
+    public Span startTrace(String name) {
+        if (!enabled) {
+            return Span.NOOP;
+        }
+
+        Trace trace = new Trace(randomId(16));
+        currentTrace.set(trace);
+
+        return start(trace, name);
+    }
+
+    public Span startSpan(String name) {
+        Trace trace = currentTrace.get();
+
+        return trace == null ? Span.NOOP : start(trace, name);
+    }
+
+    /**
+     * Spans of the current trace which have already ended, in the order they ended.
+     */
+    public List<SpanData> getFinishedSpans() {
+        Trace trace = currentTrace.get();
+
+        return trace == null ? List.of() : Collections.unmodifiableList(trace.finished);
+    }
+
+    void end(Span span) {
+        Trace trace = span.trace;
+
+        trace.active.pop();
+        trace.finished.add(new SpanData(trace.traceId, span.spanId, span.parentSpanId, span.name, span.startEpochNanos, System.nanoTime() - span.startNanos));
+
+        if (trace.active.isEmpty()) {
+            currentTrace.remove();
+
+            for (SpanExporter exporter : exporters) {
+                exporter.export(trace.finished);
+            }
+        }
+    }
+
+    private Span start(Trace trace, String name) {
+        Instant now = clock.instant();
+        Span parent = trace.active.peek();
+        Span span = new Span(this, trace, randomId(8), parent == null ? null : parent.spanId, name,
+                now.getEpochSecond() * 1_000_000_000L + now.getNano(), System.nanoTime());
+
+        trace.active.push(span);
+
+        return span;
+    }
+
+    private static String randomId(int bytes) {
+        byte[] id = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HexFormat.of().formatHex(id);
+    }
+
+    static final class Trace {
+
+        final String traceId;
+        final Deque<Span> active = new ArrayDeque<>();
+        final List<SpanData> finished = new ArrayList<>();
+
+        Trace(String traceId) {
+            this.traceId = traceId;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.wallet.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wraps service and repository calls in spans. It runs outside of the transaction interceptor, so
+ * the span of a {@code @Transactional} method includes its commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "wallet.tracing.enabled", havingValue = "true")
+public class TracingAspect {
+
+    @Autowired
+    private Tracer tracer;
+
+    private final Map<Class<?>, String> typeNames = new ConcurrentHashMap<>();
+
+    @Around("within(com.example.wallet.service..*) && @within(org.springframework.stereotype.Service)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..)) || execution(public * com.example.wallet.repository.TransactionBulkRepository.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(typeNames.computeIfAbsent(joinPoint.getThis().getClass(), TracingAspect::repositoryName), joinPoint);
+    }
+
+    private Object trace(String typeName, ProceedingJoinPoint joinPoint) throws Throwable {
+        try (Span span = tracer.startSpan(typeName + "." + joinPoint.getSignature().getName())) {
+            return joinPoint.proceed();
+        }
+    }
+
+    private static String repositoryName(Class<?> type) {
+        for (Class<?> repositoryInterface : type.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(repositoryInterface) && repositoryInterface != Repository.class) {
+                return repositoryInterface.getSimpleName();
+            }
+        }
+
+        return AopUtils.isCglibProxy(type) ? type.getSuperclass().getSimpleName() : type.getSimpleName();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.wallet.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+@Configuration
+@ConditionalOnProperty(name = "wallet.tracing.enabled", havingValue = "true")
+public class TracingConfig {
+
+    /**
+     * Registered ahead of the security filter chain, so authentication is part of the trace.
+     */
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer, @Value("${wallet.tracing.server-timing:true}") boolean serverTiming) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer, serverTiming));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter tracingJacksonMessageConverter(ObjectMapper objectMapper, Tracer tracer) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+                try (Span span = tracer.startSpan("json.render")) {
+                    super.writeInternal(object, type, outputMessage);
+                }
+            }
+        };
+    }
+}
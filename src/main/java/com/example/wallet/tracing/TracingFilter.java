@@ -0,0 +1,72 @@
+package com.example.wallet.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Starts the root span of every request. With {@code Server-Timing} enabled the response body is
+ * buffered, so the header can summarize the time spent in each stage, including rendering, before
+ * the response is committed.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final Tracer tracer;
+    private final boolean serverTiming;
+
+    public TracingFilter(Tracer tracer, boolean serverTiming) {
+        this.tracer = tracer;
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (Span root = tracer.startTrace(request.getMethod() + " " + request.getRequestURI())) {
+            if (!serverTiming) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+
+            try {
+                filterChain.doFilter(request, responseWrapper);
+            } finally {
+                responseWrapper.setHeader(SERVER_TIMING, serverTiming(root));
+                responseWrapper.copyBodyToResponse();
+            }
+        }
+    }
+
+    private String serverTiming(Span root) {
+        Map<String, Long> durations = new LinkedHashMap<>();
+
+        for (SpanData span : tracer.getFinishedSpans()) {
+            durations.merge(span.name(), span.durationNanos(), Long::sum);
+        }
+
+        StringBuilder header = new StringBuilder();
+
+        durations.forEach((name, nanos) -> appendMetric(header, name, nanos));
+        appendMetric(header, "total", root.getElapsedNanos());
+
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+
+        header.append(name).append(";dur=").append(String.format("%.3f", nanos / 1_000_000.0));
+    }
+}
@@ -0,0 +1,43 @@
+CREATE SEQUENCE user_sequence START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE wallet_sequence START WITH 1 INCREMENT BY 1;
+CREATE SEQUENCE transaction_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE wallet (
+    id           BIGINT           NOT NULL DEFAULT NEXT VALUE FOR wallet_sequence,
+    amount       DOUBLE PRECISION NOT NULL,
+    currency     VARCHAR(20),
+    is_activated BOOLEAN          NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE wallet_users (
+    id         BIGINT       NOT NULL DEFAULT NEXT VALUE FOR user_sequence,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    locked     BOOLEAN      NOT NULL,
+    enabled    BOOLEAN      NOT NULL,
+    wallet_id  BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT email_unique UNIQUE (email),
+    CONSTRAINT wallet_users_wallet_fk FOREIGN KEY (wallet_id) REFERENCES wallet (id)
+);
+
+CREATE UNIQUE INDEX wallet_users_wallet_id_idx ON wallet_users (wallet_id);
+
+CREATE TABLE wallet_transactions (
+    id                   BIGINT           NOT NULL DEFAULT NEXT VALUE FOR transaction_sequence,
+    from_wallet_id       BIGINT           NOT NULL,
+    from_wallet_amount   DOUBLE PRECISION NOT NULL,
+    from_wallet_currency SMALLINT         NOT NULL,
+    to_wallet_id         BIGINT           NOT NULL,
+    to_wallet_amount     DOUBLE PRECISION NOT NULL,
+    to_wallet_currency   SMALLINT         NOT NULL,
+    transaction_type     VARCHAR(20)      NOT NULL,
+    created_at           TIMESTAMP(6)     NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX wallet_transactions_from_wallet_idx ON wallet_transactions (from_wallet_id, created_at);
+CREATE INDEX wallet_transactions_to_wallet_idx ON wallet_transactions (to_wallet_id, created_at);
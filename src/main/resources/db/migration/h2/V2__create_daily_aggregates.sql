@@ -0,0 +1,33 @@
+CREATE SEQUENCE daily_aggregate_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE wallet_daily_aggregates (
+    id               BIGINT           NOT NULL DEFAULT NEXT VALUE FOR daily_aggregate_sequence,
+    wallet_id        BIGINT           NOT NULL,
+    aggregate_date   DATE             NOT NULL,
+    transaction_type VARCHAR(20)      NOT NULL,
+    inflow_count     BIGINT           NOT NULL,
+    inflow_amount    DOUBLE PRECISION NOT NULL,
+    outflow_count    BIGINT           NOT NULL,
+    outflow_amount   DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT wallet_daily_aggregate_unique UNIQUE (wallet_id, aggregate_date, transaction_type)
+);
+
+-- Backfill the aggregates of transactions recorded before this table existed: deposits and the
+-- receiving side of transfers are inflows, withdrawals and the sending side of transfers outflows.
+INSERT INTO wallet_daily_aggregates
+    (wallet_id, aggregate_date, transaction_type, inflow_count, inflow_amount, outflow_count, outflow_amount)
+SELECT wallet_id, aggregate_date, transaction_type,
+       SUM(inflow_count), SUM(inflow_amount), SUM(outflow_count), SUM(outflow_amount)
+FROM (
+    SELECT to_wallet_id AS wallet_id, CAST(created_at AS DATE) AS aggregate_date, transaction_type,
+           1 AS inflow_count, to_wallet_amount AS inflow_amount, 0 AS outflow_count, 0.0 AS outflow_amount
+    FROM wallet_transactions
+    WHERE transaction_type IN ('DEPOSIT', 'TRANSFER')
+    UNION ALL
+    SELECT from_wallet_id, CAST(created_at AS DATE), transaction_type,
+           0, 0.0, 1, from_wallet_amount
+    FROM wallet_transactions
+    WHERE transaction_type IN ('WITHDRAW', 'TRANSFER')
+) flows
+GROUP BY wallet_id, aggregate_date, transaction_type;
@@ -0,0 +1,13 @@
+ALTER TABLE wallet ADD COLUMN stripe_count INTEGER NOT NULL DEFAULT 0;
+
+CREATE SEQUENCE wallet_stripe_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE wallet_stripes (
+    id           BIGINT           NOT NULL DEFAULT NEXT VALUE FOR wallet_stripe_sequence,
+    wallet_id    BIGINT           NOT NULL,
+    stripe_index INTEGER          NOT NULL,
+    amount       DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT wallet_stripe_unique UNIQUE (wallet_id, stripe_index),
+    CONSTRAINT wallet_stripes_wallet_fk FOREIGN KEY (wallet_id) REFERENCES wallet (id)
+);
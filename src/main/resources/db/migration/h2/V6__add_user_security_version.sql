@@ -0,0 +1 @@
+ALTER TABLE wallet_users ADD COLUMN security_version INTEGER NOT NULL DEFAULT 0;
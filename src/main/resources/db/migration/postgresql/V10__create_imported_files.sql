@@ -0,0 +1,10 @@
+-- Transaction import progress by file checksum, advanced in the same transaction as each batch so
+-- an interrupted import resumes after its last committed row and a finished one is never repeated.
+CREATE TABLE wallet_imported_files (
+    checksum      VARCHAR(64)  NOT NULL,
+    file_name     VARCHAR(255) NOT NULL,
+    rows_imported BIGINT       NOT NULL,
+    completed     BOOLEAN      NOT NULL,
+    updated_at    TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (checksum)
+);
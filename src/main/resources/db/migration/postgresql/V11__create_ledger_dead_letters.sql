@@ -0,0 +1,19 @@
+-- Ledger entries the projector could not write after its retries, parked for an operator so the
+-- projection can move past them.
+CREATE TABLE wallet_ledger_dead_letters (
+    sequence             BIGINT           NOT NULL,
+    transaction_type     VARCHAR(20)      NOT NULL,
+    from_wallet_id       BIGINT           NOT NULL,
+    from_wallet_amount   DOUBLE PRECISION NOT NULL,
+    from_wallet_currency VARCHAR(20)      NOT NULL,
+    from_wallet_balance  DOUBLE PRECISION NOT NULL,
+    to_wallet_id         BIGINT           NOT NULL,
+    to_wallet_amount     DOUBLE PRECISION NOT NULL,
+    to_wallet_currency   VARCHAR(20)      NOT NULL,
+    to_wallet_balance    DOUBLE PRECISION NOT NULL,
+    rate_version         BIGINT,
+    entry_created_at     TIMESTAMP(6)     NOT NULL,
+    error                VARCHAR(1000)    NOT NULL,
+    created_at           TIMESTAMP(6)     NOT NULL,
+    PRIMARY KEY (sequence)
+);
@@ -0,0 +1,15 @@
+-- Transaction history rows written in the same transaction as the balance change and moved into
+-- wallet_transactions in the background, so a committed balance change always gets its row.
+CREATE TABLE wallet_history_outbox (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    from_wallet_id       BIGINT           NOT NULL,
+    from_wallet_amount   DOUBLE PRECISION NOT NULL,
+    from_wallet_currency SMALLINT         NOT NULL,
+    to_wallet_id         BIGINT           NOT NULL,
+    to_wallet_amount     DOUBLE PRECISION NOT NULL,
+    to_wallet_currency   SMALLINT         NOT NULL,
+    rate_version         BIGINT,
+    transaction_type     VARCHAR(20)      NOT NULL,
+    created_at           TIMESTAMP(6)     NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,5 @@
+CREATE TABLE wallet_checkpoints (
+    name     VARCHAR(50) NOT NULL,
+    position BIGINT      NOT NULL,
+    PRIMARY KEY (name)
+);
@@ -0,0 +1 @@
+ALTER TABLE wallet_transactions ADD COLUMN rate_version BIGINT;
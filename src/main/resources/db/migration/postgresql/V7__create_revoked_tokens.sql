@@ -0,0 +1,12 @@
+CREATE SEQUENCE revoked_token_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE wallet_revoked_tokens (
+    id         BIGINT      NOT NULL DEFAULT nextval('revoked_token_sequence'),
+    token_id   VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP   NOT NULL,
+    revoked_at TIMESTAMP   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT revoked_token_unique UNIQUE (token_id)
+);
+
+CREATE INDEX wallet_revoked_tokens_revoked_at_idx ON wallet_revoked_tokens (revoked_at);
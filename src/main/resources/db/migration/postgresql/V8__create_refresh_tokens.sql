@@ -0,0 +1,17 @@
+CREATE SEQUENCE refresh_token_sequence START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE wallet_refresh_tokens (
+    id         BIGINT      NOT NULL DEFAULT nextval('refresh_token_sequence'),
+    user_id    BIGINT      NOT NULL,
+    family_id  VARCHAR(36) NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP   NOT NULL,
+    expires_at TIMESTAMP   NOT NULL,
+    used_at    TIMESTAMP,
+    PRIMARY KEY (id),
+    CONSTRAINT refresh_token_hash_unique UNIQUE (token_hash),
+    CONSTRAINT wallet_refresh_tokens_user_fk FOREIGN KEY (user_id) REFERENCES wallet_users (id)
+);
+
+CREATE INDEX wallet_refresh_tokens_family_id_idx ON wallet_refresh_tokens (family_id);
+CREATE INDEX wallet_refresh_tokens_user_id_idx ON wallet_refresh_tokens (user_id);
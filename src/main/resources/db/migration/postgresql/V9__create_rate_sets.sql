@@ -0,0 +1,9 @@
+-- Every conversion rate set transactions were made with, by version, so recorded rate versions
+-- can be audited and replayed independently of the rates currently loaded.
+CREATE TABLE wallet_rate_sets (
+    version       BIGINT          NOT NULL,
+    currency      VARCHAR(20)     NOT NULL,
+    dollar_factor NUMERIC(38, 18) NOT NULL,
+    created_at    TIMESTAMP(6)    NOT NULL,
+    PRIMARY KEY (version, currency)
+);
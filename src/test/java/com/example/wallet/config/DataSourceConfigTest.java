@@ -0,0 +1,28 @@
+package com.example.wallet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSourceConfigTest {
+
+    @Test
+    void shouldSizeThePoolFromTheCores() {
+        assertEquals(17, DataSourceConfig.poolSize(0, 8, 2, 1));
+    }
+
+    @Test
+    void shouldPreferAFixedPoolSize() {
+        assertEquals(10, DataSourceConfig.poolSize(10, 8, 2, 1));
+    }
+
+    @Test
+    void shouldApplyThePoolSizeToHikariDataSources() {
+        HikariDataSource dataSource = new HikariDataSource();
+
+        DataSourceConfig.hikariPoolSizer(5, 2, 1).postProcessBeforeInitialization(dataSource, "dataSource");
+
+        assertEquals(5, dataSource.getMaximumPoolSize());
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.wallet.controller;
 
+import com.example.wallet.dto.response.AuthTokens;
+import com.example.wallet.dto.response.RegistrationStatusResponse;
 import com.example.wallet.entity.User;
 import com.example.wallet.exception.AppException;
 import com.example.wallet.exception.AppExceptionHandler;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.security.jwt.JWTPrincipal;
+import com.example.wallet.service.AsyncRegistration;
 import com.example.wallet.service.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -12,6 +18,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -34,7 +41,7 @@ class AuthControllerTest {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders
                 .standaloneSetup(authController)
-                .setControllerAdvice(new AppExceptionHandler())
+                .setControllerAdvice(new AppExceptionHandler(new SimpleMeterRegistry()))
                 .build();
     }
 
@@ -119,7 +126,7 @@ class AuthControllerTest {
                 .build();
         String mockJwtToken = "random_jwt_token";
 
-        when(authService.loginUser(eq(user.getEmail()), eq(user.getPassword()), any(HttpServletRequest.class))).thenReturn(mockJwtToken);
+        when(authService.loginUser(eq(user.getEmail()), eq(user.getPassword()), any(HttpServletRequest.class))).thenReturn(new AuthTokens(mockJwtToken, "refresh"));
 
         mockMvc.perform(post("/api/v1/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -131,7 +138,8 @@ class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.token").value(mockJwtToken));
+                .andExpect(jsonPath("$.token").value(mockJwtToken))
+                .andExpect(jsonPath("$.refreshToken").value("refresh"));
 
         verify(authService, times(1)).loginUser(eq(user.getEmail()), eq(user.getPassword()), any(HttpServletRequest.class));
     }
@@ -198,4 +206,98 @@ class AuthControllerTest {
         verify(authService, times(1)).loginUser(eq(user.getEmail()), eq(user.getPassword()), any(HttpServletRequest.class));
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldLogoutUserAPIWorkCorrectly() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "faizbshah2001@gmail.com", 0, "jti", null);
+
+        mockMvc.perform(post("/api/v1/auth/logout")
+                        .principal(principal)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        verify(authService, times(1)).logoutUser(principal, null);
+        verify(authService, never()).logoutUserEverywhere(any());
+    }
+
+    @Test
+    void shouldLogoutUserEverywhereAPIWorkCorrectly() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "faizbshah2001@gmail.com", 0, "jti", null);
+
+        mockMvc.perform(post("/api/v1/auth/logout-all")
+                        .principal(principal)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+
+        verify(authService, times(1)).logoutUserEverywhere(principal);
+    }
+
+    @Test
+    void shouldRefreshTokensAPIWorkCorrectly() throws Exception {
+        when(authService.refreshTokens("refresh")).thenReturn(new AuthTokens("token", "rotated"));
+
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\": \"refresh\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("token"))
+                .andExpect(jsonPath("$.refreshToken").value("rotated"));
+    }
+
+    @Test
+    void shouldRefreshTokensAPIThrowAnErrorIfRefreshTokenIsMissing() throws Exception {
+        mockMvc.perform(post("/api/v1/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}")
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("VALIDATION_FAILED"))
+                .andExpect(jsonPath("$.message").value("Refresh token is required"));
+
+        verify(authService, never()).refreshTokens(any());
+    }
+
+    @Test
+    void shouldRegisterUserAPIAcceptRegistrationInAsyncMode() throws Exception {
+        AsyncRegistration asyncRegistration = mock(AsyncRegistration.class);
+        ReflectionTestUtils.setField(authController, "asyncRegistration", asyncRegistration);
+
+        when(asyncRegistration.submit("Faiz", "Shah", "faizbshah2001@gmail.com", "helloworld"))
+                .thenReturn(new RegistrationStatusResponse("abc", RegistrationStatusResponse.Status.PENDING, null, null));
+
+        mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\": \"Faiz\", \"lastName\": \"Shah\", \"email\": \"faizbshah2001@gmail.com\", \"password\": \"helloworld\"}")
+                )
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/v1/auth/registrations/abc"))
+                .andExpect(jsonPath("$.id").value("abc"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(authService, never()).registerUser(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldGetRegistrationStatusAPIWorkCorrectly() throws Exception {
+        AsyncRegistration asyncRegistration = mock(AsyncRegistration.class);
+        ReflectionTestUtils.setField(authController, "asyncRegistration", asyncRegistration);
+
+        when(asyncRegistration.getStatus("abc"))
+                .thenReturn(new RegistrationStatusResponse("abc", RegistrationStatusResponse.Status.FAILED, ErrorCode.USER_ALREADY_EXISTS, "User Already Exists"));
+
+        mockMvc.perform(get("/api/v1/auth/registrations/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("FAILED"))
+                .andExpect(jsonPath("$.code").value("USER_ALREADY_EXISTS"))
+                .andExpect(jsonPath("$.message").value("User Already Exists"));
+    }
+
+    @Test
+    void shouldGetRegistrationStatusAPIThrowAnErrorIfAsyncModeIsDisabled() throws Exception {
+        mockMvc.perform(get("/api/v1/auth/registrations/abc"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code").value("REGISTRATION_NOT_FOUND"));
+    }
+}
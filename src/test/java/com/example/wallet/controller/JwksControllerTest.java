@@ -0,0 +1,56 @@
+package com.example.wallet.controller;
+
+import com.example.wallet.security.jwt.JWTKeys;
+import com.example.wallet.security.jwt.JWTSigningProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class JwksControllerTest {
+
+    @InjectMocks
+    private JwksController jwksController;
+
+    @Mock
+    private JWTKeys jwtKeys;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(jwksController, "jwtSigningProperties", new JWTSigningProperties(null, null, null, null, Duration.ofMinutes(5)));
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(jwksController)
+                .build();
+    }
+
+    @Test
+    void shouldGetJwksWorkCorrectly() throws Exception {
+        when(jwtKeys.getJwks()).thenReturn(List.of(Map.of("kty", "EC", "kid", "current", "x", "x", "y", "y")));
+
+        mockMvc.perform(get("/.well-known/jwks.json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Cache-Control", "max-age=300, public"))
+                .andExpect(jsonPath("$.keys.length()").value(1))
+                .andExpect(jsonPath("$.keys[0].kid").value("current"))
+                .andExpect(jsonPath("$.keys[0].kty").value("EC"));
+
+        verify(jwtKeys, times(1)).getJwks();
+    }
+}
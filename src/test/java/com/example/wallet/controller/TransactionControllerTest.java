@@ -1,10 +1,15 @@
 package com.example.wallet.controller;
 
+import com.example.wallet.dto.response.TransactionResponse;
+import com.example.wallet.dto.response.TransactionSummaryResponse;
+import com.example.wallet.dto.response.TransactionTypeSummary;
 import com.example.wallet.entity.*;
 import com.example.wallet.exception.AppException;
 import com.example.wallet.exception.AppExceptionHandler;
+import com.example.wallet.security.jwt.JWTPrincipal;
 import com.example.wallet.service.TransactionService;
-import com.example.wallet.service.UserService;
+import com.example.wallet.service.WalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -15,7 +20,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.security.Principal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -33,7 +38,7 @@ class TransactionControllerTest {
     private TransactionService transactionService;
 
     @Mock
-    private UserService userService;
+    private WalletService walletService;
 
     private MockMvc mockMvc;
 
@@ -42,13 +47,13 @@ class TransactionControllerTest {
         MockitoAnnotations.openMocks(this);
         mockMvc = MockMvcBuilders
                 .standaloneSetup(transactionController)
-                .setControllerAdvice(new AppExceptionHandler())
+                .setControllerAdvice(new AppExceptionHandler(new SimpleMeterRegistry()))
                 .build();
     }
 
     @Test
     void shouldGetAllTransactionsWorkCorrectly() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         Wallet wallet = Wallet.builder()
                 .id(1L)
@@ -57,17 +62,6 @@ class TransactionControllerTest {
                 .isActivated(true)
                 .build();
 
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
-
         Transaction transaction1 = Transaction.builder()
                 .id(1L)
                 .fromWalletId(1L)
@@ -92,8 +86,8 @@ class TransactionControllerTest {
                 .createdAt(LocalDateTime.of(2023, 1, 1, 11, 11))
                 .build();
 
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
-        when(transactionService.getAllTransactions(user)).thenReturn(List.of(transaction1, transaction2));
+        when(walletService.getWallet(principal.getWalletId())).thenReturn(wallet);
+        when(transactionService.getAllTransactions(wallet)).thenReturn(List.of(TransactionResponse.from(transaction1), TransactionResponse.from(transaction2)));
 
         mockMvc.perform(get("/api/v1/transactions")
                         .principal(principal)
@@ -119,30 +113,21 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$[1].toWalletCurrency").value(Currency.RUPEE.toString()))
                 .andExpect(jsonPath("$[1].transactionType").value(TransactionType.TRANSFER.toString()));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
-        verify(transactionService, times(1)).getAllTransactions(user);
+        verify(walletService, times(1)).getWallet(principal.getWalletId());
+        verify(transactionService, times(1)).getAllTransactions(wallet);
     }
 
     @Test
     void shouldGetAllTransactionsThrowExceptionIfUserWalletIsNotActivatedYet() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(new Wallet())
-                .enabled(true)
-                .locked(false)
-                .build();
+        Wallet wallet = new Wallet();
 
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
+        when(walletService.getWallet(principal.getWalletId())).thenReturn(wallet);
 
         doThrow(new AppException(HttpStatus.BAD_REQUEST, "User's wallet is not activated yet"))
                 .when(transactionService)
-                .getAllTransactions(user);
+                .getAllTransactions(wallet);
 
         mockMvc.perform(get("/api/v1/transactions")
                         .principal(principal)
@@ -152,8 +137,94 @@ class TransactionControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("User's wallet is not activated yet"));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
-        verify(transactionService, times(1)).getAllTransactions(user);
+        verify(walletService, times(1)).getWallet(principal.getWalletId());
+        verify(transactionService, times(1)).getAllTransactions(wallet);
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldGetTransactionsInRangeWorkCorrectly() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        Wallet wallet = Wallet.builder().id(1L).isActivated(true).build();
+
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(1L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+
+        LocalDateTime from = LocalDateTime.of(2023, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 2, 1, 0, 0);
+
+        when(walletService.getWallet(principal.getWalletId())).thenReturn(wallet);
+        when(transactionService.getTransactions(wallet, from, to)).thenReturn(List.of(TransactionResponse.from(transaction)));
+
+        mockMvc.perform(get("/api/v1/transactions")
+                        .param("from", "2023-01-01T00:00:00")
+                        .param("to", "2023-02-01T00:00:00")
+                        .principal(principal)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(1L));
+
+        verify(transactionService, times(1)).getTransactions(wallet, from, to);
+        verify(transactionService, never()).getAllTransactions(any());
+    }
+
+    @Test
+    void shouldGetTransactionsUpToAGivenTimeWorkCorrectly() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        Wallet wallet = Wallet.builder().id(1L).isActivated(true).build();
+        LocalDateTime to = LocalDateTime.of(2023, 2, 1, 0, 0);
+
+        when(walletService.getWallet(principal.getWalletId())).thenReturn(wallet);
+        when(transactionService.getTransactions(wallet, null, to)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/v1/transactions")
+                        .param("to", "2023-02-01T00:00:00")
+                        .principal(principal)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        verify(transactionService, times(1)).getTransactions(wallet, null, to);
+    }
+
+    @Test
+    void shouldGetTransactionSummaryWorkCorrectly() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        Wallet wallet = Wallet.builder().id(1L).isActivated(true).build();
+
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        LocalDate to = LocalDate.of(2023, 1, 31);
+
+        when(walletService.getWallet(principal.getWalletId())).thenReturn(wallet);
+        when(transactionService.getTransactionSummary(wallet, from, to)).thenReturn(new TransactionSummaryResponse(
+                from,
+                to,
+                List.of(new TransactionTypeSummary(TransactionType.DEPOSIT, 2L, 11.0, 0L, 0.0))
+        ));
+
+        mockMvc.perform(get("/api/v1/transactions/summary")
+                        .param("from", "2023-01-01")
+                        .param("to", "2023-01-31")
+                        .principal(principal)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totals.length()").value(1))
+                .andExpect(jsonPath("$.totals[0].transactionType").value(TransactionType.DEPOSIT.toString()))
+                .andExpect(jsonPath("$.totals[0].inflowCount").value(2))
+                .andExpect(jsonPath("$.totals[0].inflowAmount").value(11.0));
+
+        verify(transactionService, times(1)).getTransactionSummary(wallet, from, to);
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.wallet.controller;
 
+import com.example.wallet.dto.response.WalletResponse;
 import com.example.wallet.entity.Currency;
 import com.example.wallet.entity.User;
 import com.example.wallet.entity.Wallet;
 import com.example.wallet.exception.AppException;
 import com.example.wallet.exception.AppExceptionHandler;
+import com.example.wallet.ledger.LedgerEngine;
+import com.example.wallet.security.jwt.JWTPrincipal;
+import com.example.wallet.service.TransferBatcher;
 import com.example.wallet.service.UserService;
 import com.example.wallet.service.WalletService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -14,11 +19,14 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.security.Principal;
+import java.util.Optional;
 
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -35,20 +43,23 @@ class WalletControllerTest {
     @Mock
     private UserService userService;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(walletController, "meterRegistry", meterRegistry);
         mockMvc = MockMvcBuilders
                 .standaloneSetup(walletController)
-                .setControllerAdvice(new AppExceptionHandler())
+                .setControllerAdvice(new AppExceptionHandler(meterRegistry))
                 .build();
     }
 
     @Test
     void shouldDepositAmountToWalletAPIWorkCorrectly() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         Wallet wallet = Wallet.builder()
                 .id(1L)
@@ -57,18 +68,6 @@ class WalletControllerTest {
                 .isActivated(true)
                 .build();
 
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
-
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
         when(walletService.depositAmountToWallet(100.0, wallet.getId())).thenReturn(wallet);
 
         mockMvc.perform(put("/api/v1/wallet/deposit")
@@ -84,36 +83,13 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.amount").value(100))
                 .andExpect(jsonPath("$.currency").value(Currency.RUPEE.toString()));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
+        verify(userService, never()).loadUser(any());
         verify(walletService, times(1)).depositAmountToWallet(100.0, wallet.getId());
     }
 
     @Test
     void shouldDepositAmountToWalletAPIWorkThrowAnErrorIfTryingToDepositZeroOrLessAmount() throws Exception {
-        Principal principal = () -> "testUser";
-
-        Wallet wallet = Wallet.builder()
-                .id(1L)
-                .amount(0.0)
-                .currency(Currency.RUPEE)
-                .build();
-
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
-
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
-
-        doThrow(new AppException(HttpStatus.BAD_REQUEST, "Cannot deposit 0 or less amount"))
-                .when(walletService)
-                .depositAmountToWallet(-1, 1L);
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         mockMvc.perform(put("/api/v1/wallet/deposit")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -125,15 +101,15 @@ class WalletControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.success").value(false))
-                .andExpect(jsonPath("$.message").value("Cannot deposit 0 or less amount"));
+                .andExpect(jsonPath("$.message").value("Amount must be greater than 0"));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
-        verify(walletService, times(1)).depositAmountToWallet(-1.0, wallet.getId());
+        verify(userService, never()).loadUser(any());
+        verify(walletService, never()).depositAmountToWallet(anyDouble(), anyLong());
     }
 
     @Test
     void shouldDepositAmountToWalletAPIWorkThrowAnErrorIfWalletDoesNotExist() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         Wallet wallet = Wallet.builder()
                 .id(1L)
@@ -141,18 +117,6 @@ class WalletControllerTest {
                 .currency(Currency.RUPEE)
                 .build();
 
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
-
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
 
         doThrow(new AppException(HttpStatus.NOT_FOUND, "Wallet Not found"))
                 .when(walletService)
@@ -170,13 +134,13 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Wallet Not found"));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
+        verify(userService, never()).loadUser(any());
         verify(walletService, times(1)).depositAmountToWallet(5.0, wallet.getId());
     }
 
     @Test
     void shouldWithdrawAmountFromAPIWorkCorrectly() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         Wallet wallet = Wallet.builder()
                 .id(1L)
@@ -185,18 +149,6 @@ class WalletControllerTest {
                 .isActivated(true)
                 .build();
 
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
-
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
         when(walletService.withDrawAmountFromWallet(9.0, wallet.getId())).thenReturn(wallet);
 
         mockMvc.perform(put("/api/v1/wallet/withdraw")
@@ -212,36 +164,13 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.amount").value(9.0))
                 .andExpect(jsonPath("$.currency").value(Currency.RUPEE.toString()));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
+        verify(userService, never()).loadUser(any());
         verify(walletService, times(1)).withDrawAmountFromWallet(9.0, wallet.getId());
     }
 
     @Test
     void shouldWithdrawAmountFromWalletAPIWorkThrowAnErrorIfTryingToWithdrawZeroOrLessAmount() throws Exception {
-        Principal principal = () -> "testUser";
-
-        Wallet wallet = Wallet.builder()
-                .id(1L)
-                .amount(0.0)
-                .currency(Currency.RUPEE)
-                .build();
-
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
-
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
-
-        doThrow(new AppException(HttpStatus.BAD_REQUEST, "Cannot withdraw 0 or less amount"))
-                .when(walletService)
-                .withDrawAmountFromWallet(-1, 1L);
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         mockMvc.perform(put("/api/v1/wallet/withdraw")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -253,15 +182,15 @@ class WalletControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.success").value(false))
-                .andExpect(jsonPath("$.message").value("Cannot withdraw 0 or less amount"));
+                .andExpect(jsonPath("$.message").value("Amount must be greater than 0"));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
-        verify(walletService, times(1)).withDrawAmountFromWallet(-1.0, wallet.getId());
+        verify(userService, never()).loadUser(any());
+        verify(walletService, never()).withDrawAmountFromWallet(anyDouble(), anyLong());
     }
 
     @Test
     void shouldWithdrawAmountFromWalletAPIWorkThrowAnErrorIfWalletDoesNotExist() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         Wallet wallet = Wallet.builder()
                 .id(1L)
@@ -269,18 +198,6 @@ class WalletControllerTest {
                 .currency(Currency.RUPEE)
                 .build();
 
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
-
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
 
         doThrow(new AppException(HttpStatus.NOT_FOUND, "Wallet Not found"))
                 .when(walletService)
@@ -298,13 +215,13 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Wallet Not found"));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
+        verify(userService, never()).loadUser(any());
         verify(walletService, times(1)).withDrawAmountFromWallet(5.0, wallet.getId());
     }
 
     @Test
     void shouldWithdrawAmountFromWalletAPIWorkThrowAnErrorIfTryingToWithdrawMoreThanTheExistingAmount() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         Wallet wallet = Wallet.builder()
                 .id(1L)
@@ -312,18 +229,6 @@ class WalletControllerTest {
                 .currency(Currency.RUPEE)
                 .build();
 
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
-
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
 
         doThrow(new AppException(HttpStatus.BAD_REQUEST, "Amount exceeded current balance in wallet"))
                 .when(walletService)
@@ -341,49 +246,67 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.success").value(false))
                 .andExpect(jsonPath("$.message").value("Amount exceeded current balance in wallet"));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
+        verify(userService, never()).loadUser(any());
         verify(walletService, times(1)).withDrawAmountFromWallet(5.0, wallet.getId());
     }
 
     @Test
     void shouldFetchWalletAPIWorkCorrectly() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
-        Wallet wallet = Wallet.builder()
+        WalletResponse wallet = new WalletResponse(1L, 0.0, Currency.RUPEE, true);
+
+        when(walletService.getWalletResponse(principal.getWalletId())).thenReturn(wallet);
+
+        mockMvc.perform(get("/api/v1/wallet")
+                        .principal(principal)
+                )
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.amount").value(0.0))
+                .andExpect(jsonPath("$.activated").value(true))
+                .andExpect(jsonPath("$.user").doesNotExist());
+
+        verify(userService, never()).loadUserWithWallet(any());
+        verify(walletService, times(1)).getWalletResponse(principal.getWalletId());
+    }
+
+    @Test
+    void shouldFetchWalletAPIServeTheLedgerBalanceWhenTheWalletIsLoaded() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        LedgerEngine ledgerEngine = mock(LedgerEngine.class);
+        ReflectionTestUtils.setField(walletController, "ledgerEngine", ledgerEngine);
+
+        when(ledgerEngine.findLoadedWallet(1L)).thenReturn(Optional.of(Wallet.builder()
                 .id(1L)
-                .amount(0.0)
+                .amount(150.0)
                 .currency(Currency.RUPEE)
-                .build();
+                .isActivated(true)
+                .build()));
 
-        User user = User.builder()
-                .id(1L)
-                .firstName("Faiz")
-                .lastName("Shah")
-                .email("faizbshah2001@gmail.com")
-                .password("helloworld")
-                .wallet(wallet)
-                .enabled(true)
-                .locked(false)
-                .build();
+        mockMvc.perform(get("/api/v1/wallet")
+                        .principal(principal)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(150.0));
 
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
-        when(walletService.getUserWallet(user)).thenReturn(wallet);
+        when(ledgerEngine.findLoadedWallet(1L)).thenReturn(Optional.empty());
+        when(walletService.getWalletResponse(1L)).thenReturn(new WalletResponse(1L, 120.0, Currency.RUPEE, true));
 
         mockMvc.perform(get("/api/v1/wallet")
                         .principal(principal)
                 )
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.id").value(1))
-                .andExpect(jsonPath("$.amount").value(0.0));
+                .andExpect(jsonPath("$.amount").value(120.0));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
-        verify(walletService, times(1)).getUserWallet(user);
+        verify(walletService, times(1)).getWalletResponse(1L);
     }
 
     @Test
     void shouldActivateWalletAPIWorkCorrectly() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         Wallet wallet = Wallet.builder()
                 .id(1L)
@@ -401,7 +324,7 @@ class WalletControllerTest {
                 .locked(false)
                 .build();
 
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
+        when(userService.loadUserWithWallet(principal.getName())).thenReturn(user);
         when(walletService.activateWallet(user, Currency.RUPEE)).thenReturn(wallet);
 
         mockMvc.perform(put("/api/v1/wallet/activate")
@@ -417,13 +340,13 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.amount").value(0.0))
                 .andExpect(jsonPath("$.currency").value("RUPEE"));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
+        verify(userService, times(1)).loadUserWithWallet(principal.getName());
         verify(walletService, times(1)).activateWallet(user, Currency.RUPEE);
     }
 
     @Test
     void shouldTransferAmountToWalletAPIWorkCorrectly() throws Exception {
-        Principal principal = () -> "testUser";
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
 
         Wallet wallet = Wallet.builder()
                 .id(1L)
@@ -448,7 +371,7 @@ class WalletControllerTest {
                 .locked(false)
                 .build();
 
-        when(userService.loadUserByUsername(principal.getName())).thenReturn(user);
+        when(userService.loadUserWithWallet(principal.getName())).thenReturn(user);
         when(walletService.transferAmountToWallet(5.0, user, 2L)).thenReturn(expectedWallet);
 
         mockMvc.perform(put("/api/v1/wallet/transfer")
@@ -465,8 +388,107 @@ class WalletControllerTest {
                 .andExpect(jsonPath("$.amount").value(5.0))
                 .andExpect(jsonPath("$.currency").value("RUPEE"));
 
-        verify(userService, times(1)).loadUserByUsername(principal.getName());
+        verify(userService, times(1)).loadUserWithWallet(principal.getName());
         verify(walletService, times(1)).transferAmountToWallet(5.0, user, 2L);
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldTransferAmountToWalletAPIBatchTransfersByThePrincipalWallet() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        TransferBatcher transferBatcher = mock(TransferBatcher.class);
+        ReflectionTestUtils.setField(walletController, "transferBatcher", transferBatcher);
+
+        when(transferBatcher.transferAmountToWallet(5.0, 1L, 2L)).thenReturn(Wallet.builder()
+                .id(1L)
+                .amount(5.0)
+                .currency(Currency.RUPEE)
+                .build());
+
+        mockMvc.perform(put("/api/v1/wallet/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amount\": 5.0, \"walletId\": 2}")
+                        .principal(principal)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(5.0));
+
+        verify(userService, never()).loadUserWithWallet(any());
+    }
+
+    @Test
+    void shouldTransferAmountToWalletAPIThrowAnErrorIfWalletIdIsMissing() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        mockMvc.perform(put("/api/v1/wallet/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\n" +
+                                "\t\"amount\": 5.0\n" +
+                                "}")
+                        .principal(principal)
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false))
+                .andExpect(jsonPath("$.code").value("VALIDATION_FAILED"))
+                .andExpect(jsonPath("$.message").value("Wallet id is required"));
+
+        verify(userService, never()).loadUserWithWallet(principal.getName());
+    }
+
+    @Test
+    void shouldTransferAmountToWalletAPIReportTheFirstViolationByField() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(put("/api/v1/wallet/transfer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\n" +
+                                    "\t\"amount\": -5.0\n" +
+                                    "}")
+                            .principal(principal)
+                    )
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.code").value("VALIDATION_FAILED"))
+                    .andExpect(jsonPath("$.message").value("Amount must be greater than 0"));
+        }
+
+        assertEquals(3, meterRegistry.get("wallet.validation.rejections").tag("field", "amount").tag("reason", "Positive").counter().count());
+        assertEquals(3, meterRegistry.get("wallet.validation.rejections").tag("field", "walletId").tag("reason", "NotNull").counter().count());
+        verify(walletService, never()).transferAmountToWallet(any(), any(), any());
+    }
+
+    @Test
+    void shouldTransferAmountToWalletAPIThrowAnErrorIfTransferringToOwnWallet() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        mockMvc.perform(put("/api/v1/wallet/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\n" +
+                                "\t\"amount\": 5.0,\n" +
+                                "\t\"walletId\": 1\n" +
+                                "}")
+                        .principal(principal)
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value("SELF_TRANSFER"))
+                .andExpect(jsonPath("$.message").value("Cannot transfer money to your own wallet"));
+
+        verify(walletService, never()).transferAmountToWallet(any(), any(), any());
+        assertEquals(1, meterRegistry.get("wallet.validation.rejections").tag("field", "walletId").tag("reason", "SelfTransfer").counter().count());
+    }
+
+    @Test
+    void shouldActivateWalletAPIThrowAnErrorIfCurrencyIsMissing() throws Exception {
+        JWTPrincipal principal = new JWTPrincipal(1L, 1L, "testUser", 0, "jti", null);
+
+        mockMvc.perform(put("/api/v1/wallet/activate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}")
+                        .principal(principal)
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid Currency"));
+
+        verify(userService, never()).loadUserWithWallet(principal.getName());
+    }
+}
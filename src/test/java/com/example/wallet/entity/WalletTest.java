@@ -226,4 +226,31 @@ class WalletTest {
         assertEquals("Cannot transfer more than your current balance", exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldDepositMoneyNotChangeAmountOfStripedWallet() {
+        Wallet wallet = Wallet.builder()
+                .id(1L)
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .stripeCount(4)
+                .build();
+
+        Transaction transaction = wallet.depositMoney(5.0);
+
+        assertEquals(0.0, wallet.getAmount());
+        assertEquals(5.0, transaction.getToWalletAmount());
+        assertTrue(transaction.isValidDepositTransaction());
+    }
+
+    @Test
+    void shouldGetBalanceReturnStripeBalanceOfStripedWallet() {
+        Wallet wallet = Wallet.builder()
+                .amount(0.0)
+                .stripeCount(4)
+                .stripeBalance(15.0)
+                .build();
+
+        assertEquals(15.0, wallet.getBalance());
+    }
+}
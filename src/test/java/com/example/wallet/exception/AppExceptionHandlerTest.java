@@ -0,0 +1,64 @@
+package com.example.wallet.exception;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppExceptionHandlerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AppExceptionHandler appExceptionHandler = new AppExceptionHandler(meterRegistry);
+
+    @Test
+    void shouldCreateClientErrorsWithoutStackTrace() {
+        assertEquals(0, new AppException(ErrorCode.INSUFFICIENT_BALANCE, "Amount exceeded current balance in wallet").getStackTrace().length);
+        assertTrue(new AppException(ErrorCode.SERVICE_BUSY, "Ledger is not accepting requests").getStackTrace().length > 0);
+        assertTrue(new AppException(ErrorCode.INVALID_TOKEN, "Invalid Request", true).getStackTrace().length > 0);
+    }
+
+    @Test
+    void shouldTakeStatusFromErrorCode() {
+        AppException exception = new AppException(ErrorCode.RECIPIENT_WALLET_NOT_FOUND, "The wallet you are trying to transfer does not exist");
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertEquals(ErrorCode.UNCATEGORIZED, new AppException(HttpStatus.BAD_REQUEST, "Invalid Request").getCode());
+    }
+
+    @Test
+    void shouldWriteCachedErrorBodyAndCountErrorByCodeAndEndpoint() {
+        AppException exception = new AppException(ErrorCode.INSUFFICIENT_BALANCE, "Amount exceeded current balance in wallet");
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/api/v1/wallet/withdraw");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/wallet/withdraw");
+
+        ResponseEntity<byte[]> first = appExceptionHandler.appException(exception, new ServletWebRequest(request));
+        ResponseEntity<byte[]> second = appExceptionHandler.appException(exception, null);
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, first.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, first.getHeaders().getContentType());
+        assertEquals("{\"success\":false,\"code\":\"INSUFFICIENT_BALANCE\",\"message\":\"Amount exceeded current balance in wallet\"}", new String(first.getBody(), StandardCharsets.UTF_8));
+        assertSame(first.getBody(), second.getBody());
+
+        assertEquals(1, meterRegistry.get("wallet.errors").tag("code", "INSUFFICIENT_BALANCE").tag("endpoint", "/api/v1/wallet/withdraw").counter().count());
+        assertEquals(1, meterRegistry.get("wallet.errors").tag("code", "INSUFFICIENT_BALANCE").tag("endpoint", "unknown").counter().count());
+    }
+
+    @Test
+    void shouldStopCachingOnceTheCacheIsFull() {
+        for (int i = 0; i < AppExceptionHandler.MAX_CACHED_BODIES; i++) {
+            appExceptionHandler.errorBody(ErrorCode.UNCATEGORIZED, "message " + i);
+        }
+
+        assertNotSame(appExceptionHandler.errorBody(ErrorCode.UNCATEGORIZED, "one more"), appExceptionHandler.errorBody(ErrorCode.UNCATEGORIZED, "one more"));
+        assertSame(appExceptionHandler.errorBody(ErrorCode.UNCATEGORIZED, "message 0"), appExceptionHandler.errorBody(ErrorCode.UNCATEGORIZED, "message 0"));
+    }
+}
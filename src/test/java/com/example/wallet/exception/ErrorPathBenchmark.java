@@ -0,0 +1,52 @@
+package com.example.wallet.exception;
+
+import com.example.wallet.dto.response.ErrorResponseMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares throwing a business error with a captured stack trace and serializing its body on every
+ * request against the stackless exception and the cached body of {@link AppExceptionHandler}. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.wallet.exception.ErrorPathBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    private static final String MESSAGE = "Amount exceeded current balance in wallet";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AppExceptionHandler appExceptionHandler = new AppExceptionHandler(new SimpleMeterRegistry());
+
+    @Benchmark
+    public byte[] stackTraceAndSerialization() throws Exception {
+        try {
+            throw new AppException(ErrorCode.INSUFFICIENT_BALANCE, MESSAGE, true);
+        } catch (AppException e) {
+            return objectMapper.writeValueAsBytes(new ErrorResponseMessage(false, e.getCode(), e.getMessage()));
+        }
+    }
+
+    @Benchmark
+    public byte[] stacklessAndCachedBody() {
+        try {
+            throw new AppException(ErrorCode.INSUFFICIENT_BALANCE, MESSAGE);
+        } catch (AppException e) {
+            return appExceptionHandler.appException(e, null).getBody();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ErrorPathBenchmark.class.getSimpleName()).build()).run();
+    }
+}
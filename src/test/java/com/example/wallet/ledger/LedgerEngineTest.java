@@ -0,0 +1,208 @@
+package com.example.wallet.ledger;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.limits.VelocityLimiter;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.rates.RateSet;
+import com.example.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LedgerEngineTest {
+
+    @InjectMocks
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private LedgerProjector ledgerProjector;
+
+    @Mock
+    private ConversionRates conversionRates;
+
+    @TempDir
+    Path directory;
+
+    private final List<LedgerEntry> projectedEntries = new ArrayList<>();
+    private final AtomicLong projectedSequence = new AtomicLong();
+    private final Queue<Long> parkedWallets = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        ReflectionTestUtils.setField(ledgerEngine, "directory", directory.toString());
+        ReflectionTestUtils.setField(ledgerEngine, "segmentSize", 4096);
+        ReflectionTestUtils.setField(ledgerEngine, "queueCapacity", 16);
+        ReflectionTestUtils.setField(ledgerEngine, "batchSize", 8);
+        ReflectionTestUtils.setField(ledgerEngine, "cacheSize", 16);
+
+        when(conversionRates.forConversion(any(), any())).thenReturn(RateSet.DEFAULT);
+        doAnswer(invocation -> projectedEntries.addAll(invocation.getArgument(0))).when(ledgerProjector).enqueue(any());
+        when(ledgerProjector.getProjectedSequence()).thenAnswer(invocation -> projectedSequence.get());
+        when(ledgerProjector.pollParkedWallet()).thenAnswer(invocation -> parkedWallets.poll());
+
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet(1L, 100.0, true)));
+        when(walletRepository.findById(2L)).thenReturn(Optional.of(wallet(2L, 0.0, true)));
+        when(walletRepository.findById(3L)).thenReturn(Optional.of(wallet(3L, 0.0, false)));
+
+        ledgerEngine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ledgerEngine.stop();
+    }
+
+    @Test
+    void shouldApplyCommandsToInMemoryBalances() {
+        assertEquals(150.0, ledgerEngine.depositAmountToWallet(50.0, 1L).getAmount());
+        assertEquals(130.0, ledgerEngine.withDrawAmountFromWallet(20.0, 1L).getAmount());
+        assertEquals(100.0, ledgerEngine.transferAmountToWallet(30.0, 1L, 2L).getAmount());
+        assertEquals(40.0, ledgerEngine.depositAmountToWallet(10.0, 2L).getAmount());
+
+        verify(walletRepository, times(1)).findById(1L);
+        verify(walletRepository, times(1)).findById(2L);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), projectedEntries.stream().map(LedgerEntry::sequence).toList());
+        assertEquals(TransactionType.TRANSFER, projectedEntries.get(2).transactionType());
+        assertEquals(100.0, projectedEntries.get(2).fromWalletBalance());
+        assertEquals(30.0, projectedEntries.get(2).toWalletBalance());
+    }
+
+    @Test
+    void shouldThrowErrorsWithoutWritingEntries() {
+        AppException insufficientBalance = assertThrows(AppException.class, () -> ledgerEngine.withDrawAmountFromWallet(500.0, 1L));
+        AppException notActivated = assertThrows(AppException.class, () -> ledgerEngine.transferAmountToWallet(10.0, 1L, 3L));
+        AppException notFound = assertThrows(AppException.class, () -> ledgerEngine.depositAmountToWallet(10.0, 4L));
+        AppException invalidAmount = assertThrows(AppException.class, () -> ledgerEngine.depositAmountToWallet(-1.0, 1L));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, insufficientBalance.getStatus());
+        assertEquals("The wallet you are trying to transfer is not activated yet", notActivated.getMessage());
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatus());
+        assertEquals(HttpStatus.BAD_REQUEST, invalidAmount.getStatus());
+        assertTrue(projectedEntries.isEmpty());
+    }
+
+    @Test
+    void shouldCheckVelocityLimitsAndGiveBackUsageOfRejectedCommands() {
+        VelocityLimiter velocityLimiter = mock(VelocityLimiter.class);
+        ReflectionTestUtils.setField(ledgerEngine, "velocityLimiter", velocityLimiter);
+
+        doThrow(new AppException(ErrorCode.VELOCITY_LIMIT_EXCEEDED, "Velocity limit exceeded"))
+                .when(velocityLimiter).acquire(any(), eq(TransactionType.TRANSFER), eq(30.0));
+
+        assertEquals(80.0, ledgerEngine.withDrawAmountFromWallet(20.0, 1L).getAmount());
+        assertThrows(AppException.class, () -> ledgerEngine.withDrawAmountFromWallet(500.0, 1L));
+        AppException limited = assertThrows(AppException.class, () -> ledgerEngine.transferAmountToWallet(30.0, 1L, 2L));
+
+        assertEquals("Velocity limit exceeded", limited.getMessage());
+        assertEquals(90.0, ledgerEngine.depositAmountToWallet(10.0, 1L).getAmount());
+        verify(velocityLimiter, times(1)).complete(true);
+        verify(velocityLimiter, times(1)).complete(false);
+        verify(velocityLimiter, never()).acquire(any(), eq(TransactionType.DEPOSIT), anyDouble());
+    }
+
+    @Test
+    void shouldReplayEntriesAfterTheCheckpointOnRestart() throws Exception {
+        ledgerEngine.depositAmountToWallet(10.0, 1L);
+        ledgerEngine.depositAmountToWallet(20.0, 1L);
+        ledgerEngine.stop();
+
+        when(ledgerProjector.getCheckpoint()).thenReturn(1L);
+        ledgerEngine.start();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LedgerEntry>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ledgerProjector, times(2)).replay(captor.capture());
+
+        List<LedgerEntry> replayed = captor.getAllValues().get(1);
+
+        assertEquals(1, replayed.size());
+        assertEquals(2L, replayed.get(0).sequence());
+        assertEquals(130.0, replayed.get(0).toWalletBalance());
+
+        ledgerEngine.depositAmountToWallet(1.0, 2L);
+
+        assertEquals(3L, projectedEntries.get(projectedEntries.size() - 1).sequence());
+    }
+
+    @Test
+    void shouldServeLoadedWalletsAndEvictThemOnceProjected() {
+        ReflectionTestUtils.setField(ledgerEngine, "cacheSize", 1);
+
+        ledgerEngine.depositAmountToWallet(50.0, 1L);
+        ledgerEngine.depositAmountToWallet(10.0, 2L);
+
+        assertEquals(150.0, ledgerEngine.findLoadedWallet(1L).orElseThrow().getAmount());
+        assertEquals(10.0, ledgerEngine.findLoadedWallet(2L).orElseThrow().getAmount());
+
+        projectedSequence.set(2L);
+
+        assertEquals(10.0, ledgerEngine.findLoadedWallet(2L).orElseThrow().getAmount());
+        assertTrue(ledgerEngine.findLoadedWallet(1L).isEmpty());
+
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet(1L, 150.0, true)));
+
+        assertEquals(155.0, ledgerEngine.depositAmountToWallet(5.0, 1L).getAmount());
+        verify(walletRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void shouldReloadInvalidatedAndParkedWalletsOnceProjected() {
+        ledgerEngine.depositAmountToWallet(50.0, 1L);
+        ledgerEngine.depositAmountToWallet(10.0, 2L);
+
+        ledgerEngine.invalidate(1L);
+        parkedWallets.add(2L);
+
+        assertEquals(150.0, ledgerEngine.findLoadedWallet(1L).orElseThrow().getAmount());
+        assertEquals(10.0, ledgerEngine.findLoadedWallet(2L).orElseThrow().getAmount());
+
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet(1L, 175.0, true)));
+        when(walletRepository.findById(2L)).thenReturn(Optional.of(wallet(2L, 0.0, true)));
+        projectedSequence.set(2L);
+
+        assertTrue(ledgerEngine.findLoadedWallet(1L).isEmpty());
+        assertTrue(ledgerEngine.findLoadedWallet(2L).isEmpty());
+        assertEquals(180.0, ledgerEngine.depositAmountToWallet(5.0, 1L).getAmount());
+        assertEquals(5.0, ledgerEngine.depositAmountToWallet(5.0, 2L).getAmount());
+    }
+
+    private Wallet wallet(Long id, double amount, boolean activated) {
+        return Wallet.builder()
+                .id(id)
+                .amount(amount)
+                .currency(Currency.RUPEE)
+                .isActivated(activated)
+                .build();
+    }
+}
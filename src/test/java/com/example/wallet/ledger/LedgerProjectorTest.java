@@ -0,0 +1,130 @@
+package com.example.wallet.ledger;
+
+import com.example.wallet.entity.Checkpoint;
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.repository.CheckpointRepository;
+import com.example.wallet.repository.LedgerDeadLetterRepository;
+import com.example.wallet.repository.WalletRepository;
+import com.example.wallet.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class LedgerProjectorTest {
+
+    @InjectMocks
+    private LedgerProjector ledgerProjector;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private CheckpointRepository checkpointRepository;
+
+    @Mock
+    private LedgerDeadLetterRepository ledgerDeadLetterRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(ledgerProjector, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(ledgerProjector, "batchSize", 2);
+        ReflectionTestUtils.setField(ledgerProjector, "retryDelayMs", 1L);
+        ReflectionTestUtils.setField(ledgerProjector, "maxAttempts", 2);
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void shouldReplayRecoveredEntriesInBatches() throws Exception {
+        ledgerProjector.replay(LongStream.rangeClosed(1, 5).mapToObj(sequence -> deposit(sequence, 10.0)).toList());
+
+        ArgumentCaptor<Checkpoint> checkpoints = ArgumentCaptor.forClass(Checkpoint.class);
+        verify(checkpointRepository, times(3)).save(checkpoints.capture());
+
+        assertEquals(List.of(2L, 4L, 5L), checkpoints.getAllValues().stream().map(Checkpoint::getPosition).toList());
+        verify(transactionService, times(5)).createDepositTransaction(any(Transaction.class));
+        verify(walletRepository, times(2)).addAmount(1L, 20.0);
+        verify(walletRepository, times(1)).addAmount(1L, 10.0);
+        assertEquals(5L, ledgerProjector.getProjectedSequence());
+    }
+
+    @Test
+    void shouldProjectBalancesAsDeltas() {
+        ledgerProjector.project(List.of(
+                deposit(1, 10.0),
+                new LedgerEntry(2, TransactionType.TRANSFER, 1L, 4.0, Currency.RUPEE, 106.0,
+                        2L, 2.0, Currency.DOLLAR, 2.0, 0L, LocalDateTime.of(2023, 1, 1, 10, 10)),
+                new LedgerEntry(3, TransactionType.WITHDRAW, 2L, 1.0, Currency.DOLLAR, 1.0,
+                        2L, 1.0, Currency.DOLLAR, 1.0, null, LocalDateTime.of(2023, 1, 1, 10, 10))
+        ));
+
+        verify(walletRepository, times(1)).addAmount(1L, 6.0);
+        verify(walletRepository, times(1)).addAmount(2L, 1.0);
+        verify(transactionService, times(1)).createTransferTransaction(any(Transaction.class));
+        verify(transactionService, times(1)).createWithdrawTransaction(any(Transaction.class));
+    }
+
+    @Test
+    void shouldParkAnEntryWhichKeepsFailingAndProjectTheRest() throws Exception {
+        doThrow(new DataIntegrityViolationException("value too long"))
+                .when(transactionService).createDepositTransaction(argThat(transaction -> transaction.getToWalletAmount() == 13.0));
+
+        ledgerProjector.replay(List.of(deposit(1, 10.0), deposit(2, 13.0)));
+
+        ArgumentCaptor<LedgerEntry> parked = ArgumentCaptor.forClass(LedgerEntry.class);
+        verify(ledgerDeadLetterRepository, times(1)).insert(parked.capture(), anyString());
+
+        assertEquals(2L, parked.getValue().sequence());
+        assertEquals(1.0, meterRegistry.get("wallet.ledger.dead.letters").counter().count());
+
+        ArgumentCaptor<Checkpoint> checkpoints = ArgumentCaptor.forClass(Checkpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(checkpoints.capture());
+
+        assertEquals(2L, checkpoints.getValue().getPosition());
+        verify(walletRepository, times(1)).addAmount(1L, 10.0);
+        verify(walletRepository, never()).addAmount(1L, 13.0);
+        assertEquals(1L, ledgerProjector.pollParkedWallet());
+        assertEquals(1L, ledgerProjector.pollParkedWallet());
+        assertNull(ledgerProjector.pollParkedWallet());
+    }
+
+    private LedgerEntry deposit(long sequence, double amount) {
+        return new LedgerEntry(sequence, TransactionType.DEPOSIT, 1L, amount, Currency.RUPEE, 100.0,
+                1L, amount, Currency.RUPEE, 100.0, null, LocalDateTime.of(2023, 1, 1, 10, 10));
+    }
+}
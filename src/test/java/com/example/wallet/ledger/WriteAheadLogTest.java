@@ -0,0 +1,86 @@
+package com.example.wallet.ledger;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldRecoverAppendedEntriesAfterReopening() throws Exception {
+        List<LedgerEntry> entries = List.of(entry(1), entry(2), entry(3));
+
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(directory, 1024)) {
+            writeAheadLog.append(entries);
+        }
+
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(directory, 1024)) {
+            assertEquals(entries, writeAheadLog.getRecoveredEntries());
+
+            writeAheadLog.append(List.of(entry(4)));
+        }
+
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(directory, 1024)) {
+            assertEquals(4, writeAheadLog.getRecoveredEntries().size());
+            assertEquals(entry(4), writeAheadLog.getRecoveredEntries().get(3));
+        }
+    }
+
+    @Test
+    void shouldRollSegmentsAndTruncateCommittedOnes() throws Exception {
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(directory, WriteAheadLog.RECORD_SIZE * 2)) {
+            writeAheadLog.append(List.of(entry(1), entry(2), entry(3), entry(4), entry(5)));
+
+            assertEquals(3, segmentCount());
+
+            writeAheadLog.truncate(3);
+
+            assertEquals(2, segmentCount());
+        }
+
+        try (WriteAheadLog writeAheadLog = new WriteAheadLog(directory, WriteAheadLog.RECORD_SIZE * 2)) {
+            assertEquals(List.of(entry(3), entry(4), entry(5)), writeAheadLog.getRecoveredEntries());
+        }
+    }
+
+    @Test
+    void shouldThrowErrorIfSegmentCannotHoldARecord() {
+        assertThrows(IllegalArgumentException.class, () -> new WriteAheadLog(directory, 10));
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private LedgerEntry entry(long sequence) {
+        return new LedgerEntry(
+                sequence,
+                TransactionType.TRANSFER,
+                1L,
+                5.0,
+                Currency.RUPEE,
+                100.0 - sequence * 5,
+                2L,
+                5.0,
+                Currency.RUPEE,
+                sequence * 5,
+                sequence % 2 == 0 ? null : sequence,
+                LocalDateTime.of(2023, 1, 1, 10, 10, 10, 123_456_000)
+        );
+    }
+}
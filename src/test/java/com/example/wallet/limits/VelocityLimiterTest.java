@@ -0,0 +1,233 @@
+package com.example.wallet.limits;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.rates.RateSet;
+import com.example.wallet.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VelocityLimiterTest {
+
+    @InjectMocks
+    private VelocityLimiter velocityLimiter;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private ConversionRates conversionRates;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Instant now = Instant.parse("2023-01-01T00:00:00Z");
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(conversionRates.current()).thenReturn(RateSet.DEFAULT);
+
+        ReflectionTestUtils.setField(velocityLimiter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(velocityLimiter, "properties", new VelocityLimitProperties(List.of(
+                new VelocityLimitProperties.Rule("transfers-per-minute", TransactionType.TRANSFER, Duration.ofMinutes(1), 3, 0),
+                new VelocityLimitProperties.Rule("withdraw-amount-per-hour", TransactionType.WITHDRAW, Duration.ofHours(1), 0, 100)
+        )));
+        setClock();
+
+        velocityLimiter.init();
+
+        wallet = Wallet.builder()
+                .id(1L)
+                .amount(10000.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldRejectTransfersOverTheCountLimit() {
+        for (int i = 0; i < 3; i++) {
+            velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        }
+
+        AppException exception = assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatus());
+        assertEquals("Velocity limit transfers-per-minute exceeded, please try again later", exception.getMessage());
+        assertEquals(1, meterRegistry.get("wallet.velocity.rejections").tag("rule", "transfers-per-minute").counter().count());
+
+        velocityLimiter.acquire(wallet, TransactionType.WITHDRAW, 1.0);
+        velocityLimiter.acquire(Wallet.builder().id(2L).currency(Currency.DOLLAR).build(), TransactionType.TRANSFER, 1.0);
+    }
+
+    @Test
+    void shouldRejectWithdrawsOverTheAmountLimitInDollars() {
+        velocityLimiter.acquire(wallet, TransactionType.WITHDRAW, 4000.0);
+        velocityLimiter.acquire(wallet, TransactionType.WITHDRAW, 2400.0);
+
+        AppException exception = assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.WITHDRAW, 1602.0));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatus());
+
+        velocityLimiter.acquire(wallet, TransactionType.WITHDRAW, 1600.0);
+    }
+
+    @Test
+    void shouldAllowTransfersAgainOnceTheWindowSlides() {
+        for (int i = 0; i < 3; i++) {
+            velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+            now = now.plusSeconds(10);
+            setClock();
+        }
+
+        assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0));
+
+        now = now.plusSeconds(31);
+        setClock();
+
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+
+        assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0));
+    }
+
+    @Test
+    void shouldReleaseUsageWhenTheTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        for (int i = 0; i < 3; i++) {
+            velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        }
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+
+        synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        for (int i = 0; i < 3; i++) {
+            velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        }
+
+        assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0));
+    }
+
+    @Test
+    void shouldReuseTheSynchronizationOfACommittedTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        TransactionSynchronization first = TransactionSynchronizationManager.getSynchronizations().get(0);
+        first.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        TransactionSynchronization second = TransactionSynchronizationManager.getSynchronizations().get(0);
+        second.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertSame(first, second);
+
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0));
+    }
+
+    @Test
+    void shouldGiveBackUsageOutsideATransactionUnlessApplied() {
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        velocityLimiter.complete(true);
+
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        velocityLimiter.complete(false);
+
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0));
+    }
+
+    @Test
+    void shouldWarmUpFromRecentTransactions() {
+        LocalDateTime current = LocalDateTime.ofInstant(now, ZoneOffset.UTC);
+
+        when(transactionRepository.findAllByCreatedAtAfterAndTransactionTypeIn(current.minusHours(1), List.of(TransactionType.TRANSFER, TransactionType.WITHDRAW)))
+                .thenReturn(List.of(
+                        transaction(TransactionType.TRANSFER, 1.0, current.minusSeconds(20)),
+                        transaction(TransactionType.TRANSFER, 1.0, current.minusSeconds(10)),
+                        transaction(TransactionType.TRANSFER, 1.0, current.minusMinutes(5)),
+                        transaction(TransactionType.WITHDRAW, 7960.0, current.minusMinutes(30))
+                ));
+
+        velocityLimiter.warmUp();
+
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+        assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0));
+
+        velocityLimiter.acquire(wallet, TransactionType.WITHDRAW, 40.0);
+        assertThrows(AppException.class, () -> velocityLimiter.acquire(wallet, TransactionType.WITHDRAW, 40.0));
+    }
+
+    @Test
+    void shouldEvictIdleWallets() {
+        velocityLimiter.acquire(wallet, TransactionType.TRANSFER, 1.0);
+
+        velocityLimiter.evictIdle();
+        assertEquals(1, velocityLimiter.getTrackedWallets());
+
+        now = now.plus(Duration.ofHours(2));
+        setClock();
+
+        velocityLimiter.evictIdle();
+        assertEquals(0, velocityLimiter.getTrackedWallets());
+    }
+
+    private Transaction transaction(TransactionType type, double amount, LocalDateTime createdAt) {
+        return Transaction.builder()
+                .fromWalletId(wallet.getId())
+                .fromWalletAmount(amount)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(wallet.getId())
+                .toWalletAmount(amount)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(type)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private void setClock() {
+        ReflectionTestUtils.setField(velocityLimiter, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.wallet.rates;
+
+import com.example.wallet.entity.Currency;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares rate lookups of the precomputed {@link RateSet} matrix with dividing the currency
+ * factors on every conversion. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.wallet.rates.ConversionRatesBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionRatesBenchmark {
+
+    private final Currency[] currencies = Currency.values();
+    private final RateSet rateSet = RateSet.DEFAULT;
+    private int index;
+
+    @Benchmark
+    public double rateSetLookup() {
+        Currency from = currencies[index++ & 3];
+        Currency to = currencies[index & 3];
+        return rateSet.convert(from, to, 12.5);
+    }
+
+    @Benchmark
+    public double factorDivision() {
+        Currency from = currencies[index++ & 3];
+        Currency to = currencies[index & 3];
+        return 12.5 * (to.getCurrencyToDollarConversionFactor().doubleValue() / from.getCurrencyToDollarConversionFactor().doubleValue());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ConversionRatesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
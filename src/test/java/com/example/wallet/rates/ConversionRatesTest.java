@@ -0,0 +1,203 @@
+package com.example.wallet.rates;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.exception.AppException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import com.example.wallet.repository.RateSetRepository;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConversionRatesTest {
+
+    @InjectMocks
+    private ConversionRates conversionRates;
+
+    @Mock
+    private RateProvider rateProvider;
+
+    @Mock
+    private RateSetRepository rateSetRepository;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Instant now = Instant.parse("2023-01-01T00:00:00Z");
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        ReflectionTestUtils.setField(conversionRates, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(conversionRates, "maxStaleness", Duration.ofMinutes(5));
+        setClock();
+
+        when(rateProvider.fetch()).thenReturn(rates(1, "100"));
+
+        conversionRates.init();
+    }
+
+    @Test
+    void shouldLoadRatesFromProviderOnStartup() {
+        RateSet rates = conversionRates.forConversion(Currency.DOLLAR, Currency.RUPEE);
+
+        assertEquals(1, rates.getVersion());
+        assertEquals(100, rates.convert(Currency.DOLLAR, Currency.RUPEE, 1));
+        assertEquals(0.5, rates.convert(Currency.RUPEE, Currency.EURO, 62.5));
+        assertTrue(conversionRates.getRateSet(0L).isPresent());
+        assertTrue(conversionRates.getRateSet(null).isPresent());
+        assertEquals(1, meterRegistry.get("wallet.rates.refresh").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("wallet.rates.version").gauge().value());
+    }
+
+    @Test
+    void shouldRefreshSwapToNewerRatesAndKeepOlderVersions() throws Exception {
+        RateSet previous = conversionRates.current();
+
+        when(rateProvider.fetch()).thenReturn(rates(2, "90"));
+        conversionRates.refresh();
+
+        assertEquals(2, conversionRates.current().getVersion());
+        assertEquals(90, conversionRates.current().convert(Currency.DOLLAR, Currency.RUPEE, 1));
+        assertSame(previous, conversionRates.getRateSet(1L).orElseThrow());
+    }
+
+    @Test
+    void shouldStoreNewRatesBeforeUsingThem() throws Exception {
+        when(rateProvider.fetch()).thenReturn(rates(2, "90"));
+        doThrow(new DataAccessResourceFailureException("unavailable")).when(rateSetRepository).insert(argThat(rates -> rates.getVersion() == 2));
+
+        conversionRates.refresh();
+
+        assertEquals(1, conversionRates.current().getVersion());
+        verify(rateSetRepository, times(1)).insert(argThat(rates -> rates.getVersion() == 1));
+    }
+
+    @Test
+    void shouldLoadStoredRatesOnStartup() throws Exception {
+        ConversionRates restarted = new ConversionRates();
+        ReflectionTestUtils.setField(restarted, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(restarted, "rateSetRepository", rateSetRepository);
+        when(rateSetRepository.findAll()).thenReturn(List.of(rates(1, "100"), rates(2, "90")));
+
+        restarted.init();
+
+        assertEquals(90, restarted.getRateSet(2L).orElseThrow().convert(Currency.DOLLAR, Currency.RUPEE, 1));
+        assertEquals(100, restarted.getRateSet(1L).orElseThrow().convert(Currency.DOLLAR, Currency.RUPEE, 1));
+        assertSame(RateSet.DEFAULT, restarted.current());
+    }
+
+    @Test
+    void shouldLookUpVersionsStoredByOtherNodes() {
+        when(rateSetRepository.findByVersion(3L)).thenReturn(Optional.of(rates(3, "85")));
+
+        assertEquals(85, conversionRates.getRateSet(3L).orElseThrow().convert(Currency.DOLLAR, Currency.RUPEE, 1));
+        assertEquals(85, conversionRates.getRateSet(3L).orElseThrow().convert(Currency.DOLLAR, Currency.RUPEE, 1));
+        assertTrue(conversionRates.getRateSet(4L).isEmpty());
+
+        verify(rateSetRepository, times(1)).findByVersion(3L);
+    }
+
+    @Test
+    void shouldRejectRatesDifferingFromTheStoredVersion() throws Exception {
+        when(rateProvider.fetch()).thenReturn(rates(2, "90"));
+        when(rateSetRepository.findByVersion(2L)).thenReturn(Optional.of(rates(2, "95")));
+
+        conversionRates.refresh();
+
+        assertEquals(1, conversionRates.current().getVersion());
+        verify(rateSetRepository, never()).insert(argThat(rates -> rates.getVersion() == 2));
+        assertEquals(1, meterRegistry.get("wallet.rates.refresh").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void shouldRefreshIgnoreOlderRates() throws Exception {
+        when(rateProvider.fetch()).thenReturn(rates(2, "90"));
+        conversionRates.refresh();
+
+        when(rateProvider.fetch()).thenReturn(rates(1, "80"));
+        conversionRates.refresh();
+
+        assertEquals(2, conversionRates.current().getVersion());
+        assertEquals(1, meterRegistry.get("wallet.rates.refresh").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void shouldRejectConversionsWhenRatesAreStale() throws Exception {
+        when(rateProvider.fetch()).thenThrow(new IOException("unavailable"));
+
+        now = now.plus(Duration.ofMinutes(4));
+        setClock();
+        conversionRates.refresh();
+
+        assertEquals(240, meterRegistry.get("wallet.rates.age").gauge().value());
+        assertEquals(1, conversionRates.forConversion(Currency.DOLLAR, Currency.RUPEE).getVersion());
+
+        now = now.plus(Duration.ofMinutes(2));
+        setClock();
+        conversionRates.refresh();
+
+        AppException exception = assertThrows(AppException.class, () -> conversionRates.forConversion(Currency.DOLLAR, Currency.RUPEE));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exception.getStatus());
+        assertEquals(1, conversionRates.forConversion(Currency.RUPEE, Currency.RUPEE).getVersion());
+        assertEquals(1, meterRegistry.get("wallet.rates.stale.rejections").counter().count());
+    }
+
+    @Test
+    void shouldUseDefaultRatesWithoutProvider() {
+        ConversionRates defaultRates = new ConversionRates();
+        ReflectionTestUtils.setField(defaultRates, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(defaultRates, "rateSetRepository", rateSetRepository);
+        defaultRates.init();
+
+        assertSame(RateSet.DEFAULT, defaultRates.forConversion(Currency.DOLLAR, Currency.EURO));
+        assertEquals(0, defaultRates.getAgeSeconds());
+    }
+
+    @Test
+    void shouldRateSetReduceRatesToExactFractions() {
+        RateSet rateSet = RateSet.of(5, Map.of(
+                Currency.DOLLAR, new BigDecimal("1"),
+                Currency.RUPEE, new BigDecimal("3"),
+                Currency.YEN, new BigDecimal("160"),
+                Currency.EURO, new BigDecimal("0.8")
+        ));
+
+        assertEquals(1.0, rateSet.convert(Currency.RUPEE, Currency.DOLLAR, 3));
+        assertEquals(0.8, rateSet.convert(Currency.DOLLAR, Currency.EURO, 1));
+        assertEquals(200, rateSet.convert(Currency.EURO, Currency.YEN, 1));
+        assertThrows(IllegalArgumentException.class, () -> RateSet.of(6, Map.of(Currency.DOLLAR, BigDecimal.ONE)));
+    }
+
+    private void setClock() {
+        ReflectionTestUtils.setField(conversionRates, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private RateSet rates(long version, String rupee) {
+        return RateSet.of(version, Map.of(
+                Currency.DOLLAR, new BigDecimal("1"),
+                Currency.RUPEE, new BigDecimal(rupee),
+                Currency.YEN, new BigDecimal("160"),
+                Currency.EURO, new BigDecimal("0.8")
+        ));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.wallet.rates;
+
+import com.example.wallet.entity.Currency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRateProviderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldFetchRatesFromFile() throws Exception {
+        Path file = directory.resolve("rates.properties");
+        Files.writeString(file, "version=3\nDOLLAR=1\nRUPEE=82.5\nYEN=160\nEURO=0.8\n");
+
+        RateSet rates = new FileRateProvider(file.toString()).fetch();
+
+        assertEquals(3, rates.getVersion());
+        assertEquals(165, rates.convert(Currency.DOLLAR, Currency.RUPEE, 2));
+    }
+
+    @Test
+    void shouldThrowErrorIfFileIsIncomplete() throws Exception {
+        Path file = directory.resolve("rates.properties");
+        Files.writeString(file, "version=3\nDOLLAR=1\n");
+
+        assertThrows(IllegalArgumentException.class, () -> new FileRateProvider(file.toString()).fetch());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.dto.response.TransactionTypeSummary;
+import com.example.wallet.entity.DailyWalletAggregate;
+import com.example.wallet.entity.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class DailyWalletAggregateRepositoryTest {
+
+    @Autowired
+    private DailyWalletAggregateRepository dailyWalletAggregateRepository;
+
+    @Test
+    void shouldMergeCreateAndThenIncrementTheAggregate() {
+        LocalDate date = LocalDate.of(2023, 1, 1);
+
+        assertEquals(1, dailyWalletAggregateRepository.merge(1L, date, "DEPOSIT", 1, 5.0, 0, 0));
+        assertEquals(1, dailyWalletAggregateRepository.merge(1L, date, "DEPOSIT", 1, 6.0, 0, 0));
+        assertEquals(1, dailyWalletAggregateRepository.merge(1L, date, "WITHDRAW", 0, 0, 1, 2.0));
+
+        List<TransactionTypeSummary> summaries = dailyWalletAggregateRepository.summarize(1L, date, date);
+
+        assertEquals(List.of(
+                new TransactionTypeSummary(TransactionType.DEPOSIT, 2L, 11.0, 0L, 0.0),
+                new TransactionTypeSummary(TransactionType.WITHDRAW, 0L, 0.0, 1L, 2.0)
+        ), summaries);
+        assertEquals(2, dailyWalletAggregateRepository.count());
+    }
+
+    @Test
+    void shouldSummarizeOnlyDaysInRange() {
+        dailyWalletAggregateRepository.saveAll(List.of(
+                DailyWalletAggregate.builder()
+                        .walletId(1L)
+                        .aggregateDate(LocalDate.of(2023, 1, 1))
+                        .transactionType(TransactionType.TRANSFER)
+                        .outflowCount(2)
+                        .outflowAmount(10.0)
+                        .build(),
+                DailyWalletAggregate.builder()
+                        .walletId(1L)
+                        .aggregateDate(LocalDate.of(2023, 1, 2))
+                        .transactionType(TransactionType.TRANSFER)
+                        .inflowCount(1)
+                        .inflowAmount(4.0)
+                        .build(),
+                DailyWalletAggregate.builder()
+                        .walletId(1L)
+                        .aggregateDate(LocalDate.of(2023, 1, 3))
+                        .transactionType(TransactionType.TRANSFER)
+                        .inflowCount(1)
+                        .inflowAmount(7.0)
+                        .build(),
+                DailyWalletAggregate.builder()
+                        .walletId(2L)
+                        .aggregateDate(LocalDate.of(2023, 1, 2))
+                        .transactionType(TransactionType.TRANSFER)
+                        .inflowCount(2)
+                        .inflowAmount(10.0)
+                        .build()
+        ));
+
+        List<TransactionTypeSummary> summaries = dailyWalletAggregateRepository.summarize(1L, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 2));
+
+        assertEquals(List.of(new TransactionTypeSummary(TransactionType.TRANSFER, 1L, 4.0, 2L, 10.0)), summaries);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.repository.HistoryOutboxRepository.OutboxEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(HistoryOutboxRepository.class)
+class HistoryOutboxRepositoryTest {
+
+    @Autowired
+    private HistoryOutboxRepository historyOutboxRepository;
+
+    @Test
+    void shouldClaimTheOldestRowsAndDeleteThem() {
+        assertTrue(historyOutboxRepository.isEmpty());
+
+        historyOutboxRepository.insert(deposit(1L, 5.0));
+        historyOutboxRepository.insert(deposit(2L, 7.0));
+        historyOutboxRepository.insert(deposit(1L, 9.0));
+
+        List<OutboxEntry> claimed = historyOutboxRepository.claim(2);
+
+        assertEquals(2, claimed.size());
+        assertEquals(1L, claimed.get(0).transaction().getToWalletId());
+        assertEquals(5.0, claimed.get(0).transaction().getToWalletAmount());
+        assertEquals(Currency.RUPEE, claimed.get(0).transaction().getToWalletCurrency());
+        assertEquals(TransactionType.DEPOSIT, claimed.get(0).transaction().getTransactionType());
+        assertEquals(LocalDateTime.of(2023, 1, 1, 10, 10), claimed.get(0).transaction().getCreatedAt());
+        assertEquals(2L, claimed.get(1).transaction().getToWalletId());
+
+        historyOutboxRepository.deleteAll(claimed);
+
+        List<OutboxEntry> remaining = historyOutboxRepository.claim(10);
+
+        assertEquals(1, remaining.size());
+        assertEquals(9.0, remaining.get(0).transaction().getToWalletAmount());
+        assertFalse(historyOutboxRepository.isEmpty());
+    }
+
+    private Transaction deposit(Long walletId, double amount) {
+        return Transaction.builder()
+                .fromWalletId(walletId)
+                .fromWalletAmount(amount)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(walletId)
+                .toWalletAmount(amount)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.ledger.LedgerEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(LedgerDeadLetterRepository.class)
+class LedgerDeadLetterRepositoryTest {
+
+    @Autowired
+    private LedgerDeadLetterRepository ledgerDeadLetterRepository;
+
+    @Test
+    void shouldInsertWorkCorrectly() {
+        ledgerDeadLetterRepository.insert(new LedgerEntry(7L, TransactionType.TRANSFER, 1L, 5.0, Currency.RUPEE, 95.0,
+                2L, 10.0, Currency.YEN, 10.0, 0L, LocalDateTime.of(2023, 1, 1, 10, 10)), "x".repeat(2000));
+
+        assertEquals(1, ledgerDeadLetterRepository.count());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.rates.RateSet;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(RateSetRepository.class)
+class RateSetRepositoryTest {
+
+    @Autowired
+    private RateSetRepository rateSetRepository;
+
+    @Test
+    void shouldInsertAndFindRateSetsWorkCorrectly() {
+        rateSetRepository.insert(rates(2, "90"));
+        rateSetRepository.insert(rates(1, "82.5"));
+
+        List<RateSet> rateSets = rateSetRepository.findAll();
+
+        assertEquals(List.of(1L, 2L), rateSets.stream().map(RateSet::getVersion).toList());
+        assertEquals(rates(1, "82.5").getFactors(), rateSets.get(0).getFactors());
+        assertEquals(90, rateSetRepository.findByVersion(2).orElseThrow().convert(Currency.DOLLAR, Currency.RUPEE, 1));
+        assertTrue(rateSetRepository.findByVersion(3).isEmpty());
+    }
+
+    @Test
+    void shouldInsertRejectStoredVersions() {
+        rateSetRepository.insert(rates(1, "90"));
+
+        assertThrows(DuplicateKeyException.class, () -> rateSetRepository.insert(rates(1, "95")));
+    }
+
+    private RateSet rates(long version, String rupee) {
+        return RateSet.of(version, Map.of(
+                Currency.DOLLAR, new BigDecimal("1"),
+                Currency.RUPEE, new BigDecimal(rupee),
+                Currency.YEN, new BigDecimal("160"),
+                Currency.EURO, new BigDecimal("0.8")
+        ));
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.RevokedToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class RevokedTokenRepositoryTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 1, 1, 10, 0);
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    void shouldFindRecentlyRevokedTokensAndDeleteExpiredOnes() {
+        revokedTokenRepository.saveAll(List.of(
+                RevokedToken.builder().tokenId("expired").expiresAt(NOW.minusMinutes(1)).revokedAt(NOW.minusHours(1)).build(),
+                RevokedToken.builder().tokenId("old").expiresAt(NOW.plusHours(1)).revokedAt(NOW.minusHours(1)).build(),
+                RevokedToken.builder().tokenId("recent").expiresAt(NOW.plusHours(1)).revokedAt(NOW.minusSeconds(10)).build()
+        ));
+
+        assertEquals(List.of("old", "recent"), revokedTokenRepository.findAllByExpiresAtAfter(NOW).stream().map(RevokedToken::getTokenId).toList());
+        assertEquals(List.of("recent"), revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(NOW.minusMinutes(1), NOW).stream().map(RevokedToken::getTokenId).toList());
+
+        assertEquals(1, revokedTokenRepository.deleteExpired(NOW));
+        assertEquals(2, revokedTokenRepository.count());
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionArchiveRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionArchiveRepository = new TransactionArchiveRepository(directory.toString());
+    }
+
+    @Test
+    void shouldWriteAndFindArchivedTransactionsWorkCorrectly() throws Exception {
+        Transaction transaction1 = Transaction.builder()
+                .id(1L)
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(2L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.TRANSFER)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+
+        Transaction transaction2 = Transaction.builder()
+                .id(2L)
+                .fromWalletId(3L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(3L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 1, 2, 10, 10))
+                .build();
+
+        write(transactionArchiveRepository, YearMonth.of(2023, 1), transaction1, transaction2);
+
+        List<Transaction> transactions = transactionArchiveRepository.findByWalletId(
+                2L,
+                LocalDateTime.of(2022, 12, 1, 0, 0),
+                LocalDateTime.of(2023, 2, 1, 0, 0)
+        );
+
+        assertEquals(1, transactions.size());
+        assertEquals(transaction1, transactions.get(0));
+    }
+
+    @Test
+    void shouldFindArchivedTransactionsRespectTheRequestedRange() throws Exception {
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(1L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 1, 15, 10, 10))
+                .build();
+
+        write(transactionArchiveRepository, YearMonth.of(2023, 1), transaction);
+
+        assertTrue(transactionArchiveRepository.findByWalletId(
+                1L,
+                LocalDateTime.of(2023, 1, 16, 0, 0),
+                LocalDateTime.of(2023, 2, 1, 0, 0)
+        ).isEmpty());
+    }
+
+    @Test
+    void shouldFindLatestArchivedMonthWorkCorrectly() throws Exception {
+        assertTrue(transactionArchiveRepository.findLatestArchivedMonth().isEmpty());
+
+        write(transactionArchiveRepository, YearMonth.of(2023, 1));
+        write(transactionArchiveRepository, YearMonth.of(2023, 3));
+
+        assertEquals(YearMonth.of(2023, 3), transactionArchiveRepository.findLatestArchivedMonth().get());
+    }
+
+    @Test
+    void shouldListArchivedMonthsOnceUntilRefreshed() throws Exception {
+        write(transactionArchiveRepository, YearMonth.of(2023, 2));
+
+        write(new TransactionArchiveRepository(directory.toString()), YearMonth.of(2022, 12));
+
+        assertEquals(YearMonth.of(2023, 2), transactionArchiveRepository.findEarliestArchivedMonth().get());
+
+        transactionArchiveRepository.refresh();
+
+        assertEquals(YearMonth.of(2022, 12), transactionArchiveRepository.findEarliestArchivedMonth().get());
+        assertEquals(YearMonth.of(2023, 2), transactionArchiveRepository.findLatestArchivedMonth().get());
+    }
+
+    @Test
+    void shouldDiscardAnArchiveClosedWithoutCommit() throws Exception {
+        try (TransactionArchiveRepository.ArchiveWriter writer = transactionArchiveRepository.openWriter(YearMonth.of(2023, 1))) {
+            writer.append(1L, Transaction.builder()
+                    .id(1L)
+                    .fromWalletId(1L)
+                    .fromWalletAmount(5.0)
+                    .fromWalletCurrency(Currency.RUPEE)
+                    .toWalletId(1L)
+                    .toWalletAmount(5.0)
+                    .toWalletCurrency(Currency.RUPEE)
+                    .transactionType(TransactionType.DEPOSIT)
+                    .createdAt(LocalDateTime.of(2023, 1, 15, 10, 10))
+                    .build());
+        }
+
+        assertTrue(transactionArchiveRepository.findLatestArchivedMonth().isEmpty());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void shouldFindArchivedTransactionsThroughTheWalletIndex() throws Exception {
+        List<Transaction> transactions = new ArrayList<>();
+
+        for (long walletId = 1; walletId <= 3000; walletId++) {
+            transactions.add(deposit(walletId * 2, walletId, LocalDateTime.of(2023, 1, 10, 10, 10)));
+            transactions.add(deposit(walletId * 2 + 1, walletId, LocalDateTime.of(2023, 1, 20, 10, 10)));
+        }
+
+        write(transactionArchiveRepository, YearMonth.of(2023, 1), transactions.toArray(Transaction[]::new));
+
+        assertTrue(Files.readAllLines(directory.resolve("wallet_transactions_2023_01.idx")).size() > 1);
+
+        for (long walletId : new long[]{1, 1500, 2999, 3000}) {
+            assertEquals(
+                    List.of(transactions.get((int) (walletId - 1) * 2), transactions.get((int) (walletId - 1) * 2 + 1)),
+                    transactionArchiveRepository.findByWalletId(walletId, LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 2, 1, 0, 0))
+            );
+        }
+
+        assertTrue(transactionArchiveRepository.findByWalletId(3001L, LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 2, 1, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void shouldScanArchivesWrittenWithoutAnIndex() throws Exception {
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(directory.resolve("wallet_transactions_2023_01.csv.gz"))), StandardCharsets.UTF_8)) {
+            writer.write("id,from_wallet_id,from_wallet_amount,from_wallet_currency,to_wallet_id,to_wallet_amount,to_wallet_currency,transaction_type,created_at\n");
+            writer.write("1,1,5.0,RUPEE,2,5.0,RUPEE,TRANSFER,2023-01-01T10:10\n");
+            writer.write("2,3,5.0,RUPEE,3,5.0,RUPEE,DEPOSIT,2023-01-02T10:10\n");
+        }
+
+        List<Transaction> transactions = transactionArchiveRepository.findByWalletId(
+                2L,
+                LocalDateTime.of(2023, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 2, 1, 0, 0)
+        );
+
+        assertEquals(1, transactions.size());
+        assertEquals(1L, transactions.get(0).getId());
+    }
+
+    @Test
+    void shouldRejectRowsOutOfWalletOrder() throws Exception {
+        try (TransactionArchiveRepository.ArchiveWriter writer = transactionArchiveRepository.openWriter(YearMonth.of(2023, 1))) {
+            writer.append(2L, deposit(1L, 2L, LocalDateTime.of(2023, 1, 15, 10, 10)));
+
+            assertThrows(IllegalArgumentException.class, () -> writer.append(1L, deposit(2L, 1L, LocalDateTime.of(2023, 1, 15, 10, 10))));
+        }
+    }
+
+    private Transaction deposit(long id, long walletId, LocalDateTime createdAt) {
+        return Transaction.builder()
+                .id(id)
+                .fromWalletId(walletId)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(walletId)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    /**
+     * Appends the transactions the way the partition service reads them, once per wallet in wallet order.
+     */
+    private void write(TransactionArchiveRepository repository, YearMonth month, Transaction... transactions) throws IOException {
+        List<Map.Entry<Long, Transaction>> entries = new ArrayList<>();
+
+        for (Transaction transaction : transactions) {
+            entries.add(Map.entry(transaction.getFromWalletId(), transaction));
+
+            if (!transaction.getToWalletId().equals(transaction.getFromWalletId())) {
+                entries.add(Map.entry(transaction.getToWalletId(), transaction));
+            }
+        }
+
+        entries.sort(Comparator.<Map.Entry<Long, Transaction>>comparingLong(Map.Entry::getKey).thenComparingLong(entry -> entry.getValue().getId()));
+
+        try (TransactionArchiveRepository.ArchiveWriter writer = repository.openWriter(month)) {
+            for (Map.Entry<Long, Transaction> entry : entries) {
+                writer.append(entry.getKey(), entry.getValue());
+            }
+
+            assertEquals(entries.size(), writer.commit());
+        }
+    }
+}
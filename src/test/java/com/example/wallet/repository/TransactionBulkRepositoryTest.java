@@ -0,0 +1,63 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.sql.StatementTimingConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.example.wallet.sql.StatementCountAssertions.assertStatementCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({TransactionBulkRepository.class, StatementTimingConfig.class})
+class TransactionBulkRepositoryTest {
+
+    @Autowired
+    private TransactionBulkRepository transactionBulkRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Test
+    void shouldInsertAllWorkCorrectly() {
+        Transaction deposit = Transaction.builder()
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(1L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+
+        Transaction transfer = Transaction.builder()
+                .fromWalletId(1L)
+                .fromWalletAmount(1.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(2L)
+                .toWalletAmount(2.0)
+                .toWalletCurrency(Currency.YEN)
+                .rateVersion(0L)
+                .transactionType(TransactionType.TRANSFER)
+                .createdAt(LocalDateTime.of(2023, 1, 2, 10, 10))
+                .build();
+
+        assertStatementCount(1, () -> transactionBulkRepository.insertAll(List.of(deposit, transfer)));
+
+        List<Transaction> transactions = transactionRepository.findAll();
+
+        assertEquals(2, transactions.size());
+        assertEquals(TransactionType.TRANSFER, transactions.get(1).getTransactionType());
+        assertEquals(Currency.YEN, transactions.get(1).getToWalletCurrency());
+        assertEquals(0L, transactions.get(1).getRateVersion());
+        assertNull(transactions.get(0).getRateVersion());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.wallet.repository;
 
+import com.example.wallet.dto.response.TransactionResponse;
 import com.example.wallet.entity.Currency;
 import com.example.wallet.entity.Transaction;
 import com.example.wallet.entity.TransactionType;
@@ -68,4 +69,72 @@ class TransactionRepositoryTest {
         assertEquals(transaction1, transactions.get(0));
         assertEquals(transaction2, transactions.get(1));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindTransactionResponsesByWalletIdWorkCorrectly() {
+        Transaction transaction1 = Transaction.builder()
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(2L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.TRANSFER)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+
+        Transaction transaction2 = Transaction.builder()
+                .fromWalletId(3L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(3L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 11, 11))
+                .build();
+
+        transactionRepository.save(transaction1);
+        transactionRepository.save(transaction2);
+
+        List<TransactionResponse> transactions = transactionRepository.findTransactionResponsesByWalletId(2L);
+
+        assertEquals(List.of(TransactionResponse.from(transaction1)), transactions);
+    }
+
+    @Test
+    void shouldFindTransactionResponsesByWalletIdBetweenWorkCorrectly() {
+        Transaction transaction1 = Transaction.builder()
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(1L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+
+        Transaction transaction2 = Transaction.builder()
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(1L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 2, 1, 10, 10))
+                .build();
+
+        transactionRepository.save(transaction1);
+        transactionRepository.save(transaction2);
+
+        List<TransactionResponse> transactions = transactionRepository.findTransactionResponsesByWalletIdBetween(
+                1L,
+                LocalDateTime.of(2023, 1, 1, 0, 0),
+                LocalDateTime.of(2023, 2, 1, 0, 0)
+        );
+
+        assertEquals(List.of(TransactionResponse.from(transaction1)), transactions);
+    }
+}
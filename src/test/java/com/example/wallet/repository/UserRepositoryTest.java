@@ -3,18 +3,30 @@ package com.example.wallet.repository;
 import com.example.wallet.entity.Currency;
 import com.example.wallet.entity.User;
 import com.example.wallet.entity.Wallet;
+import com.example.wallet.security.UserCredentials;
+import org.hibernate.Hibernate;
+import com.example.wallet.sql.StatementTimingConfig;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.util.List;
+
+import static com.example.wallet.sql.StatementCountAssertions.assertStatementCount;
+import static com.example.wallet.sql.StatementCountAssertions.recordStatements;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
+@Import(StatementTimingConfig.class)
 class UserRepositoryTest {
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
 
     @Test
     void shouldSaveWorkCorrectly() {
@@ -35,7 +47,7 @@ class UserRepositoryTest {
 
         userRepository.save(user);
 
-        User savedUser = userRepository.findById(1L).get();
+        User savedUser = userRepository.findById(user.getId()).get();
 
         assertEquals(user, savedUser);
         assertEquals(wallet, savedUser.getWallet());
@@ -65,4 +77,77 @@ class UserRepositoryTest {
         assertEquals(user, savedUser);
         assertEquals(wallet, savedUser.getWallet());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldFindByEmailNotFetchTheWallet() {
+        Long walletId = saveUser().getWallet().getId();
+
+        User user = assertStatementCount(1, () -> userRepository.findByEmail("faizbshah2001@gmail.com").get());
+
+        assertFalse(Hibernate.isInitialized(user.getWallet()));
+        assertEquals(walletId, assertStatementCount(0, () -> user.getWallet().getId()));
+    }
+
+    @Test
+    void shouldFindWithWalletByEmailJoinTheWallet() {
+        saveUser();
+
+        List<String> statements = recordStatements(() -> {
+            User user = userRepository.findWithWalletByEmail("faizbshah2001@gmail.com").get();
+
+            assertTrue(Hibernate.isInitialized(user.getWallet()));
+            assertEquals(Currency.RUPEE, user.getWallet().getCurrency());
+        });
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertTrue(statements.get(0).contains("join wallet"), statements.get(0));
+    }
+
+    @Test
+    void shouldFindCredentialsByEmailSelectOnlyCredentials() {
+        User user = saveUser();
+
+        List<String> statements = recordStatements(() -> assertEquals(
+                new UserCredentials(user.getId(), "faizbshah2001@gmail.com", "ghjhjkhkjhkjhjk", false, true),
+                userRepository.findCredentialsByEmail("faizbshah2001@gmail.com").get()
+        ));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertFalse(statements.get(0).contains("wallet "), statements.get(0));
+        assertFalse(statements.get(0).contains("first_name"), statements.get(0));
+        assertTrue(userRepository.findCredentialsByEmail("unknown@gmail.com").isEmpty());
+    }
+
+    @Test
+    void shouldIncrementAndFindActiveSecurityVersion() {
+        User user = saveUser();
+
+        assertEquals(0, userRepository.findActiveSecurityVersionById(user.getId()).get());
+        assertEquals(1, userRepository.incrementSecurityVersion(user.getId()));
+        assertEquals(1, userRepository.findActiveSecurityVersionById(user.getId()).get());
+
+        user.setSecurityVersion(1);
+
+        user.setLocked(true);
+        userRepository.save(user);
+
+        assertTrue(userRepository.findActiveSecurityVersionById(user.getId()).isEmpty());
+    }
+
+    private User saveUser() {
+        User user = userRepository.save(User.builder()
+                .firstName("Faiz")
+                .lastName("Shah")
+                .email("faizbshah2001@gmail.com")
+                .password("ghjhjkhkjhkjhjk")
+                .wallet(Wallet.builder().amount(0.0).currency(Currency.RUPEE).build())
+                .enabled(true)
+                .locked(false)
+                .build());
+
+        testEntityManager.flush();
+        testEntityManager.clear();
+
+        return user;
+    }
+}
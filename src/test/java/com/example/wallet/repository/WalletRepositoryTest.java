@@ -1,19 +1,41 @@
 package com.example.wallet.repository;
 
+import com.example.wallet.dto.response.WalletHistoryBalance;
+import com.example.wallet.dto.response.WalletResponse;
 import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.DailyWalletAggregate;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.entity.User;
 import com.example.wallet.entity.Wallet;
+import com.example.wallet.sql.StatementTimingConfig;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.example.wallet.sql.StatementCountAssertions.assertStatementCount;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
+@Import(StatementTimingConfig.class)
 class WalletRepositoryTest {
 
     @Autowired
     private WalletRepository walletRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DailyWalletAggregateRepository dailyWalletAggregateRepository;
+
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     @Test
     public void shouldSaveWorkCorrectly() {
         Wallet wallet = Wallet.builder()
@@ -23,6 +45,98 @@ class WalletRepositoryTest {
 
         walletRepository.save(wallet);
 
-        assertEquals(wallet, walletRepository.findById(1L).get());
+        assertEquals(wallet, walletRepository.findById(wallet.getId()).get());
+    }
+
+    @Test
+    void shouldFindWalletResponseByIdWorkCorrectly() {
+        Wallet wallet = Wallet.builder()
+                .amount(5.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build();
+
+        User user = User.builder()
+                .firstName("Faiz")
+                .lastName("Shah")
+                .email("faizbshah2001@gmail.com")
+                .password("ghjhjkhkjhkjhjk")
+                .wallet(wallet)
+                .enabled(true)
+                .locked(false)
+                .build();
+
+        userRepository.save(user);
+        testEntityManager.flush();
+
+        WalletResponse walletResponse = assertStatementCount(1, () -> walletRepository.findWalletResponseById(wallet.getId()).get());
+
+        assertEquals(new WalletResponse(wallet.getId(), 5.0, Currency.RUPEE, true), walletResponse);
+        assertTrue(walletRepository.findWalletResponseById(wallet.getId() + 1).isEmpty());
+    }
+
+    @Test
+    void shouldFindExistingIdsWorkCorrectly() {
+        Wallet wallet = walletRepository.save(Wallet.builder()
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .build());
+
+        assertEquals(List.of(wallet.getId()), walletRepository.findExistingIds(List.of(wallet.getId(), wallet.getId() + 1)));
+    }
+
+    @Test
+    void shouldFindWalletHistoryBalancesWorkCorrectly() {
+        Wallet wallet = walletRepository.save(Wallet.builder()
+                .amount(12.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build());
+
+        walletRepository.save(Wallet.builder()
+                .amount(0.0)
+                .build());
+
+        dailyWalletAggregateRepository.save(DailyWalletAggregate.builder()
+                .walletId(wallet.getId())
+                .aggregateDate(LocalDate.of(2023, 1, 1))
+                .transactionType(TransactionType.DEPOSIT)
+                .inflowCount(1)
+                .inflowAmount(15.0)
+                .build());
+
+        dailyWalletAggregateRepository.save(DailyWalletAggregate.builder()
+                .walletId(wallet.getId())
+                .aggregateDate(LocalDate.of(2023, 1, 2))
+                .transactionType(TransactionType.WITHDRAW)
+                .outflowCount(1)
+                .outflowAmount(5.0)
+                .build());
+
+        List<WalletHistoryBalance> balances = walletRepository.findWalletHistoryBalances();
+
+        assertEquals(List.of(new WalletHistoryBalance(wallet.getId(), Currency.RUPEE, 12.0, 10.0)), balances);
+    }
+
+    @Test
+    void shouldAddAmountWorkCorrectly() {
+        Wallet wallet = walletRepository.save(Wallet.builder()
+                .amount(5.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build());
+        Wallet striped = walletRepository.save(Wallet.builder()
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .stripeCount(4)
+                .build());
+
+        assertEquals(1, walletRepository.addAmount(wallet.getId(), 20.0));
+        assertEquals(0, walletRepository.addAmount(striped.getId(), 20.0));
+
+        testEntityManager.clear();
+
+        assertEquals(25.0, walletRepository.findById(wallet.getId()).get().getAmount());
     }
-}
\ No newline at end of file
+}
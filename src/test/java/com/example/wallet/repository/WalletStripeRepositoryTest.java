@@ -0,0 +1,80 @@
+package com.example.wallet.repository;
+
+import com.example.wallet.dto.response.WalletResponse;
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.User;
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.entity.WalletStripe;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class WalletStripeRepositoryTest {
+
+    @Autowired
+    private WalletStripeRepository walletStripeRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        wallet = Wallet.builder()
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .stripeCount(2)
+                .build();
+
+        userRepository.save(User.builder()
+                .firstName("Faiz")
+                .lastName("Shah")
+                .email("faizbshah2001@gmail.com")
+                .password("ghjhjkhkjhkjhjk")
+                .wallet(wallet)
+                .enabled(true)
+                .locked(false)
+                .build());
+
+        walletStripeRepository.saveAll(List.of(
+                WalletStripe.builder().walletId(wallet.getId()).stripeIndex(0).amount(10.0).build(),
+                WalletStripe.builder().walletId(wallet.getId()).stripeIndex(1).amount(5.0).build()
+        ));
+    }
+
+    @Test
+    void shouldCreditAndDebitWorkCorrectly() {
+        assertEquals(1, walletStripeRepository.credit(wallet.getId(), 1, 5.0));
+        assertEquals(1, walletStripeRepository.debit(wallet.getId(), 0, 10.0));
+        assertEquals(0, walletStripeRepository.debit(wallet.getId(), 0, 1.0));
+
+        assertEquals(10.0, walletStripeRepository.sumAmountByWalletId(wallet.getId()));
+    }
+
+    @Test
+    void shouldFindWalletResponseSumStripesOfStripedWallet() {
+        WalletResponse walletResponse = walletRepository.findWalletResponseById(wallet.getId()).get();
+
+        assertEquals(15.0, walletResponse.amount());
+    }
+
+    @Test
+    void shouldFindAllByWalletIdForUpdateReturnStripesInOrder() {
+        List<WalletStripe> walletStripes = walletStripeRepository.findAllByWalletIdForUpdate(wallet.getId());
+
+        assertEquals(2, walletStripes.size());
+        assertEquals(0, walletStripes.get(0).getStripeIndex());
+        assertEquals(1, walletStripes.get(1).getStripeIndex());
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.wallet.security.jwt;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.example.wallet.entity.User;
 import com.example.wallet.entity.Wallet;
 import com.example.wallet.service.UserService;
@@ -12,6 +14,7 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,7 +31,7 @@ class JWTUtilsTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "test_jwt_secret");
+        ReflectionTestUtils.setField(jwtUtils, "jwtKeys", new JWTKeys(new JWTSigningProperties(null, null, null, null, null), "test_jwt_secret"));
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 172800000);
     }
 
@@ -47,7 +50,7 @@ class JWTUtilsTest {
                 .build();
 
         when(authentication.getPrincipal()).thenReturn(user.getEmail());
-        when(userService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        when(userService.loadUser(user.getEmail())).thenReturn(user);
 
         String token = jwtUtils.generateJwtToken(authentication);
 
@@ -55,7 +58,7 @@ class JWTUtilsTest {
         assertEquals(user.getEmail(), jwtUtils.validateJwtToken(token));
 
         verify(authentication, times(1)).getPrincipal();
-        verify(userService, times(1)).loadUserByUsername(user.getEmail());
+        verify(userService, times(1)).loadUser(user.getEmail());
     }
 
     @Test
@@ -98,13 +101,54 @@ class JWTUtilsTest {
                 .build();
 
         when(authentication.getPrincipal()).thenReturn(user.getEmail());
-        when(userService.loadUserByUsername(user.getEmail())).thenReturn(user);
+        when(userService.loadUser(user.getEmail())).thenReturn(user);
 
         String token = jwtUtils.generateJwtToken(authentication);
 
         assertEquals(user.getEmail(), jwtUtils.validateJwtToken(token));
     }
 
+    @Test
+    void shouldParsePrincipalFromTokenClaims() {
+        Authentication authentication = mock(Authentication.class);
+        User user = User.builder()
+                .id(3L)
+                .firstName("Faiz")
+                .lastName("Shah")
+                .email("faizbshah2001@gmail.com")
+                .password("helloworld")
+                .wallet(Wallet.builder().id(5L).build())
+                .securityVersion(2)
+                .enabled(true)
+                .locked(false)
+                .build();
+
+        when(authentication.getPrincipal()).thenReturn(user.getEmail());
+        when(userService.loadUser(user.getEmail())).thenReturn(user);
+
+        JWTPrincipal principal = jwtUtils.parsePrincipal(jwtUtils.generateJwtToken(authentication));
+
+        assertNotNull(principal);
+        assertEquals(3L, principal.getUserId());
+        assertEquals(5L, principal.getWalletId());
+        assertEquals(2, principal.getSecurityVersion());
+        assertNotNull(principal.getTokenId());
+        assertTrue(principal.getExpiresAt().isAfter(Instant.now()));
+        assertEquals("faizbshah2001@gmail.com", principal.getName());
+        assertTrue(principal.isAuthenticated());
+    }
+
+    @Test
+    void shouldParsePrincipalReturnNullIfTokenHasNoUserClaims() {
+        String token = JWT.create()
+                .withSubject("faizbshah2001@gmail.com")
+                .sign(Algorithm.HMAC512("test_jwt_secret"));
+
+        assertEquals("faizbshah2001@gmail.com", jwtUtils.validateJwtToken(token));
+        assertNull(jwtUtils.parsePrincipal(token));
+        assertNull(jwtUtils.parsePrincipal("random_string"));
+    }
+
     @Test
     void shouldValidateJwtTokenReturnNullIfAnInvalidTokenIsPassed() {
         assertNull(jwtUtils.validateJwtToken("random_string"));
@@ -0,0 +1,82 @@
+package com.example.wallet.security.jwt;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of verifying an access token signed with HS512 and with ES256 through the
+ * cached {@link JWTKeys} verifier, and of building the HS512 verifier on every call. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.wallet.security.jwt.JWTVerificationBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTVerificationBenchmark {
+
+    private static final String SECRET = "benchmark_jwt_secret";
+
+    private JWTKeys hs512;
+    private JWTKeys es256;
+    private String hs512Token;
+    private String es256Token;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPair keyPair = JWTKeysTest.generateKeyPair();
+
+        hs512 = new JWTKeys(new JWTSigningProperties(JWTSigningProperties.Algorithm.HS512, null, null, null, null), SECRET);
+        es256 = new JWTKeys(new JWTSigningProperties(
+                JWTSigningProperties.Algorithm.ES256,
+                "benchmark",
+                Base64.getEncoder().encodeToString(keyPair.getPrivate().getEncoded()),
+                Map.of("benchmark", Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded())),
+                null
+        ), null);
+
+        hs512Token = hs512.sign(token());
+        es256Token = es256.sign(token());
+    }
+
+    @Benchmark
+    public DecodedJWT hs512Verify() {
+        return hs512.verify(hs512Token);
+    }
+
+    @Benchmark
+    public DecodedJWT hs512VerifyWithNewVerifier() {
+        return JWT.require(Algorithm.HMAC512(SECRET)).build().verify(hs512Token);
+    }
+
+    @Benchmark
+    public DecodedJWT es256Verify() {
+        return es256.verify(es256Token);
+    }
+
+    private static JWTCreator.Builder token() {
+        return JWT.create()
+                .withSubject("faizbshah2001@gmail.com")
+                .withClaim(JWTUtils.USER_ID_CLAIM, 1L)
+                .withClaim(JWTUtils.WALLET_ID_CLAIM, 1L)
+                .withClaim(JWTUtils.SECURITY_VERSION_CLAIM, 0)
+                .withExpiresAt(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JWTVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.wallet.security.jwt;
+
+import com.example.wallet.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SecurityVersionCacheTest {
+
+    @InjectMocks
+    private SecurityVersionCache securityVersionCache;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(securityVersionCache, "ttl", Duration.ofSeconds(30));
+        setTime(0);
+    }
+
+    @Test
+    void shouldQueryVersionOnceWithinTtl() {
+        when(userRepository.findActiveSecurityVersionById(1L)).thenReturn(Optional.of(0));
+
+        assertTrue(securityVersionCache.isCurrent(1L, 0));
+        assertTrue(securityVersionCache.isCurrent(1L, 0));
+        assertFalse(securityVersionCache.isCurrent(1L, 1));
+
+        verify(userRepository, times(1)).findActiveSecurityVersionById(1L);
+    }
+
+    @Test
+    void shouldReloadVersionAfterTtlOrInvalidation() {
+        when(userRepository.findActiveSecurityVersionById(1L)).thenReturn(Optional.of(0), Optional.of(1), Optional.of(2));
+
+        assertTrue(securityVersionCache.isCurrent(1L, 0));
+
+        setTime(30_000);
+
+        assertFalse(securityVersionCache.isCurrent(1L, 0));
+        assertTrue(securityVersionCache.isCurrent(1L, 1));
+
+        securityVersionCache.invalidate(1L);
+
+        assertTrue(securityVersionCache.isCurrent(1L, 2));
+
+        verify(userRepository, times(3)).findActiveSecurityVersionById(1L);
+    }
+
+    @Test
+    void shouldRejectUsersWithoutActiveVersionAndEvictExpiredEntries() {
+        when(userRepository.findActiveSecurityVersionById(1L)).thenReturn(Optional.empty());
+
+        assertFalse(securityVersionCache.isCurrent(1L, 0));
+        assertEquals(1, securityVersionCache.getCachedUsers());
+
+        setTime(30_000);
+        securityVersionCache.evictExpired();
+
+        assertEquals(0, securityVersionCache.getCachedUsers());
+    }
+
+    private void setTime(long millis) {
+        ReflectionTestUtils.setField(securityVersionCache, "clock", Clock.fixed(Instant.ofEpochMilli(millis), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.wallet.security.jwt;
+
+import com.example.wallet.entity.RevokedToken;
+import com.example.wallet.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 1, 1, 10, 0);
+
+    @InjectMocks
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(tokenRevocationList, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(tokenRevocationList, "expectedInsertions", 4);
+        ReflectionTestUtils.setField(tokenRevocationList, "falsePositiveProbability", 0.01);
+        ReflectionTestUtils.setField(tokenRevocationList, "refreshOverlap", Duration.ofSeconds(30));
+        setTime(NOW);
+        tokenRevocationList.init();
+
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldRevokeTokenLocallyAndStoreIt() {
+        assertFalse(tokenRevocationList.isRevoked("a"));
+
+        tokenRevocationList.revoke("a", NOW.plusHours(1).toInstant(ZoneOffset.UTC));
+        tokenRevocationList.revoke("a", NOW.plusHours(1).toInstant(ZoneOffset.UTC));
+
+        assertTrue(tokenRevocationList.isRevoked("a"));
+        assertFalse(tokenRevocationList.isRevoked("b"));
+
+        verify(revokedTokenRepository, times(1)).save(argThat(revokedToken ->
+                revokedToken.getTokenId().equals("a") && revokedToken.getExpiresAt().equals(NOW.plusHours(1))));
+    }
+
+    @Test
+    void shouldPickUpTokensRevokedOnOtherNodes() {
+        when(revokedTokenRepository.findAllByExpiresAtAfter(NOW)).thenReturn(List.of(revokedToken("a", NOW.plusHours(1))));
+        when(revokedTokenRepository.findAllByRevokedAtAfterAndExpiresAtAfter(NOW.minusSeconds(30), NOW.plusSeconds(5)))
+                .thenReturn(List.of(revokedToken("a", NOW.plusHours(1)), revokedToken("b", NOW.plusHours(1))));
+
+        tokenRevocationList.refresh();
+        tokenRevocationList.warmUp();
+
+        assertTrue(tokenRevocationList.isRevoked("a"));
+        assertFalse(tokenRevocationList.isRevoked("b"));
+
+        setTime(NOW.plusSeconds(5));
+        tokenRevocationList.refresh();
+
+        assertTrue(tokenRevocationList.isRevoked("b"));
+        assertEquals(2, tokenRevocationList.getRevokedTokens());
+        verify(revokedTokenRepository, times(1)).findAllByRevokedAtAfterAndExpiresAtAfter(any(), any());
+    }
+
+    @Test
+    void shouldPurgeExpiredTokensAndGrowFilter() {
+        for (int i = 0; i < 10; i++) {
+            tokenRevocationList.revoke("token-" + i, NOW.plusMinutes(i < 5 ? 1 : 60).toInstant(ZoneOffset.UTC));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(tokenRevocationList.isRevoked("token-" + i));
+        }
+
+        setTime(NOW.plusMinutes(30));
+        tokenRevocationList.purgeExpired();
+
+        assertEquals(5, tokenRevocationList.getRevokedTokens());
+        assertFalse(tokenRevocationList.isRevoked("token-0"));
+        assertTrue(tokenRevocationList.isRevoked("token-9"));
+        verify(revokedTokenRepository, times(1)).deleteExpired(NOW.plusMinutes(30));
+    }
+
+    @Test
+    void shouldKeepFalsePositivesNearConfiguredProbability() {
+        BloomFilter bloomFilter = new BloomFilter(10_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            bloomFilter.put("revoked-" + i);
+        }
+
+        int falsePositives = 0;
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(bloomFilter.mightContain("revoked-" + i));
+
+            if (bloomFilter.mightContain("valid-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 200, "False positives: " + falsePositives);
+    }
+
+    private RevokedToken revokedToken(String tokenId, LocalDateTime expiresAt) {
+        return RevokedToken.builder()
+                .tokenId(tokenId)
+                .expiresAt(expiresAt)
+                .revokedAt(NOW)
+                .build();
+    }
+
+    private void setTime(LocalDateTime time) {
+        ReflectionTestUtils.setField(tokenRevocationList, "clock", Clock.fixed(time.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.wallet.security.ratelimit;
+
+import com.example.wallet.security.jwt.JWTPrincipal;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    private final RateLimitProperties.Route walletRoute = new RateLimitProperties.Route("wallet", "/api/v1/wallet/**", RateLimitProperties.KeyType.USER, 3, 10);
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    private RateLimitFilter userRateLimitFilter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+
+        userRateLimitFilter = new RateLimitFilter(rateLimiter, RateLimitProperties.KeyType.USER, new ObjectMapper());
+
+        when(rateLimiter.findRoute(RateLimitProperties.KeyType.USER, "/api/v1/wallet/deposit")).thenReturn(walletRoute);
+        SecurityContextHolder.getContext().setAuthentication(new JWTPrincipal(7L, 7L, "faizbshah2001@gmail.com", 0, "jti", null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldPassRequestWhenTokenIsAvailable() throws Exception {
+        MockFilterChain filterChain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(rateLimiter.tryAcquire(walletRoute, "7")).thenReturn(0L);
+
+        userRateLimitFilter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/wallet/deposit"), response, filterChain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(filterChain.getRequest());
+    }
+
+    @Test
+    void shouldRejectRequestWithRetryAfterWhenBucketIsEmpty() throws Exception {
+        MockFilterChain filterChain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        when(rateLimiter.tryAcquire(walletRoute, "7")).thenReturn(Duration.ofMillis(1500).toNanos());
+
+        userRateLimitFilter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/wallet/deposit"), response, filterChain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertEquals("{\"success\":false,\"code\":\"RATE_LIMITED\",\"message\":\"Too many requests, please try again later\"}", response.getContentAsString());
+        assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    void shouldSkipRequestsWithoutMatchingRouteOrUser() throws Exception {
+        MockFilterChain filterChain = new MockFilterChain();
+
+        userRateLimitFilter.doFilter(new MockHttpServletRequest("GET", "/api/v1/auth/login"), new MockHttpServletResponse(), filterChain);
+        assertNotNull(filterChain.getRequest());
+
+        SecurityContextHolder.clearContext();
+        filterChain = new MockFilterChain();
+
+        userRateLimitFilter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/wallet/deposit"), new MockHttpServletResponse(), filterChain);
+        assertNotNull(filterChain.getRequest());
+
+        verify(rateLimiter, never()).tryAcquire(any(), any());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.wallet.security.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private final RateLimitProperties.Route authRoute = new RateLimitProperties.Route("auth", "/api/v1/auth/**", RateLimitProperties.KeyType.IP, 2, 0.5);
+    private final RateLimitProperties.Route walletRoute = new RateLimitProperties.Route("wallet", "/api/v1/wallet/**", RateLimitProperties.KeyType.USER, 3, 10);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimiter rateLimiter;
+
+    private Instant now = Instant.parse("2023-01-01T00:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter();
+
+        ReflectionTestUtils.setField(rateLimiter, "properties", new RateLimitProperties(List.of(authRoute, walletRoute)));
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+        setClock();
+
+        rateLimiter.init();
+    }
+
+    @Test
+    void shouldFindRouteByKeyTypeAndPath() {
+        assertEquals(authRoute, rateLimiter.findRoute(RateLimitProperties.KeyType.IP, "/api/v1/auth/login"));
+        assertEquals(walletRoute, rateLimiter.findRoute(RateLimitProperties.KeyType.USER, "/api/v1/wallet/transfer"));
+        assertNull(rateLimiter.findRoute(RateLimitProperties.KeyType.USER, "/api/v1/auth/login"));
+        assertNull(rateLimiter.findRoute(RateLimitProperties.KeyType.IP, "/"));
+    }
+
+    @Test
+    void shouldRejectRoutesWhichNeverRefillOnBinding() {
+        Binder binder = new Binder(new MapConfigurationPropertySource(Map.of(
+                "wallet.rate-limit.routes[0].name", "auth",
+                "wallet.rate-limit.routes[0].pattern", "/api/v1/auth/**",
+                "wallet.rate-limit.routes[0].key", "IP",
+                "wallet.rate-limit.routes[0].capacity", "10",
+                "wallet.rate-limit.routes[0].refill-per-second", "0"
+        )));
+
+        assertThrows(BindException.class, () -> binder.bind("wallet.rate-limit", RateLimitProperties.class));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.Route("auth", "/**", RateLimitProperties.KeyType.IP, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimitProperties.Route("auth", "/**", RateLimitProperties.KeyType.IP, 1, -1));
+    }
+
+    @Test
+    void shouldAllowBurstUpToCapacityAndThenReject() {
+        assertEquals(0, rateLimiter.tryAcquire(authRoute, "10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire(authRoute, "10.0.0.1"));
+
+        assertEquals(Duration.ofSeconds(2).toNanos(), rateLimiter.tryAcquire(authRoute, "10.0.0.1"));
+        assertEquals(0, rateLimiter.tryAcquire(authRoute, "10.0.0.2"));
+        assertEquals(1, meterRegistry.get("wallet.ratelimit.rejections").tag("route", "auth").counter().count());
+    }
+
+    @Test
+    void shouldRefillTokensOverTime() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(walletRoute, "1"));
+        }
+
+        assertTrue(rateLimiter.tryAcquire(walletRoute, "1") > 0);
+
+        now = now.plusMillis(100);
+        setClock();
+
+        assertEquals(0, rateLimiter.tryAcquire(walletRoute, "1"));
+        assertTrue(rateLimiter.tryAcquire(walletRoute, "1") > 0);
+    }
+
+    @Test
+    void shouldEvictBucketsOnceTheyAreFull() {
+        rateLimiter.tryAcquire(authRoute, "10.0.0.1");
+        rateLimiter.tryAcquire(walletRoute, "1");
+
+        rateLimiter.evictIdle();
+        assertEquals(2, rateLimiter.getTrackedKeys());
+
+        now = now.plusMillis(100);
+        setClock();
+
+        rateLimiter.evictIdle();
+        assertEquals(1, rateLimiter.getTrackedKeys());
+
+        now = now.plusSeconds(2);
+        setClock();
+
+        rateLimiter.evictIdle();
+        assertEquals(0, rateLimiter.getTrackedKeys());
+    }
+
+    private void setClock() {
+        ReflectionTestUtils.setField(rateLimiter, "clock", Clock.fixed(now, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.wallet.service;
+
+import com.example.wallet.dto.response.RegistrationStatusResponse;
+import com.example.wallet.entity.User;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AsyncRegistrationTest {
+
+    private static final Instant NOW = Instant.parse("2023-01-01T10:00:00Z");
+
+    @InjectMocks
+    private AsyncRegistration asyncRegistration;
+
+    @Mock
+    private AuthService authService;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(asyncRegistration, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(asyncRegistration, "threads", 1);
+        ReflectionTestUtils.setField(asyncRegistration, "queueCapacity", 1);
+        ReflectionTestUtils.setField(asyncRegistration, "statusTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(asyncRegistration, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+        asyncRegistration.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        asyncRegistration.stop();
+    }
+
+    @Test
+    void shouldCompleteRegistrationInTheBackground() throws InterruptedException {
+        when(authService.registerUser("Faiz", "Shah", "faizbshah2001@gmail.com", "helloworld")).thenReturn(new User());
+
+        RegistrationStatusResponse pending = asyncRegistration.submit("Faiz", "Shah", "faizbshah2001@gmail.com", "helloworld");
+
+        assertEquals(RegistrationStatusResponse.Status.PENDING, pending.status());
+        assertEquals(RegistrationStatusResponse.Status.COMPLETED, awaitStatus(pending.id()).status());
+
+        verify(authService, times(1)).registerUser("Faiz", "Shah", "faizbshah2001@gmail.com", "helloworld");
+    }
+
+    @Test
+    void shouldRecordFailedRegistration() throws InterruptedException {
+        when(authService.registerUser(any(), any(), any(), any())).thenThrow(new AppException(ErrorCode.USER_ALREADY_EXISTS, "User Already Exists"));
+
+        RegistrationStatusResponse status = awaitStatus(asyncRegistration.submit("Faiz", "Shah", "faizbshah2001@gmail.com", "helloworld").id());
+
+        assertEquals(RegistrationStatusResponse.Status.FAILED, status.status());
+        assertEquals(ErrorCode.USER_ALREADY_EXISTS, status.code());
+        assertEquals("User Already Exists", status.message());
+    }
+
+    @Test
+    void shouldRejectRegistrationsOnceTheQueueIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        when(authService.registerUser(any(), any(), any(), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new User();
+        });
+
+        asyncRegistration.submit("Faiz", "Shah", "first@gmail.com", "helloworld");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        asyncRegistration.submit("Faiz", "Shah", "second@gmail.com", "helloworld");
+
+        AppException exception = assertThrows(AppException.class, () -> asyncRegistration.submit("Faiz", "Shah", "third@gmail.com", "helloworld"));
+
+        assertEquals(ErrorCode.SERVICE_BUSY, exception.getCode());
+        assertEquals(2, asyncRegistration.getTrackedRegistrations());
+        assertEquals(1.0, meterRegistry.get("wallet.registration.queue.size").gauge().value());
+
+        release.countDown();
+    }
+
+    @Test
+    void shouldEvictExpiredStatuses() throws InterruptedException {
+        when(authService.registerUser(any(), any(), any(), any())).thenReturn(new User());
+
+        String id = asyncRegistration.submit("Faiz", "Shah", "faizbshah2001@gmail.com", "helloworld").id();
+        awaitStatus(id);
+
+        asyncRegistration.evictExpired();
+        assertEquals(1, asyncRegistration.getTrackedRegistrations());
+
+        ReflectionTestUtils.setField(asyncRegistration, "clock", Clock.fixed(NOW.plus(Duration.ofMinutes(11)), ZoneOffset.UTC));
+        asyncRegistration.evictExpired();
+
+        assertEquals(0, asyncRegistration.getTrackedRegistrations());
+        assertEquals(ErrorCode.REGISTRATION_NOT_FOUND, assertThrows(AppException.class, () -> asyncRegistration.getStatus(id)).getCode());
+    }
+
+    private RegistrationStatusResponse awaitStatus(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (System.nanoTime() < deadline) {
+            RegistrationStatusResponse status = asyncRegistration.getStatus(id);
+
+            if (status.status() != RegistrationStatusResponse.Status.PENDING) {
+                return status;
+            }
+
+            Thread.sleep(10);
+        }
+
+        fail("Registration " + id + " did not finish");
+        return null;
+    }
+}
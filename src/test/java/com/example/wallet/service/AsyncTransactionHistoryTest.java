@@ -0,0 +1,206 @@
+package com.example.wallet.service;
+
+import com.example.wallet.dto.response.WalletHistoryBalance;
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.repository.HistoryOutboxRepository;
+import com.example.wallet.repository.HistoryOutboxRepository.OutboxEntry;
+import com.example.wallet.repository.TransactionBulkRepository;
+import com.example.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AsyncTransactionHistoryTest {
+
+    @InjectMocks
+    private AsyncTransactionHistory asyncTransactionHistory;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private HistoryOutboxRepository historyOutboxRepository;
+
+    @Mock
+    private TransactionBulkRepository transactionBulkRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final List<OutboxEntry> outbox = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        asyncTransactionHistory = new AsyncTransactionHistory();
+        MockitoAnnotations.openMocks(this);
+
+        ReflectionTestUtils.setField(asyncTransactionHistory, "batchSize", 100);
+        ReflectionTestUtils.setField(asyncTransactionHistory, "pollIntervalMs", 10L);
+        ReflectionTestUtils.setField(asyncTransactionHistory, "retryDelayMs", 10L);
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(asyncTransactionHistory, "meterRegistry", meterRegistry);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+
+        doAnswer(invocation -> {
+            synchronized (outbox) {
+                outbox.add(new OutboxEntry(outbox.size() + 1, invocation.getArgument(0)));
+            }
+            return null;
+        }).when(historyOutboxRepository).insert(any(Transaction.class));
+        when(historyOutboxRepository.claim(anyInt())).thenAnswer(invocation -> {
+            synchronized (outbox) {
+                return new ArrayList<>(outbox);
+            }
+        });
+        doAnswer(invocation -> {
+            synchronized (outbox) {
+                outbox.removeAll(invocation.getArgument(0));
+            }
+            return null;
+        }).when(historyOutboxRepository).deleteAll(anyList());
+        when(historyOutboxRepository.isEmpty()).thenAnswer(invocation -> {
+            synchronized (outbox) {
+                return outbox.isEmpty();
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (ReflectionTestUtils.getField(asyncTransactionHistory, "writer") != null) {
+            asyncTransactionHistory.stop();
+        }
+    }
+
+    @Test
+    void shouldWriteOutboxDepositsInTheBackground() throws Exception {
+        asyncTransactionHistory.start();
+
+        asyncTransactionHistory.recordDeposit(deposit(1L, 5.0));
+        asyncTransactionHistory.recordDeposit(deposit(1L, 7.0));
+
+        awaitDrained();
+
+        verify(transactionBulkRepository, atLeastOnce()).insertAll(anyList());
+        verify(transactionService, atLeastOnce()).recordDailyAggregates(anyList());
+        verify(historyOutboxRepository, atLeastOnce()).deleteAll(anyList());
+    }
+
+    @Test
+    void shouldRecordDepositThrowErrorIfItsAnInvalidDepositTransaction() {
+        asyncTransactionHistory.start();
+
+        Transaction transaction = deposit(1L, 5.0);
+        transaction.setToWalletId(2L);
+
+        AppException exception = assertThrows(AppException.class, () -> asyncTransactionHistory.recordDeposit(transaction));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatus());
+        verify(historyOutboxRepository, never()).insert(any(Transaction.class));
+    }
+
+    @Test
+    void shouldWriteDepositsCommittedBeforeACrashOnRestart() throws Exception {
+        asyncTransactionHistory.recordDeposit(deposit(1L, 5.0));
+        asyncTransactionHistory.recordDeposit(deposit(1L, 7.0));
+
+        ArgumentCaptor<List<Transaction>> written = ArgumentCaptor.forClass(List.class);
+
+        asyncTransactionHistory.start();
+        awaitDrained();
+
+        verify(transactionBulkRepository, times(1)).insertAll(written.capture());
+        assertEquals(List.of(5.0, 7.0), written.getValue().stream().map(Transaction::getToWalletAmount).toList());
+    }
+
+    @Test
+    void shouldKeepOutboxRowsUntilTheyAreWritten() throws Exception {
+        doThrow(new RuntimeException("database is down")).doNothing().when(transactionBulkRepository).insertAll(anyList());
+
+        asyncTransactionHistory.recordDeposit(deposit(1L, 5.0));
+
+        assertThrows(RuntimeException.class, () -> asyncTransactionHistory.writeBatch());
+        assertEquals(1, outbox.size());
+
+        assertEquals(1, asyncTransactionHistory.writeBatch());
+        assertTrue(outbox.isEmpty());
+    }
+
+    @Test
+    void shouldReconcileReportDriftSeenTwiceWithoutWritingCorrections() {
+        when(walletRepository.findWalletHistoryBalances()).thenReturn(List.of(
+                new WalletHistoryBalance(1L, Currency.RUPEE, 15.0, 10.0),
+                new WalletHistoryBalance(2L, Currency.RUPEE, 10.0, 10.0)
+        ));
+
+        asyncTransactionHistory.start();
+        asyncTransactionHistory.reconcile();
+
+        assertEquals(0.0, meterRegistry.get("wallet.history.drifted.wallets").gauge().value());
+
+        asyncTransactionHistory.reconcile();
+
+        assertEquals(1.0, meterRegistry.get("wallet.history.drifted.wallets").gauge().value());
+        verify(transactionService, never()).createDepositTransaction(any(Transaction.class));
+        verify(transactionService, never()).createWithdrawTransaction(any(Transaction.class));
+    }
+
+    @Test
+    void shouldReconcileSkipWalletsWhileTheOutboxHasRows() {
+        asyncTransactionHistory.recordDeposit(deposit(1L, 5.0));
+
+        asyncTransactionHistory.reconcile();
+
+        verify(walletRepository, never()).findWalletHistoryBalances();
+    }
+
+    private void awaitDrained() throws InterruptedException {
+        for (int i = 0; i < 100 && !historyOutboxRepository.isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(historyOutboxRepository.isEmpty());
+    }
+
+    private Transaction deposit(Long walletId, double amount) {
+        return Transaction.builder()
+                .fromWalletId(walletId)
+                .fromWalletAmount(amount)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(walletId)
+                .toWalletAmount(amount)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.DEPOSIT)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+    }
+}
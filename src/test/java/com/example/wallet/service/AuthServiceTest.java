@@ -1,21 +1,32 @@
 package com.example.wallet.service;
 
+import com.example.wallet.dto.response.AuthTokens;
 import com.example.wallet.entity.User;
 import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
 import com.example.wallet.repository.UserRepository;
+import com.example.wallet.security.jwt.JWTPrincipal;
 import com.example.wallet.security.jwt.JWTUtils;
+import com.example.wallet.security.jwt.SecurityVersionCache;
+import com.example.wallet.security.jwt.TokenRevocationList;
 import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +49,15 @@ class AuthServiceTest {
     @Mock
     private JWTUtils jwtUtils;
 
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private SecurityVersionCache securityVersionCache;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     private User user;
 
     @BeforeEach
@@ -57,21 +77,29 @@ class AuthServiceTest {
 
     @Test
     void shouldRegisterUserWorkProperly() {
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(passwordEncoder.encode("hjhjkjjkh")).thenReturn("encoded");
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
 
         User registeredUser = authService.registerUser("Faiz", "Shah", "faizbshah2001@gmail.com", "hjhjkjjkh");
 
         assertNotNull(registeredUser);
         assertEquals(user, registeredUser);
 
-        verify(userRepository, times(1)).findByEmail("faizbshah2001@gmail.com");
-        verify(userRepository, times(1)).save(any(User.class));
+        ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
+        verify(userRepository, times(1)).saveAndFlush(captor.capture());
+        verify(userRepository, never()).existsByEmail(anyString());
+
+        assertEquals("encoded", captor.getValue().getPassword());
+        assertEquals(0.0, captor.getValue().getWallet().getAmount());
+        assertFalse(captor.getValue().getWallet().isActivated());
     }
 
     @Test
     void shouldThrowErrorIfUserIsAlreadyRegistered() {
-        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new ConstraintViolationException("duplicate key", new SQLException(), "email_unique")
+        ));
 
         AppException exception = assertThrows(AppException.class, () -> authService.registerUser(
                 "Faiz",
@@ -83,8 +111,24 @@ class AuthServiceTest {
         assertEquals(HttpStatus.CONFLICT, exception.getStatus());
         assertEquals("User Already Exists", exception.getMessage());
 
-        verify(userRepository, times(1)).findByEmail("faizbshah2001@gmail.com");
-        verify(userRepository, never()).save(any(User.class));
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void shouldRegisterUserRethrowOtherConstraintViolations() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException(
+                "could not execute statement",
+                new ConstraintViolationException("null value", new SQLException(), null)
+        );
+
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class, () -> authService.registerUser(
+                "Faiz",
+                "Shah",
+                "faizbshah2001@gmail.com",
+                "hjhjkjjkh"
+        )));
     }
 
     @Test
@@ -93,37 +137,40 @@ class AuthServiceTest {
         HttpServletRequest mockRequest = mock(HttpServletRequest.class);
         String jwtToken = "eybghttruq";
 
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userRepository.existsByEmail(user.getEmail())).thenReturn(true);
         when(jwtUtils.parseJwtToken(mockRequest)).thenReturn(null);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(mockAuthentication);
-        when(jwtUtils.generateJwtToken(mockAuthentication)).thenReturn(jwtToken);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(jwtUtils.generateJwtToken(user)).thenReturn(jwtToken);
+        when(refreshTokenService.issue(user.getId())).thenReturn("refresh");
 
-        String generatedToken = authService.loginUser(user.getEmail(), user.getPassword(), mockRequest);
+        AuthTokens tokens = authService.loginUser(user.getEmail(), user.getPassword(), mockRequest);
 
-        assertEquals(jwtToken, generatedToken);
+        assertEquals(new AuthTokens(jwtToken, "refresh"), tokens);
 
-        verify(userRepository, times(1)).findByEmail(user.getEmail());
+        verify(userRepository, times(1)).existsByEmail(user.getEmail());
         verify(jwtUtils, times(1)).parseJwtToken(mockRequest);
         verify(jwtUtils, never()).validateJwtToken(anyString());
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils, times(1)).generateJwtToken(mockAuthentication);
+        verify(jwtUtils, times(1)).generateJwtToken(user);
+        verify(refreshTokenService, times(1)).issue(user.getId());
     }
 
     @Test
     void shouldThrowAnErrorIfUserDoesNotHaveAnyAccount() {
         HttpServletRequest mockRequest = mock(HttpServletRequest.class);
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.empty());
+        when(userRepository.existsByEmail(user.getEmail())).thenReturn(false);
 
         AppException exception = assertThrows(AppException.class, () -> authService.loginUser(user.getEmail(), user.getPassword(), mockRequest));
 
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
         assertEquals("User does not have an account", exception.getMessage());
 
-        verify(userRepository, times(1)).findByEmail(user.getEmail());
+        verify(userRepository, times(1)).existsByEmail(user.getEmail());
         verify(jwtUtils, never()).parseJwtToken(mockRequest);
         verify(jwtUtils, never()).validateJwtToken(anyString());
         verify(authenticationManager, never()).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils, never()).generateJwtToken(any(Authentication.class));
+        verify(jwtUtils, never()).generateJwtToken(any(User.class));
     }
 
     @Test
@@ -131,7 +178,7 @@ class AuthServiceTest {
         HttpServletRequest mockRequest = mock(HttpServletRequest.class);
         String jwtToken = "abcdefg";
 
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userRepository.existsByEmail(user.getEmail())).thenReturn(true);
         when(jwtUtils.parseJwtToken(mockRequest)).thenReturn(jwtToken);
         when(jwtUtils.validateJwtToken(jwtToken)).thenReturn("result");
 
@@ -140,11 +187,56 @@ class AuthServiceTest {
         assertEquals(HttpStatus.FORBIDDEN, exception.getStatus());
         assertEquals("User already logged in", exception.getMessage());
 
-        verify(userRepository, times(1)).findByEmail(user.getEmail());
+        verify(userRepository, times(1)).existsByEmail(user.getEmail());
         verify(jwtUtils, times(1)).parseJwtToken(mockRequest);
         verify(jwtUtils, times(1)).validateJwtToken(jwtToken);
         verify(authenticationManager, never()).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils, never()).generateJwtToken(any(Authentication.class));
+        verify(jwtUtils, never()).generateJwtToken(any(User.class));
+    }
+
+    @Test
+    void shouldLogoutUserRevokeItsToken() {
+        Instant expiresAt = Instant.parse("2023-01-03T10:00:00Z");
+
+        authService.logoutUser(new JWTPrincipal(1L, 1L, user.getEmail(), 0, "jti", expiresAt), "refresh");
+
+        verify(tokenRevocationList, times(1)).revoke("jti", expiresAt);
+        verify(refreshTokenService, times(1)).revoke("refresh");
+        verify(userRepository, never()).incrementSecurityVersion(anyLong());
+    }
+
+    @Test
+    void shouldLogoutUserEverywhereRaiseItsSecurityVersion() {
+        authService.logoutUserEverywhere(new JWTPrincipal(1L, 1L, user.getEmail(), 0, "jti", Instant.parse("2023-01-03T10:00:00Z")));
+
+        verify(userRepository, times(1)).incrementSecurityVersion(1L);
+        verify(securityVersionCache, times(1)).invalidate(1L);
+        verify(refreshTokenService, times(1)).revokeAll(1L);
+        verify(tokenRevocationList, never()).revoke(anyString(), any());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldRefreshTokensWithoutCheckingPassword() {
+        when(refreshTokenService.rotate("refresh")).thenReturn(new RefreshTokenService.Rotation(1L, "rotated"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(jwtUtils.generateJwtToken(user)).thenReturn("token");
+
+        assertEquals(new AuthTokens("token", "rotated"), authService.refreshTokens("refresh"));
+
+        verify(authenticationManager, never()).authenticate(any());
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    void shouldRefreshTokensThrowAnErrorIfUserIsLocked() {
+        user.setLocked(true);
+
+        when(refreshTokenService.rotate("refresh")).thenReturn(new RefreshTokenService.Rotation(1L, "rotated"));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        AppException exception = assertThrows(AppException.class, () -> authService.refreshTokens("refresh"));
+
+        assertEquals(ErrorCode.INVALID_REFRESH_TOKEN, exception.getCode());
+        verify(jwtUtils, never()).generateJwtToken(any(User.class));
+    }
+}
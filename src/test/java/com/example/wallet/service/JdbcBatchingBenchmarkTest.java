@@ -0,0 +1,151 @@
+package com.example.wallet.service;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.User;
+import com.example.wallet.sql.StatementRecorder;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs registrations through {@link AuthService} and transfers through {@link WalletService} with
+ * JDBC batching of the prod profile turned off and on, and reports the JDBC round trips and time.
+ * Password hashing is mocked so the timings are those of the database work.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jdbc-batching-benchmark;MODE=PostgreSQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "jwt.secret=jdbc-batching-benchmark-secret"
+})
+@ActiveProfiles("prod")
+class JdbcBatchingBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcBatchingBenchmarkTest.class);
+
+    private static final int OPERATIONS = 50;
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        when(passwordEncoder.encode(any())).thenReturn("encoded-password");
+    }
+
+    /**
+     * Registration flushes every user to detect a taken email, so batching can not group the
+     * inserts of several registrations.
+     */
+    @Test
+    void shouldRegistrationsRunTheSameStatementsWithBatching() {
+        Result unbatched = measure(1, List::of, users -> registerUsers());
+        Result batched = measure(null, List::of, users -> registerUsers());
+
+        report("registrations", unbatched, batched);
+
+        assertEquals(OPERATIONS * 4, unbatched.statements());
+        assertEquals(OPERATIONS * 4, batched.statements());
+    }
+
+    @Test
+    void shouldBatchingReduceStatementsForTransfers() {
+        Result unbatched = measure(1, this::createUsers, this::transferAmounts);
+        Result batched = measure(null, this::createUsers, this::transferAmounts);
+
+        report("transfers", unbatched, batched);
+
+        assertEquals(OPERATIONS * 6, unbatched.statements());
+        assertEquals(OPERATIONS * 5, batched.statements());
+    }
+
+    private void registerUsers() {
+        for (int i = 0; i < OPERATIONS; i++) {
+            authService.registerUser("Faiz", "Shah", "user" + USERS.incrementAndGet() + "@example.com", "helloworld");
+        }
+    }
+
+    private List<User> createUsers() {
+        List<User> users = new ArrayList<>();
+
+        for (int i = 0; i < OPERATIONS * 2; i++) {
+            User user = authService.registerUser("Faiz", "Shah", "user" + USERS.incrementAndGet() + "@example.com", "helloworld");
+            walletService.activateWallet(user, Currency.RUPEE);
+            walletService.depositAmountToWallet(100.0, user.getWallet().getId());
+            users.add(user);
+        }
+
+        entityManager.flush();
+
+        return users;
+    }
+
+    private void transferAmounts(List<User> users) {
+        for (int i = 0; i < OPERATIONS; i++) {
+            walletService.transferAmountToWallet(5.0, users.get(2 * i), users.get(2 * i + 1).getWallet().getId());
+        }
+    }
+
+    /**
+     * Runs the setup and the workload in one transaction, counting the statements of the workload
+     * up to its flush.
+     */
+    private Result measure(Integer batchSize, Supplier<List<User>> setup, Consumer<List<User>> workload) {
+        return transactionTemplate.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<User> users = setup.get();
+
+            try (StatementRecorder recorder = StatementRecorder.start(0)) {
+                long start = System.nanoTime();
+                workload.accept(users);
+                entityManager.flush();
+                long elapsed = System.nanoTime() - start;
+
+                return new Result(recorder.getCount(), elapsed / 1_000_000.0);
+            }
+        });
+    }
+
+    private void report(String workload, Result unbatched, Result batched) {
+        LOGGER.info("{} x{}: unbatched {} statements in {} ms, batched {} statements in {} ms",
+                workload, OPERATIONS,
+                unbatched.statements(), String.format("%.2f", unbatched.millis()),
+                batched.statements(), String.format("%.2f", batched.millis()));
+    }
+
+    private record Result(long statements, double millis) {
+    }
+}
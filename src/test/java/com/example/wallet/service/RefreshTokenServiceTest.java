@@ -0,0 +1,112 @@
+package com.example.wallet.service;
+
+import com.example.wallet.entity.RefreshToken;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2023, 1, 1, 10, 0);
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(refreshTokenService, "expiration", Duration.ofDays(30));
+        ReflectionTestUtils.setField(refreshTokenService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(refreshTokenService, "clock", Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+    }
+
+    @Test
+    void shouldIssueTokenStoringOnlyItsHash() {
+        String token = refreshTokenService.issue(1L);
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(1)).save(captor.capture());
+
+        assertEquals(43, token.length());
+        assertEquals(RefreshTokenService.hash(token), captor.getValue().getTokenHash());
+        assertNotEquals(token, captor.getValue().getTokenHash());
+        assertEquals(1L, captor.getValue().getUserId());
+        assertEquals(NOW.plusDays(30), captor.getValue().getExpiresAt());
+        assertFalse(captor.getValue().isUsed());
+    }
+
+    @Test
+    void shouldRotateTokenWithinItsFamily() {
+        RefreshToken refreshToken = refreshToken(NOW.plusDays(1), null);
+
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenService.hash("token"))).thenReturn(Optional.of(refreshToken));
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("token");
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository, times(2)).save(captor.capture());
+
+        assertEquals(1L, rotation.userId());
+        assertEquals(NOW, refreshToken.getUsedAt());
+        assertEquals("family", captor.getAllValues().get(1).getFamilyId());
+        assertEquals(RefreshTokenService.hash(rotation.refreshToken()), captor.getAllValues().get(1).getTokenHash());
+    }
+
+    @Test
+    void shouldRevokeFamilyIfTokenIsReused() {
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenService.hash("token"))).thenReturn(Optional.of(refreshToken(NOW.plusDays(1), NOW.minusMinutes(1))));
+
+        AppException exception = assertThrows(AppException.class, () -> refreshTokenService.rotate("token"));
+
+        assertEquals(ErrorCode.INVALID_REFRESH_TOKEN, exception.getCode());
+        verify(refreshTokenRepository, times(1)).deleteFamily("family");
+        verify(refreshTokenRepository, never()).save(any());
+        assertEquals(1, meterRegistry.get("wallet.auth.refresh.reuse").counter().count());
+    }
+
+    @Test
+    void shouldRejectExpiredAndUnknownTokens() {
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenService.hash("expired"))).thenReturn(Optional.of(refreshToken(NOW, null)));
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenService.hash("unknown"))).thenReturn(Optional.empty());
+
+        assertEquals("Refresh token expired", assertThrows(AppException.class, () -> refreshTokenService.rotate("expired")).getMessage());
+        assertEquals("Invalid refresh token", assertThrows(AppException.class, () -> refreshTokenService.rotate("unknown")).getMessage());
+
+        verify(refreshTokenRepository, never()).save(any());
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+    }
+
+    private RefreshToken refreshToken(LocalDateTime expiresAt, LocalDateTime usedAt) {
+        return RefreshToken.builder()
+                .id(1L)
+                .userId(1L)
+                .familyId("family")
+                .tokenHash("hash")
+                .createdAt(NOW.minusDays(1))
+                .expiresAt(expiresAt)
+                .usedAt(usedAt)
+                .build();
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.wallet.service;
+
+import com.example.wallet.dto.response.TransactionImportReport;
+import com.example.wallet.entity.ImportedFile;
+import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.rates.RateSet;
+import com.example.wallet.repository.ImportedFileRepository;
+import com.example.wallet.repository.TransactionBulkRepository;
+import com.example.wallet.repository.WalletRepository;
+import com.example.wallet.repository.WalletStripeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionImportServiceTest {
+
+    @InjectMocks
+    private TransactionImportService transactionImportService;
+
+    @Mock
+    private TransactionBulkRepository transactionBulkRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletStripeRepository walletStripeRepository;
+
+    @Mock
+    private ImportedFileRepository importedFileRepository;
+
+    @Mock
+    private ConversionRates conversionRates;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionPartitionService transactionPartitionService;
+
+    @TempDir
+    Path directory;
+
+    private final List<Transaction> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        ReflectionTestUtils.setField(transactionImportService, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(transactionImportService, "batchSize", 2);
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+
+        doAnswer(invocation -> inserted.addAll(invocation.getArgument(0))).when(transactionBulkRepository).insertAll(anyList());
+        when(conversionRates.getRateSet(any())).thenReturn(Optional.empty());
+        when(conversionRates.getRateSet(0L)).thenReturn(Optional.of(RateSet.DEFAULT));
+        when(walletRepository.addAmount(anyLong(), anyDouble())).thenReturn(1);
+        when(walletRepository.findExistingIds(anyCollection())).thenAnswer(invocation -> new ArrayList<>(invocation.<Collection<Long>>getArgument(0)));
+        when(importedFileRepository.findById(anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void shouldImportCsvTransactionsInBatches() throws Exception {
+        Path file = directory.resolve("legacy.csv.gz");
+
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(file))) {
+            output.write(("transaction_type,from_wallet_id,from_wallet_amount,from_wallet_currency,to_wallet_id,to_wallet_amount,to_wallet_currency,rate_version,created_at\n" +
+                    "DEPOSIT,1,10.0,RUPEE,1,10.0,RUPEE,,2021-01-01T10:00\n" +
+                    "TRANSFER,1,4.0,RUPEE,2,8.0,YEN,0,2021-01-02T10:00\n" +
+                    "WITHDRAW,2,3.0,YEN,2,3.0,YEN,,2021-01-03T10:00\n" +
+                    "TRANSFER,1,1.0,RUPEE,2,5.0,YEN,0,2021-01-04T10:00\n" +
+                    "DEPOSIT,1,abc,RUPEE,1,10.0,RUPEE,,2021-01-05T10:00\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        TransactionImportReport report = transactionImportService.importTransactions(file);
+
+        assertEquals(5, report.rowsRead());
+        assertEquals(3, report.rowsImported());
+        assertEquals(2, report.rowsRejected());
+        assertEquals(2, report.walletsUpdated());
+        assertEquals(List.of("line 5: not a valid transfer transaction", "line 6: For input string: \"abc\""), report.errors());
+        assertEquals(List.of(TransactionType.DEPOSIT, TransactionType.TRANSFER, TransactionType.WITHDRAW),
+                inserted.stream().map(Transaction::getTransactionType).toList());
+
+        verify(transactionBulkRepository, times(2)).insertAll(anyList());
+        verify(transactionService, times(2)).recordDailyAggregates(anyList());
+        verify(walletRepository, times(1)).addAmount(1L, 6.0);
+        verify(walletRepository, times(1)).addAmount(2L, 8.0);
+        verify(walletRepository, times(1)).addAmount(2L, -3.0);
+        verify(transactionPartitionService, times(1)).ensurePartition(YearMonth.of(2021, 1));
+    }
+
+    @Test
+    void shouldImportNdjsonTransactions() throws Exception {
+        Path file = directory.resolve("legacy.ndjson");
+        Files.writeString(file,
+                "{\"fromWalletId\":1,\"fromWalletAmount\":10.0,\"fromWalletCurrency\":\"RUPEE\",\"toWalletId\":1,\"toWalletAmount\":10.0,\"toWalletCurrency\":\"RUPEE\",\"transactionType\":\"DEPOSIT\",\"createdAt\":\"2021-01-01T10:00:00\"}\n" +
+                "\n" +
+                "{\"fromWalletId\":1,\"fromWalletAmount\":10.0,\"fromWalletCurrency\":\"RUPEE\",\"toWalletId\":1,\"toWalletAmount\":10.0,\"toWalletCurrency\":\"RUPEE\",\"transactionType\":\"DEPOSIT\"}\n");
+
+        TransactionImportReport report = transactionImportService.importTransactions(file);
+
+        assertEquals(2, report.rowsRead());
+        assertEquals(1, report.rowsImported());
+        assertEquals(1, report.rowsRejected());
+        assertEquals(1, report.walletsUpdated());
+
+        verify(walletRepository, times(1)).addAmount(1L, 10.0);
+
+        ArgumentCaptor<ImportedFile> importedFile = ArgumentCaptor.forClass(ImportedFile.class);
+        verify(importedFileRepository, times(1)).save(importedFile.capture());
+
+        assertEquals(1, importedFile.getValue().getRowsImported());
+        assertTrue(importedFile.getValue().isCompleted());
+    }
+
+    @Test
+    void shouldRejectRowsOfUnknownWallets() throws Exception {
+        Path file = directory.resolve("legacy.csv");
+        Files.writeString(file, "transaction_type,from_wallet_id,from_wallet_amount,from_wallet_currency,to_wallet_id,to_wallet_amount,to_wallet_currency,rate_version,created_at\n" +
+                "DEPOSIT,1,10.0,RUPEE,1,10.0,RUPEE,,2021-01-01T10:00\n" +
+                "TRANSFER,1,4.0,RUPEE,9,8.0,YEN,0,2021-01-02T10:00\n" +
+                "DEPOSIT,9,5.0,YEN,9,5.0,YEN,,2021-02-03T10:00\n");
+
+        when(walletRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+
+        TransactionImportReport report = transactionImportService.importTransactions(file);
+
+        assertEquals(3, report.rowsRead());
+        assertEquals(1, report.rowsImported());
+        assertEquals(2, report.rowsRejected());
+        assertEquals(Set.of(9L), report.unknownWalletIds());
+        assertEquals(List.of(TransactionType.DEPOSIT), inserted.stream().map(Transaction::getTransactionType).toList());
+
+        verify(walletRepository, times(1)).addAmount(1L, 10.0);
+        verify(walletRepository, never()).addAmount(eq(9L), anyDouble());
+        verify(transactionPartitionService, times(1)).ensurePartition(YearMonth.of(2021, 1));
+        verify(transactionPartitionService, times(1)).ensurePartition(YearMonth.of(2021, 2));
+
+        ArgumentCaptor<ImportedFile> importedFile = ArgumentCaptor.forClass(ImportedFile.class);
+        verify(importedFileRepository, times(2)).save(importedFile.capture());
+
+        assertEquals(3, importedFile.getValue().getRowsImported());
+    }
+
+    @Test
+    void shouldResumeAPartiallyImportedFileAfterItsCommittedRows() throws Exception {
+        Path file = directory.resolve("legacy.csv");
+        Files.writeString(file, "transaction_type,from_wallet_id,from_wallet_amount,from_wallet_currency,to_wallet_id,to_wallet_amount,to_wallet_currency,created_at\n" +
+                "DEPOSIT,1,10.0,RUPEE,1,10.0,RUPEE,2021-01-01T10:00\n" +
+                "DEPOSIT,1,abc,RUPEE,1,10.0,RUPEE,2021-01-02T10:00\n" +
+                "DEPOSIT,1,7.0,RUPEE,1,7.0,RUPEE,2021-01-03T10:00\n");
+
+        when(importedFileRepository.findById(anyString())).thenReturn(Optional.of(ImportedFile.builder()
+                .checksum("checksum")
+                .fileName("legacy.csv")
+                .rowsImported(1)
+                .build()));
+
+        TransactionImportReport report = transactionImportService.importTransactions(file);
+
+        assertEquals(1, report.rowsSkipped());
+        assertEquals(1, report.rowsImported());
+        assertEquals(List.of(7.0), inserted.stream().map(Transaction::getToWalletAmount).toList());
+
+        verify(walletRepository, times(1)).addAmount(1L, 7.0);
+    }
+
+    @Test
+    void shouldSkipAFileThatWasAlreadyImported() throws Exception {
+        Path file = directory.resolve("legacy.csv");
+        Files.writeString(file, "transaction_type,from_wallet_id,from_wallet_amount,from_wallet_currency,to_wallet_id,to_wallet_amount,to_wallet_currency,created_at\n" +
+                "DEPOSIT,1,10.0,RUPEE,1,10.0,RUPEE,2021-01-01T10:00\n");
+
+        when(importedFileRepository.findById(anyString())).thenReturn(Optional.of(ImportedFile.builder()
+                .checksum("checksum")
+                .fileName("legacy.csv")
+                .rowsImported(1)
+                .completed(true)
+                .build()));
+
+        TransactionImportReport report = transactionImportService.importTransactions(file);
+
+        assertEquals(0, report.rowsImported());
+        assertEquals(1, report.rowsSkipped());
+
+        verifyNoInteractions(transactionBulkRepository, walletRepository);
+    }
+}
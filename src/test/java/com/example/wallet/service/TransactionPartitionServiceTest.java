@@ -0,0 +1,225 @@
+package com.example.wallet.service;
+
+import com.example.wallet.repository.TransactionArchiveRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class TransactionPartitionServiceTest {
+
+    @InjectMocks
+    private TransactionPartitionService transactionPartitionService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(transactionPartitionService, "monthsAhead", 1);
+        ReflectionTestUtils.setField(transactionPartitionService, "retentionMonths", 12);
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void shouldSkipMaintenanceOnOtherDatabases() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        transactionPartitionService.maintainPartitions();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+    }
+
+    @Test
+    void shouldCreateMissingPartitionsEvenIfArchivingIsDisabled() {
+        String current = TransactionPartitionService.partitionName(YearMonth.now());
+        String next = TransactionPartitionService.partitionName(YearMonth.now().plusMonths(1));
+
+        mockPostgres();
+        when(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, current)).thenReturn(true);
+        when(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, next)).thenReturn(false);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+
+        transactionPartitionService.maintainPartitions();
+
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE " + next + " PARTITION OF wallet_transactions"));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE " + current));
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any());
+    }
+
+    @Test
+    void shouldCreatePartitionsForPastMonthsInTheDefaultPartition() {
+        mockPostgres();
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), anyString()))
+                .thenAnswer(invocation -> !"wallet_transactions_2019_03".equals(invocation.getArgument(2)));
+        when(jdbcTemplate.queryForList(startsWith("SELECT DISTINCT to_char(created_at, 'YYYY_MM') FROM wallet_transactions_default"), eq(String.class)))
+                .thenReturn(List.of("2019_03"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+
+        transactionPartitionService.maintainPartitions();
+
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE wallet_transactions_2019_03 PARTITION OF wallet_transactions FOR VALUES FROM ('2019-03-01') TO ('2019-04-01')"));
+        verify(jdbcTemplate, times(1)).update(startsWith("INSERT INTO wallet_transactions SELECT * FROM wallet_transactions_default WHERE created_at >= '2019-03-01'"));
+    }
+
+    @Test
+    void shouldEnsurePartitionOnlyOnPartitionedTables() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        transactionPartitionService.ensurePartition(YearMonth.of(2019, 3));
+
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+
+        mockPostgres();
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), anyString())).thenReturn(false);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(false);
+
+        transactionPartitionService.ensurePartition(YearMonth.of(2019, 3));
+
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE TABLE wallet_transactions_2019_03 PARTITION OF wallet_transactions"));
+    }
+
+    @Test
+    void shouldMoveRowsOutOfTheDefaultPartition() {
+        String next = TransactionPartitionService.partitionName(YearMonth.now().plusMonths(1));
+
+        mockPostgres();
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), anyString()))
+                .thenAnswer(invocation -> !next.equals(invocation.getArgument(2)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class))).thenReturn(true);
+        when(jdbcTemplate.update(startsWith("INSERT INTO wallet_transactions SELECT * FROM wallet_transactions_default"))).thenReturn(3);
+
+        transactionPartitionService.maintainPartitions();
+
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).execute("ALTER TABLE wallet_transactions DETACH PARTITION wallet_transactions_default");
+        order.verify(jdbcTemplate).execute(startsWith("CREATE TABLE " + next));
+        order.verify(jdbcTemplate).update(startsWith("INSERT INTO wallet_transactions SELECT * FROM wallet_transactions_default"));
+        order.verify(jdbcTemplate).update(startsWith("DELETE FROM wallet_transactions_default"));
+        order.verify(jdbcTemplate).execute("ALTER TABLE wallet_transactions ATTACH PARTITION wallet_transactions_default DEFAULT");
+    }
+
+    @Test
+    void shouldRefreshTheArchivedMonthsAfterArchiving() throws Exception {
+        ReflectionTestUtils.setField(transactionPartitionService, "archiveEnabled", true);
+
+        mockPostgres();
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), any())).thenReturn(true);
+
+        transactionPartitionService.maintainPartitions();
+
+        verify(transactionArchiveRepository, times(1)).refresh();
+    }
+
+    @Test
+    void shouldStreamOldPartitionsIntoTheArchive() throws Exception {
+        ReflectionTestUtils.setField(transactionPartitionService, "archiveEnabled", true);
+        ReflectionTestUtils.setField(transactionPartitionService, "fetchSize", 500);
+
+        TransactionArchiveRepository.ArchiveWriter writer = mock(TransactionArchiveRepository.ArchiveWriter.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+
+        mockPostgres();
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), any())).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of("wallet_transactions_2000_01"));
+        when(transactionArchiveRepository.openWriter(YearMonth.of(2000, 1))).thenReturn(writer);
+        when(writer.commit()).thenReturn(2L);
+        when(connection.prepareStatement(endsWith(") entries ORDER BY wallet_id, id"))).thenReturn(statement);
+        when(resultSet.getLong("wallet_id")).thenReturn(1L, 2L);
+        when(resultSet.getString("transaction_type")).thenReturn("DEPOSIT");
+        when(resultSet.getTimestamp("created_at")).thenReturn(Timestamp.valueOf("2000-01-01 10:10:00"));
+        doAnswer(invocation -> {
+            assertSame(statement, invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection));
+
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        transactionPartitionService.maintainPartitions();
+
+        verify(statement, times(1)).setFetchSize(500);
+        verify(writer, times(1)).append(eq(1L), any());
+        verify(writer, times(1)).append(eq(2L), any());
+
+        InOrder order = inOrder(writer, jdbcTemplate);
+        order.verify(writer).commit();
+        order.verify(jdbcTemplate).execute("ALTER TABLE wallet_transactions DETACH PARTITION wallet_transactions_2000_01");
+        order.verify(jdbcTemplate).execute("DROP TABLE wallet_transactions_2000_01");
+    }
+
+    @Test
+    void shouldKeepThePartitionIfTheArchiveCannotBeWritten() throws Exception {
+        ReflectionTestUtils.setField(transactionPartitionService, "archiveEnabled", true);
+
+        TransactionArchiveRepository.ArchiveWriter writer = mock(TransactionArchiveRepository.ArchiveWriter.class);
+
+        mockPostgres();
+        when(jdbcTemplate.queryForObject(eq("SELECT to_regclass(?) IS NOT NULL"), eq(Boolean.class), any())).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of("wallet_transactions_2000_01"));
+        when(transactionArchiveRepository.openWriter(YearMonth.of(2000, 1))).thenReturn(writer);
+        when(writer.commit()).thenThrow(new IOException("disk full"));
+
+        transactionPartitionService.maintainPartitions();
+
+        verify(writer, times(1)).close();
+        verify(jdbcTemplate, never()).execute(contains("DETACH"));
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+
+    @Test
+    void shouldIgnoreTheDefaultPartitionWhenArchiving() {
+        assertNull(TransactionPartitionService.partitionMonth("wallet_transactions_default"));
+        assertEquals(YearMonth.of(2023, 1), TransactionPartitionService.partitionMonth("wallet_transactions_2023_01"));
+    }
+
+    private void mockPostgres() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("PostgreSQL");
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*) FROM pg_partitioned_table"), eq(Integer.class), any())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any())).thenReturn(List.of());
+    }
+}
@@ -1,7 +1,14 @@
 package com.example.wallet.service;
 
+import com.example.wallet.dto.response.TransactionResponse;
+import com.example.wallet.dto.response.TransactionSummaryResponse;
+import com.example.wallet.dto.response.TransactionTypeSummary;
 import com.example.wallet.entity.*;
 import com.example.wallet.exception.AppException;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.rates.RateSet;
+import com.example.wallet.repository.DailyWalletAggregateRepository;
+import com.example.wallet.repository.TransactionArchiveRepository;
 import com.example.wallet.repository.TransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,8 +17,11 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -24,9 +34,20 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private TransactionArchiveRepository transactionArchiveRepository;
+
+    @Mock
+    private DailyWalletAggregateRepository dailyWalletAggregateRepository;
+
+    @Mock
+    private ConversionRates conversionRates;
+
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+
+        when(conversionRates.getRateSet(any())).thenReturn(Optional.of(RateSet.DEFAULT));
     }
 
     @Test
@@ -72,6 +93,31 @@ class TransactionServiceTest {
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
+    @Test
+    void shouldCreateTransferTransactionThrowAnErrorIfRateVersionIsUnknown() {
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(2L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .rateVersion(7L)
+                .transactionType(TransactionType.TRANSFER)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+
+        when(conversionRates.getRateSet(7L)).thenReturn(Optional.empty());
+
+        AppException exception = assertThrows(AppException.class, () -> transactionService.createTransferTransaction(transaction));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatus());
+        assertEquals("Unknown conversion rate version", exception.getMessage());
+
+        verify(transactionRepository, never()).save(any(Transaction.class));
+    }
+
     @Test
     void shouldCreateDepositTransactionWorkCorrectly() {
         Transaction transaction = Transaction.builder()
@@ -180,16 +226,16 @@ class TransactionServiceTest {
         Transaction transaction1 = user.getWallet().depositMoney(5.0);
         Transaction transaction2 = user.getWallet().depositMoney(6.0);
 
-        when(transactionRepository.getTransactionsByWalletId(1L)).thenReturn(List.of(transaction1, transaction2));
+        when(transactionRepository.findTransactionResponsesByWalletId(1L)).thenReturn(List.of(TransactionResponse.from(transaction1), TransactionResponse.from(transaction2)));
 
-        List<Transaction> transactions = transactionService.getAllTransactions(user);
+        List<TransactionResponse> transactions = transactionService.getAllTransactions(user.getWallet());
 
         assertNotNull(transactions);
         assertEquals(2, transactions.size());
-        assertEquals(transaction1, transactions.get(0));
-        assertEquals(transaction2, transactions.get(1));
+        assertEquals(TransactionResponse.from(transaction1), transactions.get(0));
+        assertEquals(TransactionResponse.from(transaction2), transactions.get(1));
 
-        verify(transactionRepository, times(1)).getTransactionsByWalletId(1L);
+        verify(transactionRepository, times(1)).findTransactionResponsesByWalletId(1L);
     }
 
     @Test
@@ -209,12 +255,184 @@ class TransactionServiceTest {
                 .locked(false)
                 .build();
 
-        AppException exception = assertThrows(AppException.class, () -> transactionService.getAllTransactions(user));
+        AppException exception = assertThrows(AppException.class, () -> transactionService.getAllTransactions(user.getWallet()));
 
         assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatus());
         assertEquals("User's wallet is not activated yet", exception.getMessage());
 
-        verify(transactionRepository, never()).getTransactionsByWalletId(any());
+        verify(transactionRepository, never()).findTransactionResponsesByWalletId(any());
+    }
+
+    @Test
+    void shouldGetTransactionsReadOnlyLiveTransactionsIfRangeIsNotArchived() throws Exception {
+        Wallet wallet = Wallet.builder()
+                .id(1L)
+                .isActivated(true)
+                .build();
+
+        User user = User.builder()
+                .id(1L)
+                .wallet(wallet)
+                .build();
+
+        LocalDateTime from = LocalDateTime.of(2023, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 4, 1, 0, 0);
+
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .createdAt(LocalDateTime.of(2023, 3, 2, 10, 10))
+                .build();
+
+        when(transactionArchiveRepository.findLatestArchivedMonth()).thenReturn(Optional.of(YearMonth.of(2023, 1)));
+        when(transactionRepository.findTransactionResponsesByWalletIdBetween(1L, from, to)).thenReturn(List.of(TransactionResponse.from(transaction)));
+
+        List<TransactionResponse> transactions = transactionService.getTransactions(user.getWallet(), from, to);
+
+        assertEquals(List.of(TransactionResponse.from(transaction)), transactions);
+
+        verify(transactionArchiveRepository, never()).findByWalletId(any(), any(), any());
+    }
+
+    @Test
+    void shouldGetTransactionsReadArchiveIfRangeReachesArchivedMonths() throws Exception {
+        Wallet wallet = Wallet.builder()
+                .id(1L)
+                .isActivated(true)
+                .build();
+
+        User user = User.builder()
+                .id(1L)
+                .wallet(wallet)
+                .build();
+
+        LocalDateTime from = LocalDateTime.of(2023, 1, 15, 0, 0);
+        LocalDateTime liveFrom = LocalDateTime.of(2023, 2, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 3, 1, 0, 0);
+
+        Transaction archivedTransaction = Transaction.builder()
+                .id(1L)
+                .createdAt(LocalDateTime.of(2023, 1, 20, 10, 10))
+                .build();
+
+        Transaction liveTransaction = Transaction.builder()
+                .id(2L)
+                .createdAt(LocalDateTime.of(2023, 2, 2, 10, 10))
+                .build();
+
+        when(transactionArchiveRepository.findLatestArchivedMonth()).thenReturn(Optional.of(YearMonth.of(2023, 1)));
+        when(transactionArchiveRepository.findByWalletId(1L, from, liveFrom)).thenReturn(List.of(archivedTransaction));
+        when(transactionRepository.findTransactionResponsesByWalletIdBetween(1L, liveFrom, to)).thenReturn(List.of(TransactionResponse.from(liveTransaction)));
+
+        List<TransactionResponse> transactions = transactionService.getTransactions(user.getWallet(), from, to);
+
+        assertEquals(List.of(TransactionResponse.from(archivedTransaction), TransactionResponse.from(liveTransaction)), transactions);
+    }
+
+    @Test
+    void shouldGetTransactionsStartAtTheEarliestArchivedMonthWithoutFrom() throws Exception {
+        Wallet wallet = Wallet.builder()
+                .id(1L)
+                .isActivated(true)
+                .build();
+
+        LocalDateTime to = LocalDateTime.of(2023, 4, 1, 0, 0);
+
+        when(transactionArchiveRepository.findEarliestArchivedMonth()).thenReturn(Optional.of(YearMonth.of(2022, 11)));
+        when(transactionArchiveRepository.findLatestArchivedMonth()).thenReturn(Optional.of(YearMonth.of(2023, 1)));
+
+        transactionService.getTransactions(wallet, null, to);
+
+        verify(transactionArchiveRepository, times(1)).findByWalletId(1L, LocalDateTime.of(2022, 11, 1, 0, 0), LocalDateTime.of(2023, 2, 1, 0, 0));
+        verify(transactionRepository, times(1)).findTransactionResponsesByWalletIdBetween(1L, LocalDateTime.of(2023, 2, 1, 0, 0), to);
+    }
+
+    @Test
+    void shouldGetAllTransactionsIncludeArchivedMonths() throws Exception {
+        Wallet wallet = Wallet.builder()
+                .id(1L)
+                .isActivated(true)
+                .build();
+
+        LocalDateTime liveFrom = LocalDateTime.of(2023, 2, 1, 0, 0);
+
+        Transaction archivedTransaction = Transaction.builder()
+                .id(1L)
+                .createdAt(LocalDateTime.of(2023, 1, 20, 10, 10))
+                .build();
+
+        Transaction liveTransaction = Transaction.builder()
+                .id(2L)
+                .createdAt(LocalDateTime.of(2023, 2, 2, 10, 10))
+                .build();
+
+        when(transactionArchiveRepository.findEarliestArchivedMonth()).thenReturn(Optional.of(YearMonth.of(2022, 11)));
+        when(transactionArchiveRepository.findLatestArchivedMonth()).thenReturn(Optional.of(YearMonth.of(2023, 1)));
+        when(transactionArchiveRepository.findByWalletId(1L, LocalDateTime.of(2022, 11, 1, 0, 0), liveFrom)).thenReturn(List.of(archivedTransaction));
+        when(transactionRepository.findTransactionResponsesByWalletId(1L)).thenReturn(List.of(TransactionResponse.from(liveTransaction)));
+
+        List<TransactionResponse> transactions = transactionService.getAllTransactions(wallet);
+
+        assertEquals(List.of(TransactionResponse.from(archivedTransaction), TransactionResponse.from(liveTransaction)), transactions);
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldGetTransactionsThrowErrorIfRangeIsInvalid() {
+        Wallet wallet = Wallet.builder()
+                .id(1L)
+                .isActivated(true)
+                .build();
+
+        User user = User.builder()
+                .id(1L)
+                .wallet(wallet)
+                .build();
+
+        LocalDateTime date = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+        AppException exception = assertThrows(AppException.class, () -> transactionService.getTransactions(user.getWallet(), date, date));
+
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        assertEquals("Invalid transactions date range", exception.getMessage());
+    }
+
+    @Test
+    void shouldCreateTransferTransactionRecordDailyAggregatesForBothWallets() {
+        Transaction transaction = Transaction.builder()
+                .id(1L)
+                .fromWalletId(1L)
+                .fromWalletAmount(5.0)
+                .fromWalletCurrency(Currency.RUPEE)
+                .toWalletId(2L)
+                .toWalletAmount(5.0)
+                .toWalletCurrency(Currency.RUPEE)
+                .transactionType(TransactionType.TRANSFER)
+                .createdAt(LocalDateTime.of(2023, 1, 1, 10, 10))
+                .build();
+
+        LocalDate date = LocalDate.of(2023, 1, 1);
+
+        transactionService.createTransferTransaction(transaction);
+
+        verify(dailyWalletAggregateRepository, times(1)).merge(1L, date, "TRANSFER", 0, 0, 1, 5.0);
+        verify(dailyWalletAggregateRepository, times(1)).merge(2L, date, "TRANSFER", 1, 5.0, 0, 0);
+        verify(dailyWalletAggregateRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldGetTransactionSummaryWorkCorrectly() {
+        User user = User.builder()
+                .id(1L)
+                .wallet(Wallet.builder().id(1L).isActivated(true).build())
+                .build();
+
+        LocalDate from = LocalDate.of(2023, 1, 1);
+        LocalDate to = LocalDate.of(2023, 1, 31);
+        List<TransactionTypeSummary> totals = List.of(new TransactionTypeSummary(TransactionType.DEPOSIT, 2L, 11.0, 0L, 0.0));
+
+        when(dailyWalletAggregateRepository.summarize(1L, from, to)).thenReturn(totals);
+
+        TransactionSummaryResponse summary = transactionService.getTransactionSummary(user.getWallet(), from, to);
+
+        assertEquals(new TransactionSummaryResponse(from, to, totals), summary);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.wallet.service;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransferBatcherTest {
+
+    @InjectMocks
+    private TransferBatcher transferBatcher;
+
+    @Mock
+    private WalletService walletService;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private Wallet fromWallet;
+    private Wallet toWallet;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        ReflectionTestUtils.setField(transferBatcher, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(transferBatcher, "maxWaitMs", 1000L);
+        ReflectionTestUtils.setField(transferBatcher, "queueCapacity", 16);
+
+        fromWallet = Wallet.builder()
+                .id(1L)
+                .amount(100.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build();
+
+        toWallet = Wallet.builder()
+                .id(2L)
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build();
+
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        when(walletRepository.findAllByIdInForUpdate(anyCollection())).thenReturn(List.of(fromWallet, toWallet));
+        when(walletService.transferAmountBetweenWallets(any(), eq(fromWallet), eq(toWallet))).thenAnswer(invocation -> {
+            Double amount = invocation.getArgument(0);
+
+            if (amount == 77.0) {
+                throw new QueryTimeoutException("statement timed out");
+            }
+
+            if (amount > fromWallet.getAmount()) {
+                throw new AppException(HttpStatus.UNPROCESSABLE_ENTITY, "Cannot transfer more than your current balance");
+            }
+
+            fromWallet.setAmount(fromWallet.getAmount() - amount);
+            return fromWallet;
+        });
+
+        transferBatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        transferBatcher.stop();
+    }
+
+    @Test
+    void shouldApplyConcurrentTransfersInOneTransaction() {
+        List<CompletableFuture<Wallet>> results = List.of(
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(10.0, 1L, 2L)),
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(20.0, 1L, 2L)),
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(30.0, 1L, 2L))
+        );
+
+        List<Double> balances = results.stream().map(CompletableFuture::join).map(Wallet::getAmount).sorted().toList();
+
+        assertEquals(40.0, balances.get(0));
+        assertEquals(3, balances.size());
+
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(walletRepository, times(1)).findAllByIdInForUpdate(anyCollection());
+    }
+
+    @Test
+    void shouldFailOnlyTheTransferWhichCannotBeApplied() {
+        List<CompletableFuture<Wallet>> results = List.of(
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(10.0, 1L, 2L)),
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(500.0, 1L, 2L)),
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(30.0, 1L, 2L))
+        );
+
+        long failed = results.stream().filter(result -> {
+            try {
+                result.join();
+                return false;
+            } catch (CompletionException e) {
+                assertInstanceOf(AppException.class, e.getCause());
+                assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, ((AppException) e.getCause()).getStatus());
+                return true;
+            }
+        }).count();
+
+        assertEquals(1, failed);
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    @Test
+    void shouldSplitTheBatchToIsolateATransferWhichFailsInTheDatabase() {
+        List<CompletableFuture<Wallet>> results = List.of(
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(10.0, 1L, 2L)),
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(77.0, 1L, 2L)),
+                CompletableFuture.supplyAsync(() -> transferBatcher.transferAmountToWallet(5.0, 1L, 2L))
+        );
+
+        long failed = results.stream().filter(result -> {
+            try {
+                result.join();
+                return false;
+            } catch (CompletionException e) {
+                assertInstanceOf(QueryTimeoutException.class, e.getCause());
+                return true;
+            }
+        }).count();
+
+        assertEquals(1, failed);
+        verify(transactionTemplate, atLeast(3)).executeWithoutResult(any());
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.wallet.service;
 
+import com.example.wallet.entity.Currency;
 import com.example.wallet.entity.User;
+import com.example.wallet.entity.Wallet;
 import com.example.wallet.repository.UserRepository;
+import com.example.wallet.security.UserCredentials;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import java.util.Optional;
@@ -29,35 +33,59 @@ class UserServiceTest {
 
     @Test
     void shouldUsernameByEmailWorkProperly() {
+        UserCredentials credentials = new UserCredentials(1L, "faizbshah2001@gmail.com", "hjhjkjjkh", false, true);
+
+        when(userRepository.findCredentialsByEmail(credentials.email())).thenReturn(Optional.of(credentials));
+
+        UserDetails loadedUser = userService.loadUserByUsername(credentials.email());
+
+        assertEquals(credentials, loadedUser);
+        assertEquals("faizbshah2001@gmail.com", loadedUser.getUsername());
+        assertTrue(loadedUser.isEnabled());
+        assertTrue(loadedUser.isAccountNonLocked());
+
+        verify(userRepository, times(1)).findCredentialsByEmail(credentials.email());
+        verify(userRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    void shouldUsernameByEmailThrowErrorIfUserNotFound() {
+        when(userRepository.findCredentialsByEmail(anyString())).thenReturn(Optional.empty());
+
+        UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("faizbshah2001@gmail.com"));
+
+        assertEquals("User does not exist with email faizbshah2001@gmail.com", exception.getMessage());
+
+        verify(userRepository, times(1)).findCredentialsByEmail("faizbshah2001@gmail.com");
+    }
+
+    @Test
+    void shouldLoadUserWithWalletWorkProperly() {
         User user = User.builder()
                 .id(1L)
                 .firstName("Faiz")
                 .lastName("Shah")
                 .email("faizbshah2001@gmail.com")
                 .password("hjhjkjjkh")
+                .wallet(Wallet.builder().id(1L).amount(0.0).currency(Currency.RUPEE).build())
                 .enabled(true)
                 .locked(false)
                 .build();
 
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(userRepository.findWithWalletByEmail(user.getEmail())).thenReturn(Optional.of(user));
 
-        User loadedUser = (User) userService.loadUserByUsername(user.getEmail());
+        assertEquals(user, userService.loadUserWithWallet(user.getEmail()));
 
-        assertNotNull(loadedUser);
-        assertEquals(user, loadedUser);
-
-        verify(userRepository, times(1)).findByEmail(user.getEmail());
+        verify(userRepository, times(1)).findWithWalletByEmail(user.getEmail());
+        verify(userRepository, never()).findByEmail(anyString());
     }
 
     @Test
-    void shouldUsernameByEmailThrowErrorIfUserNotFound() {
+    void shouldLoadUserThrowErrorIfUserNotFound() {
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
 
-        UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> userService.loadUserByUsername("faizbshah2001@gmail.com"));
+        UsernameNotFoundException exception = assertThrows(UsernameNotFoundException.class, () -> userService.loadUser("faizbshah2001@gmail.com"));
 
         assertEquals("User does not exist with email faizbshah2001@gmail.com", exception.getMessage());
-
-        verify(userRepository, times(1)).findByEmail("faizbshah2001@gmail.com");
     }
-
-}
\ No newline at end of file
+}
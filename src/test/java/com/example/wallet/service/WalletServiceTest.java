@@ -1,10 +1,16 @@
 package com.example.wallet.service;
 
+import com.example.wallet.dto.response.WalletResponse;
 import com.example.wallet.entity.Currency;
 import com.example.wallet.entity.Transaction;
+import com.example.wallet.entity.TransactionType;
 import com.example.wallet.entity.User;
 import com.example.wallet.entity.Wallet;
 import com.example.wallet.exception.AppException;
+import com.example.wallet.exception.ErrorCode;
+import com.example.wallet.limits.VelocityLimiter;
+import com.example.wallet.rates.ConversionRates;
+import com.example.wallet.rates.RateSet;
 import com.example.wallet.repository.UserRepository;
 import com.example.wallet.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +19,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
@@ -33,12 +40,20 @@ class WalletServiceTest {
     @Mock
     private TransactionService transactionService;
 
+    @Mock
+    private WalletStripeService walletStripeService;
+
+    @Mock
+    private ConversionRates conversionRates;
+
     private Wallet wallet;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
 
+        when(conversionRates.forConversion(any(), any())).thenReturn(RateSet.DEFAULT);
+
         wallet = Wallet.builder()
                 .id(1L)
                 .amount(5.0)
@@ -255,6 +270,34 @@ class WalletServiceTest {
         assertEquals("User Not Found", exception.getMessage());
     }
 
+    @Test
+    void shouldGetWalletResponseWorkCorrectly() {
+        WalletResponse walletResponse = new WalletResponse(1L, 5.0, Currency.RUPEE, true);
+
+        when(walletRepository.findWalletResponseById(1L)).thenReturn(Optional.of(walletResponse));
+
+        assertEquals(walletResponse, walletService.getWalletResponse(1L));
+    }
+
+    @Test
+    void shouldGetWalletResponseThrowAnErrorIfWalletDoesNotExist() {
+        when(walletRepository.findWalletResponseById(1L)).thenReturn(Optional.empty());
+
+        AppException exception = assertThrows(AppException.class, () -> walletService.getWalletResponse(1L));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertEquals("Wallet Not found", exception.getMessage());
+    }
+
+    @Test
+    void shouldGetWalletThrowAnErrorIfWalletDoesNotExist() {
+        when(walletRepository.findById(1L)).thenReturn(Optional.empty());
+
+        AppException exception = assertThrows(AppException.class, () -> walletService.getWallet(1L));
+
+        assertEquals(ErrorCode.WALLET_NOT_FOUND, exception.getCode());
+    }
+
     @Test
     void shouldTransferAmountToWalletWorkCorrectly() {
         Wallet fromWallet = Wallet.builder()
@@ -492,4 +535,124 @@ class WalletServiceTest {
         verify(walletRepository, never()).save(any(Wallet.class));
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldDepositAmountToStripedWalletCreditAStripe() {
+        Wallet stripedWallet = Wallet.builder()
+                .id(1L)
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .stripeCount(4)
+                .build();
+
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(stripedWallet));
+        when(walletRepository.save(stripedWallet)).thenReturn(stripedWallet);
+        when(walletStripeService.getBalance(stripedWallet)).thenReturn(15.0);
+
+        Wallet savedWallet = walletService.depositAmountToWallet(5.0, 1L);
+
+        assertEquals(0.0, savedWallet.getAmount());
+        assertEquals(15.0, savedWallet.getBalance());
+
+        verify(walletStripeService, times(1)).credit(stripedWallet, 5.0);
+        verify(transactionService, times(1)).createDepositTransaction(any(Transaction.class));
+    }
+
+    @Test
+    void shouldTransferAmountToStripedWalletCreditAStripe() {
+        Wallet toWallet = Wallet.builder()
+                .id(2L)
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .stripeCount(4)
+                .build();
+
+        User user = User.builder()
+                .id(1L)
+                .wallet(wallet)
+                .build();
+
+        when(walletRepository.findById(2L)).thenReturn(Optional.of(toWallet));
+        when(walletRepository.save(wallet)).thenReturn(wallet);
+
+        walletService.transferAmountToWallet(5.0, user, 2L);
+
+        assertEquals(0.0, wallet.getAmount());
+        assertEquals(0.0, toWallet.getAmount());
+
+        verify(walletStripeService, times(1)).credit(toWallet, 5.0);
+        verify(walletStripeService, never()).debit(any(), anyDouble());
+    }
+
+    @Test
+    void shouldTransferAmountBetweenWalletsWorkCorrectly() {
+        Wallet toWallet = Wallet.builder()
+                .id(2L)
+                .amount(10.00)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build();
+
+        Wallet fromWallet = walletService.transferAmountBetweenWallets(2.0, wallet, toWallet);
+
+        assertEquals(wallet, fromWallet);
+        assertEquals(3.0, wallet.getAmount());
+        assertEquals(12.0, toWallet.getAmount());
+
+        verify(transactionService, times(1)).createTransferTransaction(any(Transaction.class));
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+
+    @Test
+    void shouldTransferAmountBetweenWalletsThrowErrorIfTargetWalletDoesNotExist() {
+        AppException exception = assertThrows(AppException.class, () -> walletService.transferAmountBetweenWallets(2.0, wallet, null));
+
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        assertEquals("The wallet you are trying to transfer does not exist", exception.getMessage());
+        assertEquals(5.0, wallet.getAmount());
+
+        verify(transactionService, never()).createTransferTransaction(any(Transaction.class));
+    }
+
+    @Test
+    void shouldDepositAmountToWalletJournalHistoryWhenAsyncHistoryIsEnabled() {
+        AsyncTransactionHistory asyncTransactionHistory = mock(AsyncTransactionHistory.class);
+        ReflectionTestUtils.setField(walletService, "asyncTransactionHistory", asyncTransactionHistory);
+
+        when(walletRepository.findById(1L)).thenReturn(Optional.of(wallet));
+        when(walletRepository.save(wallet)).thenReturn(wallet);
+
+        walletService.depositAmountToWallet(5.0, 1L);
+
+        verify(asyncTransactionHistory, times(1)).recordDeposit(any(Transaction.class));
+        verify(transactionService, never()).createDepositTransaction(any(Transaction.class));
+    }
+
+    @Test
+    void shouldTransferAmountToWalletNotChangeBalancesWhenVelocityLimitIsExceeded() {
+        VelocityLimiter velocityLimiter = mock(VelocityLimiter.class);
+        ReflectionTestUtils.setField(walletService, "velocityLimiter", velocityLimiter);
+
+        User user = User.builder().id(1L).wallet(wallet).build();
+        Wallet toWallet = Wallet.builder()
+                .id(2L)
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build();
+
+        when(walletRepository.findById(2L)).thenReturn(Optional.of(toWallet));
+        doThrow(new AppException(HttpStatus.TOO_MANY_REQUESTS, "Velocity limit transfers-per-minute exceeded, please try again later"))
+                .when(velocityLimiter).acquire(wallet, TransactionType.TRANSFER, 2.0);
+
+        AppException exception = assertThrows(AppException.class, () -> walletService.transferAmountToWallet(2.0, user, 2L));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getStatus());
+        assertEquals(5.0, wallet.getAmount());
+        assertEquals(0.0, toWallet.getAmount());
+
+        verify(transactionService, never()).createTransferTransaction(any(Transaction.class));
+        verify(walletRepository, never()).save(any(Wallet.class));
+    }
+}
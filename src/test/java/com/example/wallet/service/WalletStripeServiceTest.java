@@ -0,0 +1,178 @@
+package com.example.wallet.service;
+
+import com.example.wallet.entity.Currency;
+import com.example.wallet.entity.Wallet;
+import com.example.wallet.entity.WalletStripe;
+import com.example.wallet.exception.AppException;
+import com.example.wallet.repository.WalletRepository;
+import com.example.wallet.repository.WalletStripeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalletStripeServiceTest {
+
+    @InjectMocks
+    private WalletStripeService walletStripeService;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private WalletStripeRepository walletStripeRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        wallet = Wallet.builder()
+                .id(1L)
+                .amount(0.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .stripeCount(4)
+                .build();
+    }
+
+    @Test
+    void shouldStripeWalletMoveBalanceToTheFirstStripe() {
+        Wallet unstripedWallet = Wallet.builder()
+                .id(1L)
+                .amount(10.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build();
+
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(unstripedWallet));
+        when(walletRepository.save(unstripedWallet)).thenReturn(unstripedWallet);
+
+        walletStripeService.stripeWallet(1L, 2);
+
+        assertEquals(0.0, unstripedWallet.getAmount());
+        assertEquals(2, unstripedWallet.getStripeCount());
+
+        verify(walletStripeRepository, times(1)).save(WalletStripe.builder().walletId(1L).stripeIndex(0).amount(10.0).build());
+        verify(walletStripeRepository, times(1)).save(WalletStripe.builder().walletId(1L).stripeIndex(1).amount(0.0).build());
+    }
+
+    @Test
+    void shouldStripeDesignatedWalletsInsideATransactionHoldingTheWalletLock() {
+        Wallet unstripedWallet = Wallet.builder()
+                .id(2L)
+                .amount(10.0)
+                .currency(Currency.RUPEE)
+                .isActivated(true)
+                .build();
+        List<String> events = new ArrayList<>();
+
+        ReflectionTestUtils.setField(walletStripeService, "stripedWalletIds", List.of(1L, 2L, 3L));
+        ReflectionTestUtils.setField(walletStripeService, "stripes", 2);
+
+        doAnswer(invocation -> {
+            events.add("begin");
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(new SimpleTransactionStatus());
+            events.add("commit");
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+        when(walletRepository.findByIdForUpdate(2L)).thenAnswer(invocation -> {
+            events.add("lock");
+            return Optional.of(unstripedWallet);
+        });
+        when(walletRepository.findByIdForUpdate(3L)).thenReturn(Optional.empty());
+        when(walletRepository.save(unstripedWallet)).thenAnswer(invocation -> {
+            events.add("save");
+            return unstripedWallet;
+        });
+
+        walletStripeService.stripeDesignatedWallets();
+
+        assertEquals(List.of("begin", "commit", "begin", "lock", "save", "commit", "begin", "commit"), events);
+        assertEquals(2, unstripedWallet.getStripeCount());
+        verify(walletStripeRepository, times(2)).save(any(WalletStripe.class));
+        verify(walletRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldStripeWalletThrowAnErrorIfWalletIsAlreadyStriped() {
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(wallet));
+
+        AppException exception = assertThrows(AppException.class, () -> walletStripeService.stripeWallet(1L, 2));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatus());
+        assertEquals("Wallet is already striped", exception.getMessage());
+    }
+
+    @Test
+    void shouldCreditPickOneStripe() {
+        walletStripeService.credit(wallet, 5.0);
+
+        verify(walletStripeRepository, times(1)).credit(eq(1L), intThat(index -> index >= 0 && index < 4), eq(5.0));
+    }
+
+    @Test
+    void shouldDebitStopAtTheFirstStripeWithEnoughBalance() {
+        when(walletStripeRepository.debit(eq(1L), anyInt(), eq(5.0))).thenReturn(1);
+
+        walletStripeService.debit(wallet, 5.0);
+
+        verify(walletStripeRepository, times(1)).debit(eq(1L), anyInt(), eq(5.0));
+        verify(walletStripeRepository, never()).findAllByWalletIdForUpdate(any());
+    }
+
+    @Test
+    void shouldDebitSweepStripesIfNoSingleStripeHasEnoughBalance() {
+        List<WalletStripe> walletStripes = List.of(
+                WalletStripe.builder().walletId(1L).stripeIndex(0).amount(2.0).build(),
+                WalletStripe.builder().walletId(1L).stripeIndex(1).amount(2.0).build(),
+                WalletStripe.builder().walletId(1L).stripeIndex(2).amount(2.0).build(),
+                WalletStripe.builder().walletId(1L).stripeIndex(3).amount(2.0).build()
+        );
+
+        when(walletStripeRepository.debit(eq(1L), anyInt(), eq(5.0))).thenReturn(0);
+        when(walletStripeRepository.findAllByWalletIdForUpdate(1L)).thenReturn(walletStripes);
+
+        walletStripeService.debit(wallet, 5.0);
+
+        verify(walletStripeRepository, times(4)).debit(eq(1L), anyInt(), eq(5.0));
+        verify(walletStripeRepository, times(1)).saveAll(walletStripes);
+
+        assertEquals(3.0, walletStripes.get(0).getAmount());
+        assertEquals(0.0, walletStripes.get(1).getAmount());
+    }
+
+    @Test
+    void shouldDebitThrowAnErrorIfStripesDoNotHaveEnoughBalance() {
+        when(walletStripeRepository.debit(eq(1L), anyInt(), eq(5.0))).thenReturn(0);
+        when(walletStripeRepository.findAllByWalletIdForUpdate(1L)).thenReturn(List.of(
+                WalletStripe.builder().walletId(1L).stripeIndex(0).amount(2.0).build()
+        ));
+
+        AppException exception = assertThrows(AppException.class, () -> walletStripeService.debit(wallet, 5.0));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatus());
+        assertEquals("Amount exceeded current balance in wallet", exception.getMessage());
+
+        verify(walletStripeRepository, never()).saveAll(any());
+    }
+}
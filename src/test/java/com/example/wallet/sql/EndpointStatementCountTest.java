@@ -0,0 +1,146 @@
+package com.example.wallet.sql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.wallet.sql.StatementCountAssertions.assertStatementCount;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each endpoint runs through the whole stack, security filters
+ * and JdbcTemplate repositories included, so an added query fails the build.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:endpoint-statements;MODE=PostgreSQL",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "jwt.secret=endpoint-statement-count-secret"
+})
+@AutoConfigureMockMvc
+class EndpointStatementCountTest {
+
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+    private long recipientWalletId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        token = createUser();
+        String recipientToken = createUser();
+        recipientWalletId = objectMapper.readTree(mockMvc.perform(get("/api/v1/wallet").header("Authorization", "Bearer " + recipientToken))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(authorized(put("/api/v1/wallet/deposit"), Map.of("amount", 100.0))).andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldFetchWalletRunPinnedStatements() {
+        assertStatements(1, authorized(get("/api/v1/wallet"), null));
+    }
+
+    @Test
+    void shouldDepositRunPinnedStatements() {
+        assertStatements(5, authorized(put("/api/v1/wallet/deposit"), Map.of("amount", 10.0)));
+    }
+
+    @Test
+    void shouldWithdrawRunPinnedStatements() {
+        assertStatements(5, authorized(put("/api/v1/wallet/withdraw"), Map.of("amount", 10.0)));
+    }
+
+    @Test
+    void shouldTransferRunPinnedStatements() {
+        assertStatements(8, authorized(put("/api/v1/wallet/transfer"), Map.of("amount", 10.0, "walletId", recipientWalletId)));
+    }
+
+    @Test
+    void shouldGetTransactionsRunPinnedStatements() {
+        assertStatements(2, authorized(get("/api/v1/transactions"), null));
+    }
+
+    @Test
+    void shouldGetTransactionsInARangeRunPinnedStatements() {
+        assertStatements(2, authorized(get("/api/v1/transactions").param("from", "2020-01-01T00:00:00"), null));
+    }
+
+    @Test
+    void shouldGetTransactionSummaryRunPinnedStatements() {
+        assertStatements(2, authorized(get("/api/v1/transactions/summary").param("from", "2020-01-01").param("to", "2030-01-01"), null));
+    }
+
+    @Test
+    void shouldLoginRunPinnedStatements() {
+        int user = USERS.get();
+        assertStatements(5, post("/api/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"user" + user + "@example.com\",\"password\":\"helloworld\"}"));
+    }
+
+    @Test
+    void shouldRegisterRunPinnedStatements() {
+        assertStatements(4, post("/api/v1/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"firstName\":\"Faiz\",\"lastName\":\"Shah\",\"email\":\"new" + USERS.incrementAndGet() + "@example.com\",\"password\":\"helloworld\"}"));
+    }
+
+    private void assertStatements(int expected, MockHttpServletRequestBuilder request) {
+        assertStatementCount(expected, () -> mockMvc.perform(request).andExpect(status().is2xxSuccessful()));
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request, Object body) {
+        request.header("Authorization", "Bearer " + token);
+
+        if (body != null) {
+            try {
+                request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return request;
+    }
+
+    private String createUser() throws Exception {
+        String email = "user" + USERS.incrementAndGet() + "@example.com";
+
+        mockMvc.perform(post("/api/v1/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Faiz\",\"lastName\":\"Shah\",\"email\":\"" + email + "\",\"password\":\"helloworld\"}"))
+                .andExpect(status().isCreated());
+
+        String login = mockMvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"helloworld\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String accessToken = objectMapper.readTree(login).get("token").asText();
+
+        mockMvc.perform(put("/api/v1/wallet/activate")
+                        .header("Authorization", "Bearer " + accessToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"currency\":\"RUPEE\"}"))
+                .andExpect(status().isOk());
+
+        return accessToken;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.wallet.sql;
+
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pins the number of SQL statements a piece of code runs, so extra queries fail the test instead
+ * of showing up in production.
+ */
+public final class StatementCountAssertions {
+
+    private static final int MAX_RECORDED_STATEMENTS = 50;
+
+    private StatementCountAssertions() {
+    }
+
+    public static void assertStatementCount(int expected, Executable executable) {
+        assertStatementCount(expected, () -> {
+            executable.execute();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the executable and returns the statements it ran, for asserting on their shape.
+     */
+    public static List<String> recordStatements(Executable executable) {
+        try (StatementRecorder recorder = StatementRecorder.start(MAX_RECORDED_STATEMENTS)) {
+            assertDoesNotThrow(executable);
+
+            return recorder.getStatements();
+        }
+    }
+
+    public static <T> T assertStatementCount(int expected, ThrowingSupplier<T> supplier) {
+        try (StatementRecorder recorder = StatementRecorder.start(MAX_RECORDED_STATEMENTS)) {
+            T result = assertDoesNotThrow(supplier);
+
+            assertEquals(expected, recorder.getCount(), () -> "Unexpected SQL statements: " + String.join("\n", recorder.getStatements()));
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.wallet.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementMonitorFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StatementMonitorFilter statementMonitorFilter = new StatementMonitorFilter(meterRegistry, 2, Duration.ofSeconds(10));
+
+    @Test
+    void shouldCountStatementsPerEndpointAndFlagRequestsOverTheLimit() throws Exception {
+        perform(1);
+        perform(3);
+
+        assertEquals(2, meterRegistry.get("wallet.sql.statements").tag("endpoint", "/api/v1/wallet").summary().count());
+        assertEquals(4, meterRegistry.get("wallet.sql.statements").tag("endpoint", "/api/v1/wallet").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("wallet.sql.flagged.requests").tag("endpoint", "/api/v1/wallet").counter().count());
+    }
+
+    @Test
+    void shouldNotRecordStatementsOutsideOfRequests() {
+        StatementRecorder.record("select 1");
+
+        try (StatementRecorder recorder = StatementRecorder.start(1)) {
+            StatementRecorder.record("select 1");
+            StatementRecorder.record("select 2");
+
+            assertEquals(2, recorder.getCount());
+            assertEquals(1, recorder.getStatements().size());
+        }
+    }
+
+    private void perform(int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/wallet");
+        FilterChain filterChain = (servletRequest, servletResponse) -> {
+            servletRequest.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/wallet");
+
+            for (int i = 0; i < statements; i++) {
+                StatementRecorder.record("select * from wallets where id = ?");
+            }
+        };
+
+        statementMonitorFilter.doFilter(request, new MockHttpServletResponse(), filterChain);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.wallet.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementTimingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:statement-timing;DB_CLOSE_DELAY=-1");
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", meterRegistry);
+        StatementTimer statementTimer = new StatementTimer(beanFactory.getBeanProvider(MeterRegistry.class), Duration.ofSeconds(10));
+
+        jdbcTemplate = new JdbcTemplate(new StatementTimingDataSource(dataSource, statementTimer));
+        jdbcTemplate.execute("DROP TABLE IF EXISTS items");
+        jdbcTemplate.execute("CREATE TABLE items (id BIGINT PRIMARY KEY)");
+    }
+
+    @Test
+    void shouldTimeAndRecordStatementsRunThroughJdbcTemplate() {
+        long timedBefore = meterRegistry.get("wallet.sql.statement.duration").timer().count();
+
+        try (StatementRecorder recorder = StatementRecorder.start(10)) {
+            jdbcTemplate.batchUpdate("INSERT INTO items (id) VALUES (?)", List.of(new Object[]{1L}, new Object[]{2L}, new Object[]{3L}));
+            assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+
+            assertEquals(2, recorder.getCount());
+            assertEquals(List.of("INSERT INTO items (id) VALUES (?)", "SELECT COUNT(*) FROM items"), recorder.getStatements());
+        }
+
+        assertEquals(timedBefore + 2, meterRegistry.get("wallet.sql.statement.duration").timer().count());
+    }
+}
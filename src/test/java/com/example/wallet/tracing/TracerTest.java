@@ -0,0 +1,89 @@
+package com.example.wallet.tracing;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private final InMemorySpanExporter exporter = new InMemorySpanExporter();
+
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        tracer = new Tracer();
+
+        ReflectionTestUtils.setField(tracer, "enabled", true);
+        ReflectionTestUtils.setField(tracer, "exporters", List.of(exporter));
+    }
+
+    @Test
+    void shouldExportNestedSpansWhenTheRootEnds() {
+        try (Span root = tracer.startTrace("PUT /api/v1/wallet/transfer")) {
+            try (Span service = tracer.startSpan("WalletService.transferAmountToWallet")) {
+                try (Span repository = tracer.startSpan("WalletRepository.findById")) {
+                    assertTrue(exporter.getSpans().isEmpty());
+                }
+            }
+        }
+
+        List<SpanData> spans = exporter.getSpans();
+
+        assertEquals(List.of("WalletRepository.findById", "WalletService.transferAmountToWallet", "PUT /api/v1/wallet/transfer"),
+                spans.stream().map(SpanData::name).toList());
+        assertEquals(1, spans.stream().map(SpanData::traceId).distinct().count());
+        assertEquals(spans.get(1).spanId(), spans.get(0).parentSpanId());
+        assertEquals(spans.get(2).spanId(), spans.get(1).parentSpanId());
+        assertNull(spans.get(2).parentSpanId());
+        assertTrue(spans.get(2).durationNanos() >= spans.get(1).durationNanos());
+        assertTrue(tracer.getFinishedSpans().isEmpty());
+    }
+
+    @Test
+    void shouldIgnoreSpansOutsideOfTraceOrWhenDisabled() {
+        try (Span span = tracer.startSpan("WalletService.transferAmountBetweenWallets")) {
+            assertSame(Span.NOOP, span);
+        }
+
+        ReflectionTestUtils.setField(tracer, "enabled", false);
+
+        try (Span root = tracer.startTrace("GET /api/v1/wallet"); Span span = tracer.startSpan("WalletService.getUserWalletByEmail")) {
+            assertSame(Span.NOOP, root);
+            assertSame(Span.NOOP, span);
+        }
+
+        assertTrue(exporter.getSpans().isEmpty());
+    }
+
+    @Test
+    void shouldSummarizeStagesInServerTimingHeader() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain filterChain = (request, servletResponse) -> {
+            try (Span lookup = tracer.startSpan("UserService.loadUserByUsername")) {
+                try (Span repository = tracer.startSpan("UserRepository.findByEmail")) {
+                }
+            }
+
+            try (Span repository = tracer.startSpan("UserRepository.findByEmail")) {
+            }
+
+            servletResponse.getWriter().write("{\"success\":true}");
+        };
+
+        new TracingFilter(tracer, true).doFilter(new MockHttpServletRequest("GET", "/api/v1/wallet"), response, filterChain);
+
+        String serverTiming = response.getHeader(TracingFilter.SERVER_TIMING);
+
+        assertTrue(serverTiming.matches("UserRepository\\.findByEmail;dur=[0-9.]+, UserService\\.loadUserByUsername;dur=[0-9.]+, total;dur=[0-9.]+"), serverTiming);
+        assertEquals("{\"success\":true}", response.getContentAsString());
+        assertEquals(4, exporter.getSpans().size());
+    }
+}